@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 1997, 2015 by ProSyst Software GmbH and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.automation.core.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.smarthome.automation.Rule;
+import org.eclipse.smarthome.automation.Trigger;
+import org.eclipse.smarthome.automation.core.internal.RuleEngineCallbackImpl.TriggerData;
+import org.junit.Assert;
+import org.junit.Test;
+import org.osgi.service.cm.ConfigurationException;
+
+/**
+ * Test the execution of rules by the {@link RuleEngineCallbackImpl}
+ *
+ * @author agent - initial version
+ */
+public class RuleEngineCallbackImplTest {
+
+    private final Trigger trigger = new Trigger("trigger", "GenericEventTrigger", null);
+
+    /**
+     * A rule engine, which records the executions of a rule instead of running it.
+     */
+    private static class RecordingRuleEngine extends RuleEngine {
+
+        private final List<Object> executions = Collections.synchronizedList(new ArrayList<Object>());
+
+        private final AtomicInteger running = new AtomicInteger();
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private final CountDownLatch firstExecution = new CountDownLatch(1);
+
+        private volatile boolean overlapping = false;
+
+        private RecordingRuleEngine(String triggerPolicy) throws ConfigurationException {
+            super(new BundleContextMockup());
+            Hashtable<String, Object> properties = new Hashtable<String, Object>();
+            properties.put(CONFIG_PROPERTY_TRIGGER_POLICY, triggerPolicy);
+            updated(properties);
+        }
+
+        @Override
+        protected void runRule(RuntimeRule rule, TriggerData td) {
+            if (running.incrementAndGet() > 1) {
+                overlapping = true;
+            }
+            started.countDown();
+            try {
+                firstExecution.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executions.add(td.getOutputs().get("value"));
+            running.decrementAndGet();
+        }
+    }
+
+    private RecordingRuleEngine triggerWhileRunning(String triggerPolicy, int count) throws Exception {
+        RecordingRuleEngine ruleEngine = new RecordingRuleEngine(triggerPolicy);
+        RuleEngineCallbackImpl callback = new RuleEngineCallbackImpl(ruleEngine, new RuntimeRule(new Rule("rule1")));
+        callback.triggered(trigger, Collections.singletonMap("value", 0));
+        Assert.assertTrue("rule should be started", ruleEngine.started.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < count; i++) {
+            callback.triggered(trigger, Collections.singletonMap("value", i));
+        }
+        Assert.assertTrue("rule should be running", callback.isRunning());
+        ruleEngine.firstExecution.countDown();
+
+        long timeout = System.currentTimeMillis() + 5000;
+        while (callback.isRunning() && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse("rule should be finished", callback.isRunning());
+        Assert.assertFalse("executions of the rule must not overlap", ruleEngine.overlapping);
+        return ruleEngine;
+    }
+
+    /**
+     * test that queued triggers are executed one after the other in their order
+     */
+    @Test
+    public void testQueuePolicy() throws Exception {
+        RecordingRuleEngine ruleEngine = triggerWhileRunning("queue", 50);
+        List<Object> expected = new ArrayList<Object>();
+        for (int i = 0; i < 50; i++) {
+            expected.add(i);
+        }
+        Assert.assertEquals(expected, ruleEngine.executions);
+    }
+
+    /**
+     * test that triggers are dropped while the rule is running
+     */
+    @Test
+    public void testDropPolicy() throws Exception {
+        RecordingRuleEngine ruleEngine = triggerWhileRunning("drop", 50);
+        Assert.assertEquals(Arrays.<Object> asList(0), ruleEngine.executions);
+    }
+
+    /**
+     * test that only the last trigger is executed after the running execution
+     */
+    @Test
+    public void testCoalescePolicy() throws Exception {
+        RecordingRuleEngine ruleEngine = triggerWhileRunning("coalesce", 50);
+        Assert.assertEquals(Arrays.<Object> asList(0, 49), ruleEngine.executions);
+    }
+
+}
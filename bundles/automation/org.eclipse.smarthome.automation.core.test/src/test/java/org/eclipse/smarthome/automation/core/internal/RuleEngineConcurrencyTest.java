@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 1997, 2015 by ProSyst Software GmbH and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.automation.core.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.smarthome.automation.Rule;
+import org.eclipse.smarthome.automation.RuleStatus;
+import org.eclipse.smarthome.automation.RuleStatusInfo;
+import org.eclipse.smarthome.automation.StatusInfoCallback;
+import org.eclipse.smarthome.automation.Trigger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the concurrent execution of many rules by the {@link RuleEngine}, while their status is read in parallel
+ *
+ * @author agent - initial version
+ */
+public class RuleEngineConcurrencyTest {
+
+    private static final int RULES = 500;
+
+    private static final int TRIGGERS = 10000;
+
+    private static final int TRIGGER_THREADS = 8;
+
+    private final Trigger trigger = new Trigger("trigger", ModuleTypeManagerMockup.TRIGGER_TYPE, null);
+
+    /**
+     * test that 10000 concurrent triggers of 500 rules are all executed and that reading the rule status is not
+     * blocked by the executions
+     */
+    @Test
+    public void testConcurrentTriggers() throws Exception {
+        BundleContextMockup bc = new BundleContextMockup();
+        RuleEngine ruleEngine = new RuleEngine(bc);
+        ruleEngine.setModuleTypeManager(new ModuleTypeManagerMockup(bc, ruleEngine));
+
+        final AtomicInteger executions = new AtomicInteger();
+        ruleEngine.setStatusInfoCallback(new StatusInfoCallback() {
+            @Override
+            public void statusInfoChanged(String ruleUID, RuleStatusInfo statusInfo) {
+                if (statusInfo.getStatus() == RuleStatus.RUNNING) {
+                    executions.incrementAndGet();
+                }
+            }
+        });
+
+        final List<RuleEngineCallbackImpl> callbacks = new ArrayList<RuleEngineCallbackImpl>(RULES);
+        for (int i = 0; i < RULES; i++) {
+            Rule rule = ruleEngine.addRule(new Rule("rule" + i), true);
+            Assert.assertEquals(RuleStatus.IDLE, ruleEngine.getRuleStatus(rule.getUID()));
+            callbacks.add(new RuleEngineCallbackImpl(ruleEngine, new RuntimeRule(rule)));
+        }
+
+        // simulates the status requests of the REST API
+        final AtomicBoolean triggering = new AtomicBoolean(true);
+        final AtomicLong statusReads = new AtomicLong();
+        final AtomicReference<Throwable> readFailure = new AtomicReference<Throwable>();
+        final RuleEngine engine = ruleEngine;
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                int i = 0;
+                try {
+                    while (triggering.get()) {
+                        String ruleUID = "rule" + (i++ % RULES);
+                        if (engine.getRuleStatusInfo(ruleUID) == null) {
+                            throw new AssertionError("no status for " + ruleUID);
+                        }
+                        statusReads.incrementAndGet();
+                    }
+                } catch (Throwable t) {
+                    readFailure.set(t);
+                }
+            }
+        };
+        reader.start();
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(TRIGGER_THREADS);
+        for (int t = 0; t < TRIGGER_THREADS; t++) {
+            final int offset = t;
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = offset; i < TRIGGERS; i += TRIGGER_THREADS) {
+                            callbacks.get(i % RULES).triggered(trigger, Collections.singletonMap("out1", i));
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+        start.countDown();
+        Assert.assertTrue("triggers should be sent", done.await(30, TimeUnit.SECONDS));
+
+        long timeout = System.currentTimeMillis() + 30000;
+        while (executions.get() < TRIGGERS && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        for (RuleEngineCallbackImpl callback : callbacks) {
+            while (callback.isRunning() && System.currentTimeMillis() < timeout) {
+                Thread.sleep(10);
+            }
+        }
+        triggering.set(false);
+        reader.join(5000);
+
+        if (readFailure.get() != null) {
+            throw new AssertionError("status should be readable during the executions", readFailure.get());
+        }
+
+        Assert.assertEquals("every trigger should execute its rule", TRIGGERS, executions.get());
+        Assert.assertTrue("status should be readable during the executions", statusReads.get() > 0);
+        for (int i = 0; i < RULES; i++) {
+            Assert.assertEquals(RuleStatus.IDLE, ruleEngine.getRuleStatus("rule" + i));
+        }
+        ruleEngine.dispose();
+    }
+
+}
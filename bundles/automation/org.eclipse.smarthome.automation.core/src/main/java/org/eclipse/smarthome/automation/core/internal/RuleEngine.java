@@ -10,6 +10,7 @@ package org.eclipse.smarthome.automation.core.internal;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -18,6 +19,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
@@ -34,6 +37,7 @@ import org.eclipse.smarthome.automation.RuleStatusInfo;
 import org.eclipse.smarthome.automation.StatusInfoCallback;
 import org.eclipse.smarthome.automation.Trigger;
 import org.eclipse.smarthome.automation.core.internal.RuleEngineCallbackImpl.TriggerData;
+import org.eclipse.smarthome.automation.core.internal.RuleEngineCallbackImpl.TriggerPolicy;
 import org.eclipse.smarthome.automation.core.internal.composite.CompositeModuleHandlerFactory;
 import org.eclipse.smarthome.automation.core.internal.type.ModuleTypeManager;
 import org.eclipse.smarthome.automation.core.util.ConnectionValidator;
@@ -111,22 +115,37 @@ public class RuleEngine
      */
     private long scheduleReinitializationDelay = DEFAULT_REINITIALIZATION_DELAY;
 
+    /**
+     * Policy for triggers, which arrive while the rule is running: {@code queue} (default), {@code drop} or
+     * {@code coalesce}.
+     *
+     * @see TriggerPolicy
+     */
+    public static final String CONFIG_PROPERTY_TRIGGER_POLICY = "rule.trigger.policy";
+
+    /**
+     * Policy for triggers, which arrive while the rule is running.
+     */
+    private volatile TriggerPolicy triggerPolicy = TriggerPolicy.QUEUE;
+
     /**
      * {@link Map} of rule's id to corresponding {@link RuleEngineCallback}s. For each {@link Rule} there is one and
      * only one rule callback.
      */
-    private Map<String, RuleEngineCallbackImpl> reCallbacks = new HashMap<String, RuleEngineCallbackImpl>();
+    private final ConcurrentMap<String, RuleEngineCallbackImpl> reCallbacks = new ConcurrentHashMap<>();
 
     /**
-     * {@link Map} of module type UIDs to rules where these module types participated.
+     * {@link Map} of module type UIDs to rules where these module types participated. The sets of rule UIDs are
+     * concurrent, so they can be iterated without locking; sets are only added and removed while holding the lock of
+     * the map.
      */
-    private Map<String, Set<String>> mapModuleTypeToRules = new HashMap<String, Set<String>>();
+    private final ConcurrentMap<String, Set<String>> mapModuleTypeToRules = new ConcurrentHashMap<>();
 
     /**
      * {@link Map} of created rules. It contains all rules added to rule engine independent if they are initialized or
      * not. The relation is rule's id to {@link Rule} object.
      */
-    private Map<String, RuntimeRule> rules;
+    private final ConcurrentMap<String, RuntimeRule> rules = new ConcurrentHashMap<String, RuntimeRule>(20);
 
     /**
      * Tracker of module handler factories. Each factory has a type which can evaluate. This type corresponds to the
@@ -142,23 +161,28 @@ public class RuleEngine
     /**
      * {@link Map} system module type to corresponding module handler factories.
      */
-    private Map<String, ModuleHandlerFactory> moduleHandlerFactories;
+    private final Map<String, ModuleHandlerFactory> moduleHandlerFactories = new ConcurrentHashMap<>(20);
 
     /**
      * Locker which does not permit rule initialization when the rule engine is stopping.
      */
-    private boolean isDisposed = false;
+    private volatile boolean isDisposed = false;
 
     /**
-     * {@link Map} of {@link Rule}'s id to current {@link RuleStatus} object.
+     * {@link Map} of {@link Rule}'s id to current {@link RuleStatus} object. Status changes of a running rule are
+     * done with atomic replacements, so reading a status never blocks.
      */
-    private Map<String, RuleStatusInfo> statusMap = new HashMap<String, RuleStatusInfo>();
+    private final ConcurrentMap<String, RuleStatusInfo> statusMap = new ConcurrentHashMap<String, RuleStatusInfo>();
 
     protected Logger logger;
 
-    private StatusInfoCallback statusInfoCallback;
+    private volatile StatusInfoCallback statusInfoCallback;
 
-    private Map<String, Map<String, Object>> contextMap;
+    /**
+     * {@link Map} of {@link Rule}'s id to the context of its current execution. A context is only accessed by the
+     * execution of its rule and the executions of a rule are serialized by its {@link RuleEngineCallbackImpl}.
+     */
+    private final ConcurrentMap<String, Map<String, Object>> contextMap = new ConcurrentHashMap<>();
 
     private ModuleTypeManager mtManager;
 
@@ -166,7 +190,10 @@ public class RuleEngine
 
     private int ruleMaxID = 0;
 
-    private Map<String, Future> scheduleTasks = new HashMap<String, Future>(31);
+    /**
+     * {@link Map} of rule's id to its scheduled initialization, also guards {@link #executor}.
+     */
+    private final Map<String, Future> scheduleTasks = new HashMap<String, Future>(31);
 
     private ScheduledExecutorService executor;
 
@@ -180,11 +207,6 @@ public class RuleEngine
     public RuleEngine(BundleContext bc) {
         this.bc = bc;
         logger = LoggerFactory.getLogger(getClass());
-        contextMap = new HashMap<String, Map<String, Object>>();
-        if (rules == null) {
-            rules = new HashMap<String, RuntimeRule>(20);
-        }
-        moduleHandlerFactories = new HashMap<String, ModuleHandlerFactory>(20);
         mhfTracker = new ServiceTracker/* <ModuleHandlerFactory, ModuleHandlerFactory> */(bc,
                 ModuleHandlerFactory.class.getName(), this);
         mhfTracker.open();
@@ -201,8 +223,8 @@ public class RuleEngine
     public Rule addRule(Rule rule, boolean isEnabled) {
         RuntimeRule rr;
         Rule ruleWithUID;
-        String rUID = rule.getUID();
-        ruleWithUID = (rUID == null) ? initRuleId(rule) : rule;
+        ruleWithUID = (rule.getUID() == null) ? initRuleId(rule) : rule;
+        String rUID = ruleWithUID.getUID();
         rr = new RuntimeRule(ruleWithUID);
         rules.put(rUID, rr);
         logger.debug("Added rule '{}'", rUID);
@@ -282,24 +304,22 @@ public class RuleEngine
         String rUID = rule.getUID();
         RuntimeRule r;
         boolean isRuleEnabled = false;
-        synchronized (this) {
-            if (rUID == null) {
+        if (rUID == null) {
+            synchronized (this) {
                 rUID = getUniqueId();
-                r = new RuntimeRule(rule);
-                r.setUID(rUID);
-                isRuleEnabled = true;
-            } else {
-                r = rules.get(rUID); // old rule
-                if (r != null) {
-                    unregister(r);
-                }
-                r = new RuntimeRule(rule); // new updated rule
             }
-            rules.put(rUID, r);
-            logger.debug("Updated rule '{}'.", rUID);
+            r = new RuntimeRule(rule);
+            r.setUID(rUID);
+            isRuleEnabled = true;
+        } else {
+            r = new RuntimeRule(rule); // new updated rule
         }
+        RuntimeRule oldRule = rules.put(rUID, r);
+        if (oldRule != null) {
+            unregister(oldRule);
+        }
+        logger.debug("Updated rule '{}'.", rUID);
         if (isRuleEnabled) {
-            // this method must be called outside of synchronized block
             setRuleEnabled(rUID, true);
         }
 
@@ -322,16 +342,16 @@ public class RuleEngine
             return;
         }
 
-        RuleStatusInfo ruleStatus = null;
-        synchronized (this) {
-            ruleStatus = statusMap.get(rUID);
-        }
+        RuleStatusInfo ruleStatus = statusMap.get(rUID);
         if (ruleStatus != null && RuleStatus.NOT_INITIALIZED != ruleStatus.getStatus()) {
             setRuleStatusInfo(rUID, new RuleStatusInfo(RuleStatus.NOT_INITIALIZED));
         }
 
         String errMsgs = null;
         RuntimeRule r = getRule0(rUID);
+        if (r == null) {
+            return; // the rule has been removed in the meantime
+        }
         if (r.getTemplateUID() != null) {
             return; // Template is not available (when a template is resolved it removes tempalteUID configuration
                     // property). The rule must stay NOT_INITIALISED.
@@ -362,17 +382,19 @@ public class RuleEngine
             // change state to IDLE
             setRuleStatusInfo(rUID, new RuleStatusInfo(RuleStatus.IDLE));
 
-            Future f = scheduleTasks.remove(rUID);
-            if (f != null) {
-                if (!f.isDone()) {
-                    f.cancel(true);
+            synchronized (scheduleTasks) {
+                Future f = scheduleTasks.remove(rUID);
+                if (f != null) {
+                    if (!f.isDone()) {
+                        f.cancel(true);
+                    }
                 }
-            }
 
-            if (scheduleTasks.isEmpty()) {
-                if (executor != null) {
-                    executor.shutdown();
-                    executor = null;
+                if (scheduleTasks.isEmpty()) {
+                    if (executor != null) {
+                        executor.shutdown();
+                        executor = null;
+                    }
                 }
             }
 
@@ -392,11 +414,31 @@ public class RuleEngine
      * @param status new rule status info
      */
     private void setRuleStatusInfo(String rUID, RuleStatusInfo status) {
-        synchronized (this) {
-            statusMap.put(rUID, status);
+        statusMap.put(rUID, status);
+        notifyStatusInfoChanged(rUID, status);
+    }
+
+    /**
+     * This method atomically replaces the {@link RuleStatusInfo} of the rule, if it is still the expected one, and
+     * notifies the registry about the change.
+     *
+     * @param rUID UID of the rule
+     * @param expected the status info, which the rule is expected to have
+     * @param status new rule status info
+     * @return true if the status info has been replaced, false if the rule had another status info
+     */
+    private boolean replaceRuleStatusInfo(String rUID, RuleStatusInfo expected, RuleStatusInfo status) {
+        if (!statusMap.replace(rUID, expected, status)) {
+            return false;
         }
-        if (statusInfoCallback != null) {
-            statusInfoCallback.statusInfoChanged(rUID, status);
+        notifyStatusInfoChanged(rUID, status);
+        return true;
+    }
+
+    private void notifyStatusInfoChanged(String rUID, RuleStatusInfo status) {
+        StatusInfoCallback callback = statusInfoCallback;
+        if (callback != null) {
+            callback.statusInfoChanged(rUID, status);
         }
     }
 
@@ -452,8 +494,11 @@ public class RuleEngine
     private RuleEngineCallbackImpl getRuleEngineCallback(RuntimeRule rule) {
         RuleEngineCallbackImpl result = reCallbacks.get(rule.getUID());
         if (result == null) {
-            result = new RuleEngineCallbackImpl(this, rule);
-            reCallbacks.put(rule.getUID(), result);
+            RuleEngineCallbackImpl newCallback = new RuleEngineCallbackImpl(this, rule);
+            result = reCallbacks.putIfAbsent(rule.getUID(), newCallback);
+            if (result == null) {
+                result = newCallback;
+            }
         }
         return result;
     }
@@ -557,13 +602,15 @@ public class RuleEngine
         return mhf;
     }
 
-    public synchronized void updateMapModuleTypeToRule(String rUID, String moduleTypeId) {
-        Set<String> rules = mapModuleTypeToRules.get(moduleTypeId);
-        if (rules == null) {
-            rules = new HashSet<String>(11);
+    public void updateMapModuleTypeToRule(String rUID, String moduleTypeId) {
+        synchronized (mapModuleTypeToRules) {
+            Set<String> rules = mapModuleTypeToRules.get(moduleTypeId);
+            if (rules == null) {
+                rules = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>(11));
+                mapModuleTypeToRules.put(moduleTypeId, rules);
+            }
+            rules.add(rUID);
         }
-        rules.add(rUID);
-        mapModuleTypeToRules.put(moduleTypeId, rules);
     }
 
     /**
@@ -572,7 +619,7 @@ public class RuleEngine
      * @param id id of removed {@link Rule}
      * @return true when a rule is deleted, false when there is no rule with such id.
      */
-    public synchronized boolean removeRule(String id) {
+    public boolean removeRule(String id) {
         RuntimeRule r = rules.remove(id);
         if (r != null) {
             removeRuleEntry(r);
@@ -589,7 +636,7 @@ public class RuleEngine
      */
     private RuntimeRule removeRuleEntry(RuntimeRule r) {
         unregister(r);
-        synchronized (this) {
+        synchronized (mapModuleTypeToRules) {
             for (Iterator<Map.Entry<String, Set<String>>> it = mapModuleTypeToRules.entrySet().iterator(); it
                     .hasNext();) {
                 Map.Entry<String, Set<String>> e = it.next();
@@ -601,9 +648,9 @@ public class RuleEngine
                     }
                 }
             }
-
-            statusMap.remove(r.getUID());
         }
+        statusMap.remove(r.getUID());
+        contextMap.remove(r.getUID());
         return r;
     }
 
@@ -613,7 +660,7 @@ public class RuleEngine
      * @param rId rule id
      * @return {@link Rule} object or null when rule with such id is not added to the rule engine.
      */
-    public synchronized Rule getRule(String rId) {
+    public Rule getRule(String rId) {
         RuntimeRule rule = rules.get(rId);
         if (rule != null) {
             Rule r = RuleUtils.getRuleCopy(rule);
@@ -629,7 +676,7 @@ public class RuleEngine
      * @param rUID unieque id of the {@link Rule}
      * @return internal {@link RuntimeRule} object
      */
-    private synchronized RuntimeRule getRule0(String rUID) {
+    private RuntimeRule getRule0(String rUID) {
         return rules.get(rUID);
     }
 
@@ -649,7 +696,7 @@ public class RuleEngine
      * @param tag the tag of looking rules.
      * @return Collection of rules containing specified tag.
      */
-    public synchronized Collection<Rule> getRulesByTag(String tag) {
+    public Collection<Rule> getRulesByTag(String tag) {
         Collection<Rule> result = new ArrayList<Rule>(10);
         for (Iterator<RuntimeRule> it = rules.values().iterator(); it.hasNext();) {
             RuntimeRule r = it.next();
@@ -671,7 +718,7 @@ public class RuleEngine
      * @param tags list of tags of looking rules
      * @return collection of rules which have specified tags.
      */
-    public synchronized Collection<Rule> getRulesByTags(Set<String> tags) {
+    public Collection<Rule> getRulesByTags(Set<String> tags) {
         Collection<Rule> result = new ArrayList<Rule>(10);
         for (Iterator<RuntimeRule> it = rules.values().iterator(); it.hasNext();) {
             RuntimeRule r = it.next();
@@ -726,7 +773,7 @@ public class RuleEngine
      * @param rUID unique id of the {@link Rule}
      * @return true when such rule exists, false otherwise.
      */
-    public synchronized boolean hasRule(String rUID) {
+    public boolean hasRule(String rUID) {
         return rules.get(rUID) != null;
     }
 
@@ -750,11 +797,8 @@ public class RuleEngine
         Set<String> notInitailizedRules = null;
         for (Iterator<String> it = moduleTypes.iterator(); it.hasNext();) {
             String moduleTypeName = it.next();
-            Set<String> rules = null;
-            synchronized (this) {
-                moduleHandlerFactories.put(moduleTypeName, mhf);
-                rules = mapModuleTypeToRules.get(moduleTypeName);
-            }
+            moduleHandlerFactories.put(moduleTypeName, mhf);
+            Set<String> rules = mapModuleTypeToRules.get(moduleTypeName);
             if (rules != null) {
                 for (String rUID : rules) {
                     RuleStatus ruleStatus = getRuleStatus(rUID);
@@ -775,17 +819,22 @@ public class RuleEngine
     }
 
     private void scheduleRuleInitialization(final String rUID) {
-        Future f = scheduleTasks.get(rUID);
-        if (f == null) {
-            ScheduledExecutorService ex = getScheduledExecutor();
-            f = ex.schedule(new Runnable() {
-
-                @Override
-                public void run() {
-                    setRule(rUID);
-                }
-            }, scheduleReinitializationDelay, TimeUnit.MILLISECONDS);
-            scheduleTasks.put(rUID, f);
+        synchronized (scheduleTasks) {
+            if (isDisposed) {
+                return;
+            }
+            Future f = scheduleTasks.get(rUID);
+            if (f == null) {
+                ScheduledExecutorService ex = getScheduledExecutor();
+                f = ex.schedule(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        setRule(rUID);
+                    }
+                }, scheduleReinitializationDelay, TimeUnit.MILLISECONDS);
+                scheduleTasks.put(rUID, f);
+            }
         }
     }
 
@@ -844,10 +893,7 @@ public class RuleEngine
         Map<String, List<String>> mapMissingHandlers = null;
         for (Iterator<String> it = moduleTypes.iterator(); it.hasNext();) {
             String moduleTypeName = it.next();
-            Set<String> rules = null;
-            synchronized (this) {
-                rules = mapModuleTypeToRules.get(moduleTypeName);
-            }
+            Set<String> rules = mapModuleTypeToRules.get(moduleTypeName);
             if (rules != null) {
                 for (String rUID : rules) {
                     RuleStatus ruleStatus = getRuleStatus(rUID);
@@ -891,8 +937,8 @@ public class RuleEngine
     }
 
     /**
-     * This method runs a {@link Rule}. It is called by the {@link RuleEngineCallback}'s thread when a new
-     * {@link TriggerData} is available. This method switches
+     * This method runs a {@link Rule}. It is called by the {@link RuleEngineCallback} on the rule thread pool when a
+     * new {@link TriggerData} is available. This method switches
      *
      * @param rule the {@link Rule} which has to evaluate new {@link TriggerData}.
      * @param td {@link TriggerData} object containing new values for {@link Trigger}'s {@link Output}s
@@ -900,14 +946,15 @@ public class RuleEngine
     protected void runRule(RuntimeRule rule, RuleEngineCallbackImpl.TriggerData td) {
         final String uid = rule.getUID();
 
-        synchronized (this) {
-            final RuleStatus ruleStatus = getRuleStatus(uid);
-            if (ruleStatus != RuleStatus.IDLE) {
-                logger.error("Trying to execute rule ‘{}' with status '{}'", uid, ruleStatus.getValue());
-                return;
-            }
-            // change state to RUNNING
-            setRuleStatusInfo(uid, new RuleStatusInfo(RuleStatus.RUNNING));
+        // change state to RUNNING, if the rule is IDLE
+        final RuleStatusInfo runningInfo = new RuleStatusInfo(RuleStatus.RUNNING);
+        final RuleStatusInfo statusInfo = statusMap.get(uid);
+        if (statusInfo == null || statusInfo.getStatus() != RuleStatus.IDLE
+                || !replaceRuleStatusInfo(uid, statusInfo, runningInfo)) {
+            RuleStatus ruleStatus = getRuleStatus(uid);
+            logger.error("Trying to execute rule ‘{}' with status '{}'", uid,
+                    ruleStatus != null ? ruleStatus.getValue() : null);
+            return;
         }
 
         try {
@@ -925,12 +972,9 @@ public class RuleEngine
             logger.error("Fail to execute rule '{}': {}", new Object[] { rule.getUID(), t.getMessage() }, t);
         }
 
-        // change state to IDLE only if the rule has not been DISABLED.
-        synchronized (this) {
-            if (getRuleStatus(uid) != RuleStatus.DISABLED) {
-                setRuleStatusInfo(uid, new RuleStatusInfo(RuleStatus.IDLE));
-            }
-        }
+        // change state to IDLE only if the status has not been changed in the meantime, e.g. the rule has been
+        // DISABLED.
+        replaceRuleStatusInfo(uid, runningInfo, new RuleStatusInfo(RuleStatus.IDLE));
     }
 
     private void clearContext(RuntimeRule rule) {
@@ -976,7 +1020,10 @@ public class RuleEngine
         Map<String, Object> context = contextMap.get(ruleUID);
         if (context == null) {
             context = new HashMap<String, Object>();
-            contextMap.put(ruleUID, context);
+            Map<String, Object> existingContext = contextMap.putIfAbsent(ruleUID, context);
+            if (existingContext != null) {
+                context = existingContext;
+            }
         }
         if (connections != null) {
             StringBuffer sb = new StringBuffer();
@@ -1075,21 +1122,18 @@ public class RuleEngine
             }
         }
 
-        for (Future f : scheduleTasks.values()) {
-            f.cancel(true);
-        }
-        if (scheduleTasks.isEmpty()) {
+        synchronized (scheduleTasks) {
+            for (Future f : scheduleTasks.values()) {
+                f.cancel(true);
+            }
+            scheduleTasks.clear();
             if (executor != null) {
                 executor.shutdown();
                 executor = null;
             }
         }
-        scheduleTasks = null;
 
-        if (contextMap != null) {
-            contextMap.clear();
-            contextMap = null;
-        }
+        contextMap.clear();
         statusInfoCallback = null;
     }
 
@@ -1114,9 +1158,8 @@ public class RuleEngine
      * @param rUID rule uid
      * @return status of the rule or null when such rule does not exists.
      */
-    public synchronized RuleStatusInfo getRuleStatusInfo(String rUID) {
-        RuleStatusInfo info = statusMap.get(rUID);
-        return info;
+    public RuleStatusInfo getRuleStatusInfo(String rUID) {
+        return statusMap.get(rUID);
     }
 
     protected String getUniqueId() {
@@ -1125,9 +1168,6 @@ public class RuleEngine
 
     protected int getMaxId() {
         int result = 0;
-        if (rules == null) {
-            return result;
-        }
         Set<String> col = rules.keySet();
         if (col != null) {
             for (Iterator<String> it = col.iterator(); it.hasNext();) {
@@ -1156,10 +1196,7 @@ public class RuleEngine
         Set<String> notInitailizedRules = null;
         for (Iterator<ModuleType> it = moduleTypes.iterator(); it.hasNext();) {
             String moduleTypeName = it.next().getUID();
-            Set<String> rules = null;
-            synchronized (this) {
-                rules = mapModuleTypeToRules.get(moduleTypeName);
-            }
+            Set<String> rules = mapModuleTypeToRules.get(moduleTypeName);
             if (rules != null) {
                 for (String rUID : rules) {
                     RuleStatus ruleStatus = getRuleStatus(rUID);
@@ -1262,11 +1299,31 @@ public class RuleEngine
             } else {
                 scheduleReinitializationDelay = DEFAULT_REINITIALIZATION_DELAY;
             }
+            value = properties.get(CONFIG_PROPERTY_TRIGGER_POLICY);
+            if (value != null) {
+                try {
+                    triggerPolicy = TriggerPolicy.valueOf(value.toString().trim().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    logger.error("Invalid configuration value: {}. It MUST be queue, drop or coalesce.", value);
+                }
+            } else {
+                triggerPolicy = TriggerPolicy.QUEUE;
+            }
         } else {
             scheduleReinitializationDelay = DEFAULT_REINITIALIZATION_DELAY;
+            triggerPolicy = TriggerPolicy.QUEUE;
         }
     }
 
+    /**
+     * Returns the policy for triggers, which arrive while the rule is running.
+     *
+     * @return the trigger policy
+     */
+    TriggerPolicy getTriggerPolicy() {
+        return triggerPolicy;
+    }
+
     /**
      * The method sets default configuration values for these configuration properties which are not specified in the
      * rule
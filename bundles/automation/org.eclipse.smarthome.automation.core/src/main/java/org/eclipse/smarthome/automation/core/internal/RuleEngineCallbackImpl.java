@@ -7,48 +7,129 @@
  */
 package org.eclipse.smarthome.automation.core.internal;
 
+import java.util.ArrayDeque;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.eclipse.smarthome.automation.Rule;
 import org.eclipse.smarthome.automation.Trigger;
 import org.eclipse.smarthome.automation.handler.RuleEngineCallback;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 
 /**
  * This class is implementation of {@link RuleEngineCallback} used by the {@link Trigger}s to notify rule engine about
  * appearing of new triggered data. There is one and only one {@link RuleEngineCallback} per Rule and it is used by all
  * rule's {@link Trigger}s.
+ * <p>
+ * The rule is executed on the shared thread pool {@value #THREAD_POOL_NAME}. The callback serializes the executions of
+ * its rule, so there is at most one execution of a rule at a time. Triggers, which arrive while the rule is running,
+ * are handled according to the {@link TriggerPolicy} of the rule engine.
  *
  * @author Yordan Mihaylov - Initial Contribution
  * @author Kai Kreuzer - improved stability
  */
 public class RuleEngineCallbackImpl implements RuleEngineCallback {
 
+    /**
+     * The name of the thread pool, which executes the rules.
+     */
+    public static final String THREAD_POOL_NAME = "automation";
+
+    /**
+     * Defines how triggers are handled, which arrive while the rule is running.
+     */
+    public enum TriggerPolicy {
+        /** the triggers are queued and the rule is executed once for each of them */
+        QUEUE,
+        /** the triggers are ignored */
+        DROP,
+        /** only the last trigger is kept and the rule is executed once for it */
+        COALESCE
+    }
+
     private RuntimeRule r;
 
-    private ExecutorService executor;
+    private RuleEngine re;
+
+    /** the triggers waiting for the execution of the rule, guarded by this */
+    private final ArrayDeque<TriggerData> pending = new ArrayDeque<TriggerData>();
 
-    private Future<?> feature;
+    /** true while an execution of the rule is scheduled or running, guarded by this */
+    private boolean running = false;
 
-    private RuleEngine re;
+    private boolean disposed = false;
+
+    private final Runnable execution = new Runnable() {
+        @Override
+        public void run() {
+            TriggerData td;
+            RuntimeRule rule;
+            synchronized (RuleEngineCallbackImpl.this) {
+                td = pending.poll();
+                rule = r;
+            }
+            try {
+                if (td != null && rule != null) {
+                    re.runRule(rule, td);
+                }
+            } finally {
+                synchronized (RuleEngineCallbackImpl.this) {
+                    running = false;
+                    if (!pending.isEmpty()) {
+                        // give the other rules a chance before the next execution of this one
+                        scheduleExecution();
+                    }
+                }
+            }
+        }
+    };
 
     protected RuleEngineCallbackImpl(RuleEngine re, RuntimeRule r) {
         this.re = re;
         this.r = r;
-        executor = Executors.newSingleThreadExecutor();
     }
 
     @Override
     public void triggered(Trigger trigger, Map<String, ?> outputs) {
-        if (executor != null) {
+        synchronized (this) {
+            if (disposed) {
+                return;
+            }
             re.logger.debug("The trigger '{}' of rule '{}' is triggred.", trigger.getId(), r.getUID());
-            synchronized (executor) {
-                if (executor != null) {
-                    feature = executor.submit(new TriggerData(trigger, outputs));
-                }
+            TriggerData td = new TriggerData(trigger, outputs);
+            if (!running) {
+                pending.add(td);
+                scheduleExecution();
+                return;
             }
+            switch (re.getTriggerPolicy()) {
+                case DROP:
+                    re.logger.debug("The rule '{}' is running, the trigger '{}' is dropped.", r.getUID(),
+                            trigger.getId());
+                    break;
+                case COALESCE:
+                    pending.clear();
+                    pending.add(td);
+                    break;
+                default:
+                    pending.add(td);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Schedules the execution of the rule for the first pending trigger. Must be called while holding the lock of this
+     * callback.
+     */
+    private void scheduleExecution() {
+        running = true;
+        try {
+            ThreadPoolManager.getPool(THREAD_POOL_NAME).execute(execution);
+        } catch (RejectedExecutionException e) {
+            // the pending triggers are kept and the execution is scheduled again by the next trigger
+            running = false;
+            re.logger.warn("The execution of rule '{}' has been rejected: {}", r.getUID(), e.getMessage());
         }
     }
 
@@ -56,11 +137,16 @@ public class RuleEngineCallbackImpl implements RuleEngineCallback {
         return r;
     }
 
-    public boolean isRunning() {
-        return feature == null || !feature.isDone();
+    /**
+     * Checks whether the rule is executed or waits for its execution.
+     *
+     * @return true if an execution of the rule is running or pending
+     */
+    public synchronized boolean isRunning() {
+        return running;
     }
 
-    class TriggerData implements Runnable {
+    class TriggerData {
 
         private Trigger trigger;
 
@@ -78,18 +164,11 @@ public class RuleEngineCallbackImpl implements RuleEngineCallback {
             this.trigger = t;
             this.outputs = outputs;
         }
-
-        @Override
-        public void run() {
-            re.runRule(r, this);
-        }
     }
 
-    public void dispose() {
-        synchronized (executor) {
-            executor.shutdownNow();
-            executor = null;
-        }
+    public synchronized void dispose() {
+        disposed = true;
+        pending.clear();
         r = null;
     }
 
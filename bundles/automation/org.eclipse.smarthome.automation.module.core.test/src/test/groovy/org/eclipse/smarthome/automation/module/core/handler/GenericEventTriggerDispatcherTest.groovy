@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 1997, 2015 by ProSyst Software GmbH and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.automation.module.core.handler
+
+import static org.hamcrest.CoreMatchers.*
+import static org.junit.Assert.*
+
+import org.eclipse.smarthome.automation.Trigger
+import org.eclipse.smarthome.automation.handler.RuleEngineCallback
+import org.eclipse.smarthome.config.core.Configuration
+import org.eclipse.smarthome.core.events.Event
+import org.eclipse.smarthome.core.items.events.ItemEventFactory
+import org.eclipse.smarthome.core.library.types.OnOffType
+import org.junit.Before
+import org.junit.Test
+
+/**
+ * Tests the matching of events by the {@link GenericEventTriggerDispatcher}
+ *
+ * @author agent - initial contribution
+ */
+class GenericEventTriggerDispatcherTest {
+
+    GenericEventTriggerDispatcher dispatcher
+    List<String> triggered
+
+    @Before
+    void setUp() {
+        dispatcher = new GenericEventTriggerDispatcher()
+        triggered = []
+    }
+
+    GenericEventTriggerHandler createHandler(String id, String source, String types) {
+        def config = new Configuration([eventSource:source, eventTopic:"smarthome/*", eventTypes:types])
+        def handler = new GenericEventTriggerHandler(new Trigger(id, GenericEventTriggerHandler.MODULE_TYPE_ID, config), dispatcher)
+        handler.ruleEngineCallback = [
+            triggered: { Trigger trigger, Map<String, ?> outputs ->
+                triggered.add(trigger.id)
+            }
+        ] as RuleEngineCallback
+        return handler
+    }
+
+    void dispatch(Event event) {
+        if (dispatcher.apply(event)) {
+            dispatcher.receive(event)
+        }
+    }
+
+    @Test
+    void 'assert that only handlers of the item are triggered'() {
+        createHandler("light", "Light", "ItemStateEvent")
+        createHandler("light2", "Light_2", "ItemStateEvent")
+        createHandler("path", "items/Light", "ItemStateEvent")
+        createHandler("any", "", "ItemStateEvent")
+        createHandler("all", "Light", "ALL")
+        createHandler("command", "Light", "ItemCommandEvent")
+
+        dispatch(ItemEventFactory.createStateEvent("Light", OnOffType.ON))
+        assertThat triggered as Set, is(["light", "path", "any", "all"] as Set)
+
+        triggered.clear()
+        dispatch(ItemEventFactory.createCommandEvent("Light_2", OnOffType.ON))
+        assertThat triggered as Set, is(["all"] as Set)
+    }
+
+    @Test
+    void 'assert that disposed handlers are not triggered anymore'() {
+        def handler = createHandler("light", "Light", "ItemStateEvent")
+        def event = ItemEventFactory.createStateEvent("Light", OnOffType.ON)
+        dispatch(event)
+        assertThat triggered, is(["light"])
+
+        handler.dispose()
+        triggered.clear()
+        assertThat dispatcher.apply(event), is(false)
+        dispatcher.receive(event)
+        assertThat triggered.isEmpty(), is(true)
+    }
+}
@@ -19,12 +19,15 @@ import org.eclipse.smarthome.automation.handler.BaseModuleHandlerFactory;
 import org.eclipse.smarthome.automation.handler.ModuleHandler;
 import org.eclipse.smarthome.automation.module.core.handler.CompareConditionHandler;
 import org.eclipse.smarthome.automation.module.core.handler.EventConditionHandler;
+import org.eclipse.smarthome.automation.module.core.handler.GenericEventTriggerDispatcher;
 import org.eclipse.smarthome.automation.module.core.handler.GenericEventTriggerHandler;
 import org.eclipse.smarthome.automation.module.core.handler.ItemPostCommandActionHandler;
 import org.eclipse.smarthome.automation.module.core.handler.ItemStateConditionHandler;
 import org.eclipse.smarthome.automation.module.core.handler.RuleEnableHandler;
 import org.eclipse.smarthome.core.events.EventPublisher;
+import org.eclipse.smarthome.core.events.EventSubscriber;
 import org.eclipse.smarthome.core.items.ItemRegistry;
+import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,12 +53,23 @@ public class BasicModuleHandlerFactory extends BaseModuleHandlerFactory {
     private EventPublisher eventPublisher;
     private RuleRegistry ruleRegistry;
 
+    private final GenericEventTriggerDispatcher eventTriggerDispatcher = new GenericEventTriggerDispatcher();
+
+    @SuppressWarnings("rawtypes")
+    private ServiceRegistration eventTriggerDispatcherRegistration;
+
     protected void activate(ComponentContext componentContext) {
         super.activate(componentContext.getBundleContext());
+        eventTriggerDispatcherRegistration = bundleContext.registerService(EventSubscriber.class.getName(),
+                eventTriggerDispatcher, null);
     }
 
     protected void deactivate(ComponentContext componentContext) {
         super.deactivate();
+        if (eventTriggerDispatcherRegistration != null) {
+            eventTriggerDispatcherRegistration.unregister();
+            eventTriggerDispatcherRegistration = null;
+        }
     }
 
     protected void setRuleRegistry(RuleRegistry ruleRegistry) {
@@ -157,7 +171,7 @@ public class BasicModuleHandlerFactory extends BaseModuleHandlerFactory {
                     return handler;
                 } else {
                     final GenericEventTriggerHandler triggerHandler = new GenericEventTriggerHandler((Trigger) module,
-                            this.bundleContext);
+                            eventTriggerDispatcher);
                     return triggerHandler;
                 }
             }
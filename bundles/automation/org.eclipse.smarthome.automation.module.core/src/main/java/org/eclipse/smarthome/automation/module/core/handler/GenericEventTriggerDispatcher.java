@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 1997, 2015 by ProSyst Software GmbH and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.automation.module.core.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.events.EventFilter;
+import org.eclipse.smarthome.core.events.EventSubscriber;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * The {@link GenericEventTriggerDispatcher} is the single {@link EventSubscriber} of all
+ * {@link GenericEventTriggerHandler}s. It indexes the handlers by event type and event source, so that an event is
+ * only passed to the handlers, which match it, instead of being offered to every handler.
+ * <p>
+ * A handler matches an event, if it is subscribed to the type of the event and if its source is one of the segments of
+ * the event topic, e.g. the item name of {@code smarthome/items/MyItem/state}. A handler without a source matches all
+ * events of its types and a handler subscribed to {@link #ALL_EVENT_TYPES} matches events of any type. A source
+ * containing a '/' spans several segments and is matched against the whole topic.
+ * <p>
+ * The index is rebuilt when a handler is added or removed, dispatching an event does not need any locks.
+ *
+ * @author agent - Initial contribution and API
+ */
+public class GenericEventTriggerDispatcher implements EventSubscriber, EventFilter {
+
+    private static final Set<String> SUBSCRIBED_EVENT_TYPES = ImmutableSet.of(ALL_EVENT_TYPES);
+
+    private static final String TOPIC_SEPARATOR = "/";
+
+    private final Set<GenericEventTriggerHandler> handlers = new LinkedHashSet<>();
+
+    /** the handlers by event type, replaced as a whole when a handler is added or removed */
+    private volatile Map<String, TypeIndex> index = Collections.emptyMap();
+
+    /**
+     * Adds a handler, which is triggered by the matching events from now on.
+     *
+     * @param handler the handler
+     */
+    public void addHandler(GenericEventTriggerHandler handler) {
+        synchronized (handlers) {
+            handlers.add(handler);
+            rebuildIndex();
+        }
+    }
+
+    /**
+     * Removes a handler.
+     *
+     * @param handler the handler
+     */
+    public void removeHandler(GenericEventTriggerHandler handler) {
+        synchronized (handlers) {
+            handlers.remove(handler);
+            rebuildIndex();
+        }
+    }
+
+    @Override
+    public Set<String> getSubscribedEventTypes() {
+        return SUBSCRIBED_EVENT_TYPES;
+    }
+
+    @Override
+    public EventFilter getEventFilter() {
+        return this;
+    }
+
+    /**
+     * Accepts only events of a type, which any handler is subscribed to, so that other events are not even queued
+     * for this subscriber.
+     */
+    @Override
+    public boolean apply(Event event) {
+        Map<String, TypeIndex> index = this.index;
+        return index.containsKey(event.getType()) || index.containsKey(ALL_EVENT_TYPES);
+    }
+
+    @Override
+    public void receive(Event event) {
+        for (GenericEventTriggerHandler handler : getHandlers(event)) {
+            handler.trigger(event);
+        }
+    }
+
+    /**
+     * Returns the handlers which match the given event.
+     *
+     * @param event the event
+     * @return the matching handlers
+     */
+    Set<GenericEventTriggerHandler> getHandlers(Event event) {
+        Map<String, TypeIndex> index = this.index;
+        Set<GenericEventTriggerHandler> result = new LinkedHashSet<>();
+        addHandlers(index.get(event.getType()), event, result);
+        addHandlers(index.get(ALL_EVENT_TYPES), event, result);
+        return result;
+    }
+
+    private void addHandlers(TypeIndex typeIndex, Event event, Set<GenericEventTriggerHandler> result) {
+        if (typeIndex == null) {
+            return;
+        }
+        String topic = event.getTopic();
+        result.addAll(typeIndex.wildcardHandlers);
+        if (topic != null) {
+            if (!typeIndex.handlersBySource.isEmpty()) {
+                for (String segment : topic.split(TOPIC_SEPARATOR)) {
+                    List<GenericEventTriggerHandler> matching = typeIndex.handlersBySource.get(segment);
+                    if (matching != null) {
+                        result.addAll(matching);
+                    }
+                }
+            }
+            for (GenericEventTriggerHandler handler : typeIndex.pathHandlers) {
+                if (topic.contains(handler.getSource())) {
+                    result.add(handler);
+                }
+            }
+        }
+    }
+
+    /**
+     * Must be called while holding the lock on {@link #handlers}.
+     */
+    private void rebuildIndex() {
+        Map<String, TypeIndex> newIndex = new HashMap<>();
+        for (GenericEventTriggerHandler handler : handlers) {
+            for (String type : handler.getSubscribedEventTypes()) {
+                TypeIndex typeIndex = newIndex.get(type);
+                if (typeIndex == null) {
+                    typeIndex = new TypeIndex();
+                    newIndex.put(type, typeIndex);
+                }
+                typeIndex.add(handler);
+            }
+        }
+        for (TypeIndex typeIndex : newIndex.values()) {
+            typeIndex.seal();
+        }
+        index = newIndex;
+    }
+
+    /**
+     * The handlers of a single event type.
+     */
+    private static class TypeIndex {
+
+        private List<GenericEventTriggerHandler> wildcardHandlers = new ArrayList<>();
+
+        private Map<String, List<GenericEventTriggerHandler>> handlersBySource = new HashMap<>();
+
+        private List<GenericEventTriggerHandler> pathHandlers = new ArrayList<>();
+
+        private void add(GenericEventTriggerHandler handler) {
+            String source = handler.getSource();
+            if (source == null || source.isEmpty()) {
+                wildcardHandlers.add(handler);
+            } else if (source.contains(TOPIC_SEPARATOR)) {
+                pathHandlers.add(handler);
+            } else {
+                List<GenericEventTriggerHandler> sourceHandlers = handlersBySource.get(source);
+                if (sourceHandlers == null) {
+                    sourceHandlers = new ArrayList<>();
+                    handlersBySource.put(source, sourceHandlers);
+                }
+                sourceHandlers.add(handler);
+            }
+        }
+
+        private void seal() {
+            wildcardHandlers = Collections.unmodifiableList(wildcardHandlers);
+            handlersBySource = Collections.unmodifiableMap(handlersBySource);
+            pathHandlers = Collections.unmodifiableList(pathHandlers);
+        }
+    }
+
+}
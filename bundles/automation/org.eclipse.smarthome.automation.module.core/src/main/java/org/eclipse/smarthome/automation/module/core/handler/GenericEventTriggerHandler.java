@@ -7,8 +7,6 @@
  */
 package org.eclipse.smarthome.automation.module.core.handler;
 
-import java.util.Dictionary;
-import java.util.Hashtable;
 import java.util.Map;
 import java.util.Set;
 
@@ -17,10 +15,6 @@ import org.eclipse.smarthome.automation.handler.BaseModuleHandler;
 import org.eclipse.smarthome.automation.handler.RuleEngineCallback;
 import org.eclipse.smarthome.automation.handler.TriggerHandler;
 import org.eclipse.smarthome.core.events.Event;
-import org.eclipse.smarthome.core.events.EventFilter;
-import org.eclipse.smarthome.core.events.EventSubscriber;
-import org.osgi.framework.BundleContext;
-import org.osgi.framework.ServiceRegistration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,16 +26,15 @@ import com.google.common.collect.Maps;
  * if an event occurs. The eventType, eventSource and topic can be set with the
  * configuration. It is an generic approach which makes it easier to specify
  * more concrete event based triggers with the composite module approach of the
- * automation component. Each GenericTriggerHandler instance registers as
- * EventSubscriber, so the dispose method must be called for unregistering the
- * service.
+ * automation component. Each GenericTriggerHandler instance is added to the
+ * {@link GenericEventTriggerDispatcher}, which passes the matching events to it,
+ * so the dispose method must be called for removing it again.
  *
  * @author Benedikt Niehues - Initial contribution and API
  * @author Kai Kreuzer - refactored and simplified customized module handling
  *
  */
-public class GenericEventTriggerHandler extends BaseModuleHandler<Trigger>
-        implements TriggerHandler, EventSubscriber, EventFilter {
+public class GenericEventTriggerHandler extends BaseModuleHandler<Trigger> implements TriggerHandler {
 
     private final Logger logger = LoggerFactory.getLogger(GenericEventTriggerHandler.class);
 
@@ -49,7 +42,7 @@ public class GenericEventTriggerHandler extends BaseModuleHandler<Trigger>
     private String source;
     private String topic;
     private Set<String> types;
-    private BundleContext bundleContext;
+    private GenericEventTriggerDispatcher dispatcher;
 
     public static final String MODULE_TYPE_ID = "GenericEventTrigger";
 
@@ -57,20 +50,14 @@ public class GenericEventTriggerHandler extends BaseModuleHandler<Trigger>
     private static final String CFG_EVENT_SOURCE = "eventSource";
     private static final String CFG_EVENT_TYPES = "eventTypes";
 
-    @SuppressWarnings("rawtypes")
-    private ServiceRegistration eventSubscriberRegistration;
-
-    public GenericEventTriggerHandler(Trigger module, BundleContext bundleContext) {
+    public GenericEventTriggerHandler(Trigger module, GenericEventTriggerDispatcher dispatcher) {
         super(module);
         this.source = (String) module.getConfiguration().get(CFG_EVENT_SOURCE);
         this.topic = (String) module.getConfiguration().get(CFG_EVENT_TOPIC);
         this.types = ImmutableSet.copyOf(((String) module.getConfiguration().get(CFG_EVENT_TYPES)).split(","));
-        this.bundleContext = bundleContext;
-        Dictionary<String, Object> properties = new Hashtable<String, Object>();
-        properties.put("event.topics", topic);
-        eventSubscriberRegistration = this.bundleContext.registerService(EventSubscriber.class.getName(), this,
-                properties);
-        logger.trace("Registered EventSubscriber: Topic: {} Type: {} Source: {}", topic, types, source);
+        this.dispatcher = dispatcher;
+        dispatcher.addHandler(this);
+        logger.trace("Registered trigger: Topic: {} Type: {} Source: {}", topic, types, source);
     }
 
     @Override
@@ -78,24 +65,22 @@ public class GenericEventTriggerHandler extends BaseModuleHandler<Trigger>
         this.callback = ruleCallback;
     }
 
-    @Override
+    /**
+     * @return the event types, the trigger listens to
+     */
     public Set<String> getSubscribedEventTypes() {
         return types;
     }
 
-    @Override
-    public EventFilter getEventFilter() {
-        return null;
-    }
-
-    @Override
-    public void receive(Event event) {
+    /**
+     * Triggers the rule with the given event. It is called by the {@link GenericEventTriggerDispatcher} for the
+     * matching events.
+     *
+     * @param event the event
+     */
+    void trigger(Event event) {
+        RuleEngineCallback callback = this.callback;
         if (callback != null) {
-            logger.trace("Received Event: Source: " + event.getSource() + " Topic: " + event.getTopic() + " Type: "
-                    + event.getType() + " Payload: " + event.getPayload());
-            if (!event.getTopic().contains(source)) {
-                return;
-            }
             Map<String, Object> values = Maps.newHashMap();
             values.put("event", event);
 
@@ -103,6 +88,13 @@ public class GenericEventTriggerHandler extends BaseModuleHandler<Trigger>
         }
     }
 
+    /**
+     * @return the source, the trigger listens to
+     */
+    public String getSource() {
+        return source;
+    }
+
     /**
      * @return the topic
      */
@@ -119,20 +111,14 @@ public class GenericEventTriggerHandler extends BaseModuleHandler<Trigger>
     }
 
     /**
-     * do the cleanup: unregistering eventSubscriber...
+     * do the cleanup: removing the handler from the dispatcher...
      */
     @Override
     public void dispose() {
-        if (eventSubscriberRegistration != null) {
-            eventSubscriberRegistration.unregister();
-            eventSubscriberRegistration = null;
+        if (dispatcher != null) {
+            dispatcher.removeHandler(this);
+            dispatcher = null;
         }
     }
 
-    @Override
-    public boolean apply(Event event) {
-        logger.trace("->FILTER: {}:{}", event.getTopic(), source);
-        return event.getTopic().contains(source);
-    }
-
 }
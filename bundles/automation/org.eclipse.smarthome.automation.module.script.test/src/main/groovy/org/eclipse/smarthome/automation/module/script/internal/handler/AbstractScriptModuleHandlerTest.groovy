@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 1997, 2015 by ProSyst Software GmbH and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.automation.module.script.internal.handler
+
+import static org.hamcrest.CoreMatchers.*
+import static org.junit.Assert.*
+
+import javax.script.AbstractScriptEngine
+import javax.script.Bindings
+import javax.script.Compilable
+import javax.script.CompiledScript
+import javax.script.ScriptContext
+import javax.script.ScriptEngine
+import javax.script.ScriptEngineFactory
+import javax.script.SimpleBindings
+
+import org.eclipse.smarthome.automation.Action
+import org.eclipse.smarthome.config.core.Configuration
+import org.junit.Before
+import org.junit.Test
+
+/**
+ * Tests the compilation of scripts by the {@link AbstractScriptModuleHandler}.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+class AbstractScriptModuleHandlerTest {
+
+    AbstractScriptModuleHandler<Action> handler
+
+    @Before
+    void setUp() {
+        def action = new Action("action", "ScriptAction", new Configuration(), null)
+        handler = new AbstractScriptModuleHandler<Action>(action) {}
+    }
+
+    @Test
+    void 'assert that a script is compiled only once for several executions'() {
+        def engine = new CompilableCountingScriptEngine()
+        assertThat handler.eval(engine, "a", engine.getContext()), is("a")
+        assertThat handler.eval(engine, "a", engine.getContext()), is("a")
+        assertThat engine.compilations, is(1)
+        assertThat engine.evaluations, is(2)
+    }
+
+    @Test
+    void 'assert that a script is compiled again if the script changes'() {
+        def engine = new CompilableCountingScriptEngine()
+        assertThat handler.eval(engine, "a", engine.getContext()), is("a")
+        assertThat handler.eval(engine, "b", engine.getContext()), is("b")
+        assertThat engine.compilations, is(2)
+    }
+
+    @Test
+    void 'assert that a script is compiled again if the engine changes'() {
+        def engine = new CompilableCountingScriptEngine()
+        def otherEngine = new CompilableCountingScriptEngine()
+        handler.eval(engine, "a", engine.getContext())
+        handler.eval(otherEngine, "a", otherEngine.getContext())
+        assertThat engine.compilations, is(1)
+        assertThat otherEngine.compilations, is(1)
+        assertThat otherEngine.evaluations, is(1)
+    }
+
+    @Test
+    void 'assert that the compiled script is dropped on dispose'() {
+        def engine = new CompilableCountingScriptEngine()
+        handler.eval(engine, "a", engine.getContext())
+        handler.dispose()
+        handler.eval(engine, "a", engine.getContext())
+        assertThat engine.compilations, is(2)
+    }
+
+    @Test
+    void 'assert that engines without compilation support evaluate the script directly'() {
+        def engine = new CountingScriptEngine()
+        assertThat handler.eval(engine, "a", engine.getContext()), is("a")
+        assertThat handler.eval(engine, "b", engine.getContext()), is("b")
+        assertThat engine.evaluations, is(2)
+    }
+}
+
+/**
+ * A script engine that evaluates each script to its own source and counts the evaluations.
+ */
+class CountingScriptEngine extends AbstractScriptEngine {
+
+    int evaluations
+
+    @Override
+    Object eval(String script, ScriptContext context) {
+        evaluations++
+        return script
+    }
+
+    @Override
+    Object eval(Reader reader, ScriptContext context) {
+        return eval(reader.text, context)
+    }
+
+    @Override
+    Bindings createBindings() {
+        return new SimpleBindings()
+    }
+
+    @Override
+    ScriptEngineFactory getFactory() {
+        return null
+    }
+}
+
+/**
+ * A {@link CountingScriptEngine} that also counts the compilations of scripts.
+ */
+class CompilableCountingScriptEngine extends CountingScriptEngine implements Compilable {
+
+    int compilations
+
+    @Override
+    CompiledScript compile(String script) {
+        compilations++
+        return new CountingCompiledScript(this, script)
+    }
+
+    @Override
+    CompiledScript compile(Reader reader) {
+        return compile(reader.text)
+    }
+}
+
+/**
+ * A compiled script of the {@link CompilableCountingScriptEngine}, which is evaluated by its engine.
+ */
+class CountingCompiledScript extends CompiledScript {
+
+    CountingScriptEngine engine
+
+    String script
+
+    CountingCompiledScript(CountingScriptEngine engine, String script) {
+        this.engine = engine
+        this.script = script
+    }
+
+    @Override
+    Object eval(ScriptContext context) {
+        return engine.eval(script, context)
+    }
+
+    @Override
+    ScriptEngine getEngine() {
+        return engine
+    }
+}
@@ -11,14 +11,21 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
+import javax.script.ScriptException;
 
 import org.eclipse.smarthome.automation.Module;
 import org.eclipse.smarthome.automation.handler.BaseModuleHandler;
 
 /**
  * This is an abstract class that can be used when implementing any module handler that handles scripts.
+ * <p>
+ * If the script engine implements {@link Compilable}, the script of the module is compiled once and the
+ * {@link CompiledScript} is reused for all executions of the handler. As a handler is created for a module of a rule,
+ * the compiled script is dropped together with the handler when the rule is updated or removed.
  *
  * @author Kai Kreuzer - Initial contribution
  *
@@ -34,6 +41,12 @@ abstract public class AbstractScriptModuleHandler<T extends Module> extends Base
 
     private ScriptContext executionContext;
 
+    private ScriptEngine compiledEngine;
+
+    private String compiledSource;
+
+    private CompiledScript compiledScript;
+
     public AbstractScriptModuleHandler(T module) {
         super(module);
     }
@@ -70,4 +83,37 @@ abstract public class AbstractScriptModuleHandler<T extends Module> extends Base
         return executionContext;
     }
 
+    /**
+     * Evaluates the script of the module. The script is only compiled for the first execution, if the engine supports
+     * it, and again if the script or the engine change.
+     *
+     * @param engine the script engine that is used
+     * @param script the script of the module
+     * @param context the execution context
+     * @return the result of the script
+     * @throws ScriptException if the script cannot be compiled or its execution fails
+     */
+    protected Object eval(ScriptEngine engine, String script, ScriptContext context) throws ScriptException {
+        if (!(engine instanceof Compilable)) {
+            return engine.eval(script, context);
+        }
+        return getCompiledScript((Compilable) engine, script).eval(context);
+    }
+
+    private synchronized CompiledScript getCompiledScript(Compilable engine, String script) throws ScriptException {
+        if (compiledScript == null || compiledEngine != engine || !script.equals(compiledSource)) {
+            compiledScript = engine.compile(script);
+            compiledEngine = (ScriptEngine) engine;
+            compiledSource = script;
+        }
+        return compiledScript;
+    }
+
+    @Override
+    public synchronized void dispose() {
+        compiledScript = null;
+        compiledEngine = null;
+        compiledSource = null;
+    }
+
 }
@@ -41,9 +41,6 @@ public class ScriptActionHandler extends AbstractScriptModuleHandler<Action>impl
         super(module);
     }
 
-    @Override
-    public void dispose() {}
-
     @Override
     public Map<String, Object> execute(Map<String, ?> context) {
         Object type = module.getConfiguration().get(SCRIPT_TYPE);
@@ -54,7 +51,7 @@ public class ScriptActionHandler extends AbstractScriptModuleHandler<Action>impl
                 if (engine != null) {
                     ScriptContext executionContext = getExecutionContext(engine, context);
                     try {
-                        Object result = engine.eval((String) script, executionContext);
+                        Object result = eval(engine, (String) script, executionContext);
                         HashMap<String, Object> resultMap = new HashMap<String, Object>();
                         resultMap.put("result", result);
                         return resultMap;
@@ -302,6 +302,37 @@ class ItemRegistryOSGiTest extends OSGiTest {
         assertThat itemRegistry.getItem("Keep") == modifiedItem, is(true)
     }
 
+    @Test
+    void 'assert item index is updated if the type of an item changes'() {
+        def items = new HashSet<Item>()
+        items.add(new SwitchItem("Changing"))
+
+        def itemProvider2 = [
+            getAll: { items },
+            addProviderChangeListener: {def icl -> itemsChangeListener = icl},
+            removeProviderChangeListener: {def icl -> itemsChangeListener = icl },
+            allItemsChanged: {}] as ItemProvider
+
+        registerService itemProvider2
+
+        assertThat itemRegistry.getItemsOfType("Switch").size(), is(1)
+        assertThat itemRegistry.getItemsOfType("String").size(), is(0)
+
+        items.clear()
+        def modifiedItem = new StringItem("Changing")
+        items.add(modifiedItem)
+        itemsChangeListener.allItemsChanged(itemProvider2, null)
+
+        assertThat itemRegistry.get("Changing") == modifiedItem, is(true)
+        assertThat itemRegistry.getItemsOfType("Switch").size(), is(0)
+        assertThat itemRegistry.getItemsOfType("String").size(), is(1)
+
+        unregisterService itemProvider2
+
+        assertThat itemRegistry.get("Changing"), is(nullValue())
+        assertThat itemRegistry.getItemsOfType("String").size(), is(0)
+    }
+
     @Test
     void 'assert itemRegistry is thread safe'() {
         registerService itemProvider
@@ -157,6 +157,17 @@ class OSGiEventManagerOSGiTest extends OSGiTest {
         assertThat receivedEvent_allEventTypesSubscriber4.getType(), is(EVENT_TYPE_C)
     }
 
+    @Test
+    void 'OSGiEventManager dispatches the posted event instance to local subscribers'() {
+        Event typeAEvent = createEvent(EVENT_TYPE_A)
+        eventPublisher.post(typeAEvent)
+
+        waitForAssert {assertThat receivedEvent_TypeBasedSubscriber1, not(null)}
+        assertThat receivedEvent_TypeBasedSubscriber1, is(sameInstance(typeAEvent))
+        waitForAssert {assertThat receivedEvent_allEventTypesSubscriber4, not(null)}
+        assertThat receivedEvent_allEventTypesSubscriber4, is(sameInstance(typeAEvent))
+    }
+
     @Test
     void 'OSGiEventManager dispatches no event after subscriber unregistration'() {
         eventPublisher.post(createEvent(EVENT_TYPE_A))
@@ -15,10 +15,15 @@ import org.eclipse.smarthome.core.events.EventPublisher
 import org.eclipse.smarthome.core.items.events.ItemEventFactory
 import org.eclipse.smarthome.core.items.events.ItemStateChangedEvent
 import org.eclipse.smarthome.core.items.events.ItemStateEvent
+import org.eclipse.smarthome.core.library.types.DecimalType
 import org.eclipse.smarthome.core.library.types.RawType
+import org.eclipse.smarthome.core.types.State
 import org.junit.Before
 import org.junit.Test
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 /**
  * The GenericItemTest tests functionality of the GenericItem.
  *
@@ -87,4 +92,95 @@ class GenericItemTest {
         def item = new TestItem("member1")
         item.removeGroupName(null)
     }
+
+    @Test
+    void 'assert that listeners receive the updates of an item in order'() {
+        def item = new TestItem("member1")
+        def receivedStates = Collections.synchronizedList([])
+        def latch = new CountDownLatch(1)
+        def listener = [
+            stateUpdated : { Item it, State state ->
+                receivedStates.add(state)
+                if (state == new DecimalType(StateChangeNotifier.MAX_PENDING_NOTIFICATIONS - 1)) {
+                    latch.countDown()
+                }
+            },
+            stateChanged : { Item it, State oldState, State newState -> }
+        ] as StateChangeListener
+        item.addStateChangeListener(listener)
+
+        def expectedStates = (0..<StateChangeNotifier.MAX_PENDING_NOTIFICATIONS).collect { new DecimalType(it) }
+        expectedStates.each { item.setState(it) }
+
+        assertTrue latch.await(10, TimeUnit.SECONDS)
+        assertThat receivedStates, is(expectedStates)
+    }
+
+    @Test
+    void 'assert that pending updates are coalesced if a listener falls behind'() {
+        def item = new TestItem("member1")
+        def receivedStates = Collections.synchronizedList([])
+        def blocked = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def done = new CountDownLatch(1)
+        def lastState = new DecimalType(1000)
+        def listener = [
+            stateUpdated : { Item it, State state ->
+                blocked.countDown()
+                release.await(10, TimeUnit.SECONDS)
+                receivedStates.add(state)
+                if (state == lastState) {
+                    done.countDown()
+                }
+            },
+            stateChanged : { Item it, State oldState, State newState -> }
+        ] as StateChangeListener
+        item.addStateChangeListener(listener)
+
+        item.setState(new DecimalType(0))
+        assertTrue blocked.await(10, TimeUnit.SECONDS)
+        (1..1000).each { item.setState(new DecimalType(it)) }
+        assertThat item.stateChangeNotifier.getSize(), is(StateChangeNotifier.MAX_PENDING_NOTIFICATIONS)
+        release.countDown()
+
+        assertTrue done.await(10, TimeUnit.SECONDS)
+        assertThat receivedStates.size(), is(StateChangeNotifier.MAX_PENDING_NOTIFICATIONS + 1)
+        assertThat receivedStates.last(), is(lastState)
+        assertThat receivedStates, is(receivedStates.sort(false))
+    }
+
+    @Test
+    void 'assert that a change back to a pending old state is not coalesced'() {
+        def item = new TestItem("member1")
+        def changes = Collections.synchronizedList([])
+        def blocked = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def done = new CountDownLatch(1)
+        def max = StateChangeNotifier.MAX_PENDING_NOTIFICATIONS
+        def listener = [
+            stateUpdated : { Item it, State state ->
+                blocked.countDown()
+                release.await(10, TimeUnit.SECONDS)
+            },
+            stateChanged : { Item it, State oldState, State newState ->
+                changes.add([oldState, newState])
+                if (changes.size() == max + 2) {
+                    done.countDown()
+                }
+            }
+        ] as StateChangeListener
+        item.addStateChangeListener(listener)
+
+        item.setState(new DecimalType(0))
+        assertTrue blocked.await(10, TimeUnit.SECONDS)
+        (1..max).each { item.setState(new DecimalType(it)) }
+        // merging the change back into the pending change to max would result in no change at all
+        item.setState(new DecimalType(max - 1))
+        assertThat item.stateChangeNotifier.getSize(), is(max + 1)
+        release.countDown()
+
+        assertTrue done.await(10, TimeUnit.SECONDS)
+        assertThat changes.last(), is([new DecimalType(max), new DecimalType(max - 1)])
+        changes.each { assertThat it[0], is(not(it[1])) }
+    }
 }
@@ -0,0 +1,288 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.internal.events;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.events.EventFilter;
+import org.eclipse.smarthome.core.events.EventSubscriber;
+import org.eclipse.smarthome.core.internal.events.EventSubscriberQueue.OverflowPolicy;
+import org.eclipse.smarthome.core.items.events.ItemCommandEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link EventSubscriberQueue}.
+ *
+ * @author agent - Initial contribution
+ */
+public class EventSubscriberQueueTest {
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    private final Executor executor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+    };
+
+    private final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private final List<String> receivedTopics = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch hangingDelivery = new CountDownLatch(1);
+
+    private final EventSubscriber subscriber = new EventSubscriber() {
+        @Override
+        public Set<String> getSubscribedEventTypes() {
+            return Collections.singleton(EventSubscriber.ALL_EVENT_TYPES);
+        }
+
+        @Override
+        public EventFilter getEventFilter() {
+            return null;
+        }
+
+        @Override
+        public void receive(Event event) {
+            if ("hang".equals(event.getTopic())) {
+                try {
+                    hangingDelivery.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            receivedTopics.add(event.getTopic() + ":" + event.getPayload());
+        }
+    };
+
+    @Before
+    public void setUp() {
+        tasks.clear();
+        receivedTopics.clear();
+    }
+
+    @After
+    public void tearDown() {
+        hangingDelivery.countDown();
+        timeoutScheduler.shutdownNow();
+    }
+
+    @Test
+    public void testDeliversEventsInOrderWithOneTask() {
+        EventSubscriberQueue queue = new EventSubscriberQueue(subscriber, executor, timeoutScheduler, 10,
+                OverflowPolicy.BLOCK, 5000);
+        queue.enqueue(createEvent("a", "1"));
+        queue.enqueue(createEvent("b", "2"));
+        queue.enqueue(createEvent("a", "3"));
+
+        assertThat(tasks.size(), is(1));
+        assertThat(queue.getSize(), is(3));
+        runTasks();
+
+        assertThat(receivedTopics, is(Arrays.asList("a:1", "b:2", "a:3")));
+        assertThat(queue.getDeliveredEvents(), is(3L));
+        assertThat(queue.getSize(), is(0));
+    }
+
+    @Test
+    public void testDropOldest() {
+        EventSubscriberQueue queue = new EventSubscriberQueue(subscriber, executor, timeoutScheduler, 2,
+                OverflowPolicy.DROP_OLDEST, 5000);
+        queue.enqueue(createEvent("a", "1"));
+        queue.enqueue(createEvent("b", "2"));
+        queue.enqueue(createEvent("c", "3"));
+        runTasks();
+
+        assertThat(receivedTopics, is(Arrays.asList("b:2", "c:3")));
+        assertThat(queue.getDroppedEvents(), is(1L));
+    }
+
+    @Test
+    public void testCoalesce() {
+        EventSubscriberQueue queue = new EventSubscriberQueue(subscriber, executor, timeoutScheduler, 2,
+                OverflowPolicy.COALESCE, 5000);
+        queue.enqueue(createEvent("a", "1"));
+        queue.enqueue(createEvent("b", "2"));
+        queue.enqueue(createEvent("a", "3"));
+        runTasks();
+
+        assertThat(receivedTopics, is(Arrays.asList("a:3", "b:2")));
+        assertThat(queue.getCoalescedEvents(), is(1L));
+        assertThat(queue.getDroppedEvents(), is(0L));
+    }
+
+    @Test
+    public void testBlockDropsEventAfterTimeout() {
+        EventSubscriberQueue queue = new EventSubscriberQueue(subscriber, executor, timeoutScheduler, 1,
+                OverflowPolicy.BLOCK, 50);
+        queue.enqueue(createEvent("a", "1"));
+        // nobody drains the queue, so the publisher must give up after the timeout
+        queue.enqueue(createEvent("b", "2"));
+        runTasks();
+
+        assertThat(receivedTopics, is(Arrays.asList("a:1")));
+        assertThat(queue.getDroppedEvents(), is(1L));
+    }
+
+    @Test
+    public void testGrowKeepsAllEvents() {
+        EventSubscriberQueue queue = new EventSubscriberQueue(subscriber, executor, timeoutScheduler, 2,
+                OverflowPolicy.GROW, 5000);
+        queue.enqueue(createEvent("a", "1"));
+        queue.enqueue(createEvent("b", "2"));
+        queue.enqueue(createEvent("c", "3"));
+        assertThat(queue.getSize(), is(3));
+        runTasks();
+
+        assertThat(receivedTopics, is(Arrays.asList("a:1", "b:2", "c:3")));
+        assertThat(queue.getDroppedEvents(), is(0L));
+    }
+
+    @Test
+    public void testCommandsAreNeverDropped() {
+        EventSubscriberQueue queue = new EventSubscriberQueue(subscriber, executor, timeoutScheduler, 2,
+                OverflowPolicy.DROP_OLDEST, 5000);
+        queue.enqueue(createEvent(ItemCommandEvent.TYPE, "a", "1"));
+        queue.enqueue(createEvent("b", "2"));
+        queue.enqueue(createEvent(ItemCommandEvent.TYPE, "a", "3"));
+        queue.enqueue(createEvent(ItemCommandEvent.TYPE, "a", "4"));
+        runTasks();
+
+        assertThat(receivedTopics, is(Arrays.asList("a:1", "a:3", "a:4")));
+        assertThat(queue.getDroppedEvents(), is(1L));
+    }
+
+    @Test
+    public void testCommandsAreNotCoalesced() {
+        EventSubscriberQueue queue = new EventSubscriberQueue(subscriber, executor, timeoutScheduler, 1,
+                OverflowPolicy.COALESCE, 5000);
+        queue.enqueue(createEvent(ItemCommandEvent.TYPE, "a", "1"));
+        queue.enqueue(createEvent(ItemCommandEvent.TYPE, "a", "2"));
+        runTasks();
+
+        assertThat(receivedTopics, is(Arrays.asList("a:1", "a:2")));
+        assertThat(queue.getCoalescedEvents(), is(0L));
+    }
+
+    @Test
+    public void testHungDeliveryIsGivenUp() throws InterruptedException {
+        EventSubscriberQueue queue = new EventSubscriberQueue(subscriber, executor, timeoutScheduler, 10,
+                OverflowPolicy.GROW, 50);
+        queue.enqueue(createEvent("hang", "1"));
+        queue.enqueue(createEvent("b", "2"));
+        Thread hungThread = new Thread(tasks.poll());
+        hungThread.start();
+
+        // the timeout hands the remaining events over to a new task, while the subscriber still hangs
+        long deadline = System.currentTimeMillis() + 5000;
+        while (tasks.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        runTasks();
+        assertThat(receivedTopics, is(Arrays.asList("b:2")));
+        assertThat(queue.getTimedOutDeliveries(), is(1L));
+
+        hangingDelivery.countDown();
+        hungThread.join(5000);
+        queue.enqueue(createEvent("c", "3"));
+        runTasks();
+        assertThat(receivedTopics, is(Arrays.asList("b:2", "hang:1", "c:3")));
+        assertThat(tasks.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testRejectedDeliveryIsScheduledAgain() {
+        Executor rejectingOnceExecutor = new Executor() {
+            private boolean rejected = false;
+
+            @Override
+            public void execute(Runnable command) {
+                if (!rejected) {
+                    rejected = true;
+                    throw new RejectedExecutionException("test");
+                }
+                tasks.add(command);
+            }
+        };
+        EventSubscriberQueue queue = new EventSubscriberQueue(subscriber, rejectingOnceExecutor, timeoutScheduler,
+                10, OverflowPolicy.DROP_OLDEST, 5000);
+        queue.enqueue(createEvent("a", "1"));
+        assertThat(tasks.size(), is(0));
+        queue.enqueue(createEvent("b", "2"));
+        assertThat(tasks.size(), is(1));
+        runTasks();
+
+        assertThat(receivedTopics, is(Arrays.asList("a:1", "b:2")));
+    }
+
+    @Test
+    public void testClosedQueueDiscardsEvents() {
+        EventSubscriberQueue queue = new EventSubscriberQueue(subscriber, executor, timeoutScheduler, 10,
+                OverflowPolicy.BLOCK, 5000);
+        queue.enqueue(createEvent("a", "1"));
+        queue.close();
+        queue.enqueue(createEvent("b", "2"));
+        runTasks();
+
+        assertThat(receivedTopics.isEmpty(), is(true));
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private Event createEvent(String topic, String payload) {
+        return createEvent("TEST", topic, payload);
+    }
+
+    private Event createEvent(final String type, final String topic, final String payload) {
+        return new Event() {
+            @Override
+            public String getType() {
+                return type;
+            }
+
+            @Override
+            public String getTopic() {
+                return topic;
+            }
+
+            @Override
+            public String getPayload() {
+                return payload;
+            }
+
+            @Override
+            public String getSource() {
+                return null;
+            }
+        };
+    }
+
+}
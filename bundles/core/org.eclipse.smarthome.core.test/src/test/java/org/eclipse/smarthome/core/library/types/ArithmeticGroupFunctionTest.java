@@ -15,6 +15,7 @@ import java.util.Set;
 
 import org.eclipse.smarthome.core.items.GenericItem;
 import org.eclipse.smarthome.core.items.GroupFunction;
+import org.eclipse.smarthome.core.items.IncrementalGroupFunction;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.library.items.DimmerItem;
 import org.eclipse.smarthome.core.library.items.SwitchItem;
@@ -201,6 +202,75 @@ public class ArithmeticGroupFunctionTest {
         assertEquals(new DecimalType("234.95"), state);
     }
 
+    @Test
+    public void testIncrementalAggregationsMatchFullCalculation() {
+        TestItem item1 = new TestItem("TestItem1", new DecimalType("1.25"));
+        TestItem item2 = new TestItem("TestItem2", new DecimalType("2"));
+        TestItem item3 = new TestItem("TestItem3", UnDefType.NULL);
+        items.add(item1);
+        items.add(item2);
+        items.add(item3);
+
+        IncrementalGroupFunction[] functions = new IncrementalGroupFunction[] { new ArithmeticGroupFunction.Avg(),
+                new ArithmeticGroupFunction.Sum(), new ArithmeticGroupFunction.Min(),
+                new ArithmeticGroupFunction.Max(), new ArithmeticGroupFunction.Count(new StringType("[0-9.]+")) };
+        IncrementalGroupFunction.Aggregation[] aggregations = new IncrementalGroupFunction.Aggregation[functions.length];
+        for (int i = 0; i < functions.length; i++) {
+            aggregations[i] = functions[i].createAggregation(items);
+            assertEquals(functions[i].calculate(items).toString(), aggregations[i].getState().toString());
+        }
+
+        State[][] updates = new State[][] { { new DecimalType("1"), null, null },
+                { null, UnDefType.UNDEF, new DecimalType("7.5") }, { new DecimalType("-3"), new DecimalType("7.5"), null },
+                { UnDefType.NULL, null, UnDefType.NULL } };
+        TestItem[] testItems = new TestItem[] { item1, item2, item3 };
+        for (State[] update : updates) {
+            for (int j = 0; j < testItems.length; j++) {
+                if (update[j] != null) {
+                    testItems[j].setState(update[j]);
+                    for (IncrementalGroupFunction.Aggregation aggregation : aggregations) {
+                        assertEquals(true, aggregation.update(testItems[j]));
+                    }
+                }
+            }
+            for (int i = 0; i < functions.length; i++) {
+                assertEquals(functions[i].calculate(items).toString(), aggregations[i].getState().toString());
+            }
+        }
+    }
+
+    @Test
+    public void testIncrementalLogicalAggregations() {
+        TestItem item1 = new TestItem("TestItem1", OpenClosedType.OPEN);
+        TestItem item2 = new TestItem("TestItem2", OpenClosedType.CLOSED);
+        items.add(item1);
+        items.add(item2);
+
+        IncrementalGroupFunction[] functions = new IncrementalGroupFunction[] {
+                new ArithmeticGroupFunction.And(OpenClosedType.OPEN, OpenClosedType.CLOSED),
+                new ArithmeticGroupFunction.Or(OpenClosedType.OPEN, OpenClosedType.CLOSED),
+                new ArithmeticGroupFunction.NAnd(OpenClosedType.OPEN, OpenClosedType.CLOSED),
+                new ArithmeticGroupFunction.NOr(OpenClosedType.OPEN, OpenClosedType.CLOSED) };
+        for (IncrementalGroupFunction function : functions) {
+            IncrementalGroupFunction.Aggregation aggregation = function.createAggregation(items);
+            assertEquals(function.calculate(items), aggregation.getState());
+
+            item2.setState(OpenClosedType.OPEN);
+            aggregation.update(item2);
+            assertEquals(function.calculate(items), aggregation.getState());
+
+            item1.setState(OpenClosedType.CLOSED);
+            item2.setState(OpenClosedType.CLOSED);
+            aggregation.update(item1);
+            aggregation.update(item2);
+            assertEquals(function.calculate(items), aggregation.getState());
+
+            item1.setState(OpenClosedType.OPEN);
+        }
+
+        assertEquals(false, functions[0].createAggregation(items).update(new TestItem("Other", OpenClosedType.OPEN)));
+    }
+
     class TestItem extends GenericItem {
 
         public TestItem(String name, State state) {
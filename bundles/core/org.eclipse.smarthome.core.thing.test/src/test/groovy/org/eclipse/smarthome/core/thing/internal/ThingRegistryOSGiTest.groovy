@@ -95,6 +95,21 @@ class ThingRegistryOSGiTest extends OSGiTest {
         receivedEvent = null
     }
 
+    @Test
+    void 'assert that a thing is still found after an update with the same instance'() {
+        ThingRegistry thingRegistry = getService(ThingRegistry)
+        def thing = ThingBuilder.create(THING_UID).build()
+        managedThingProvider.add(thing)
+        assertThat thingRegistry.get(THING_UID), is(sameInstance(thing))
+
+        // e.g. a thing handler changes the configuration of its thing, which is updated afterwards
+        thing.getConfiguration().put("param", "value")
+        managedThingProvider.update(thing)
+
+        assertThat thingRegistry.get(THING_UID), is(notNullValue())
+        assertThat thingRegistry.get(THING_UID).getConfiguration().get("param"), is("value")
+    }
+
     @Test
     void 'assert that ThingRegistry delegates config update to thing handler'() {
         def changedParameters = null
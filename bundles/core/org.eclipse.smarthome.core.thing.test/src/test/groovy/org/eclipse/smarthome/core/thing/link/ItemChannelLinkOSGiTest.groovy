@@ -110,4 +110,35 @@ class ItemChannelLinkOSGiTest extends OSGiTest {
         def boundThings = itemChannelLinkRegistry.getBoundThings("notExistingItem")
         assertThat boundThings.isEmpty(), is(true)
     }
+
+    @Test
+    void 'assert getLinksForThing returns links of all channels'() {
+        managedItemChannelLinkProvider.add ITEM_CHANNEL_LINK
+        def links = itemChannelLinkRegistry.getLinksForThing(CHANNEL_UID.getThingUID())
+        assertThat links.size(), is(1)
+        assertThat links.first(), is(equalTo(ITEM_CHANNEL_LINK))
+
+        managedItemChannelLinkProvider.remove(ITEM_CHANNEL_LINK.getID())
+        assertThat itemChannelLinkRegistry.getLinksForThing(CHANNEL_UID.getThingUID()).isEmpty(), is(true)
+        assertThat itemChannelLinkRegistry.getBoundChannels("item").isEmpty(), is(true)
+    }
+
+    @Test
+    void 'assert link is still found after an update with the same instance'() {
+        managedItemChannelLinkProvider.add ITEM_CHANNEL_LINK
+        managedItemChannelLinkProvider.update ITEM_CHANNEL_LINK
+
+        assertThat itemChannelLinkRegistry.get(ITEM_CHANNEL_LINK.getID()), is(notNullValue())
+        assertThat itemChannelLinkRegistry.isLinked("item", CHANNEL_UID), is(true)
+        assertThat itemChannelLinkRegistry.getBoundChannels("item"), is([CHANNEL_UID] as Set)
+        assertThat itemChannelLinkRegistry.getLinksForThing(CHANNEL_UID.getThingUID()).size(), is(1)
+    }
+
+    @Test
+    void 'assert removeLinksForThing removes links of the thing'() {
+        managedItemChannelLinkProvider.add ITEM_CHANNEL_LINK
+        itemChannelLinkRegistry.removeLinksForThing(CHANNEL_UID.getThingUID())
+        assertThat itemChannelLinkRegistry.isLinked("item", CHANNEL_UID), is(false)
+        assertThat managedItemChannelLinkProvider.getAll().size(), is(0)
+    }
 }
@@ -7,14 +7,12 @@
  */
 package org.eclipse.smarthome.core.thing.internal;
 
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.smarthome.config.core.Configuration;
 import org.eclipse.smarthome.core.common.registry.AbstractRegistry;
-import org.eclipse.smarthome.core.common.registry.Provider;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.Channel;
 import org.eclipse.smarthome.core.thing.ChannelUID;
@@ -69,14 +67,12 @@ public class ThingRegistryImpl extends AbstractRegistry<Thing, ThingUID, ThingPr
      */
     @Override
     public Thing get(final ThingUID uid) {
-        for (final Map.Entry<Provider<Thing>, Collection<Thing>> entry : elementMap.entrySet()) {
-            for (final Thing thing : entry.getValue()) {
-                if (uid.equals(thing.getUID())) {
-                    return thing;
-                }
-            }
-        }
-        return null;
+        return getByKey(uid);
+    }
+
+    @Override
+    protected ThingUID getKey(Thing element) {
+        return element.getUID();
     }
 
     @Override
@@ -188,8 +184,7 @@ public class ThingRegistryImpl extends AbstractRegistry<Thing, ThingUID, ThingPr
     }
 
     private void addThingsToBridge(Bridge bridge) {
-        Collection<Thing> things = getAll();
-        for (Thing thing : things) {
+        for (Thing thing : getAllView()) {
             ThingUID bridgeUID = thing.getBridgeUID();
             if (bridgeUID != null && bridgeUID.equals(bridge.getUID())) {
                 if (bridge instanceof BridgeImpl && !bridge.getThings().contains(thing)) {
@@ -7,19 +7,26 @@
  */
 package org.eclipse.smarthome.core.thing.link;
 
-import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.eclipse.smarthome.core.common.registry.AbstractRegistry;
 import org.eclipse.smarthome.core.common.registry.Provider;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
 import org.eclipse.smarthome.core.thing.UID;
 
 /**
  * {@link AbstractLinkRegistry} is an abstract class for link based registries,
  * which handle {@link AbstractLink}s.
  *
+ * The links are indexed by their item name, their UID and the UID of the linked thing. The indexes are maintained on
+ * every change of a provider, so that the lookups do not need to iterate over all links.
+ *
  * @author Dennis Nobel - Initial contribution
  *
  * @param <L>
@@ -28,6 +35,14 @@ import org.eclipse.smarthome.core.thing.UID;
 public abstract class AbstractLinkRegistry<L extends AbstractLink, P extends Provider<L>>
         extends AbstractRegistry<L, String, P> {
 
+    private final ConcurrentMap<String, Set<L>> itemNameToLinks = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<UID, Set<L>> uidToLinks = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<ThingUID, Set<L>> thingUIDToLinks = new ConcurrentHashMap<>();
+
+    private final Object indexLock = new Object();
+
     protected AbstractLinkRegistry(final Class<P> providerClazz) {
         super(providerClazz);
     }
@@ -43,14 +58,7 @@ public abstract class AbstractLinkRegistry<L extends AbstractLink, P extends Pro
      * @return true if linked, false otherwise
      */
     public boolean isLinked(String itemName, UID uid) {
-
-        for (AbstractLink link : getAll()) {
-            if (link.getUID().equals(uid) && link.getItemName().equals(itemName)) {
-                return true;
-            }
-        }
-
-        return false;
+        return get(AbstractLink.getIDFor(itemName, uid)) != null;
     }
 
     /**
@@ -61,10 +69,8 @@ public abstract class AbstractLinkRegistry<L extends AbstractLink, P extends Pro
      */
     public Set<String> getLinkedItems(UID uid) {
         Set<String> linkedItems = new LinkedHashSet<>();
-        for (AbstractLink link : getAll()) {
-            if (link.getUID().equals(uid)) {
-                linkedItems.add(link.getItemName());
-            }
+        for (AbstractLink link : getIndexed(uidToLinks, uid)) {
+            linkedItems.add(link.getItemName());
         }
         return linkedItems;
     }
@@ -76,24 +82,99 @@ public abstract class AbstractLinkRegistry<L extends AbstractLink, P extends Pro
      * @return a set of links for the given UID
      */
     public Set<L> getLinks(UID uid) {
-        Set<L> links = new LinkedHashSet<>();
-        for (L link : getAll()) {
-            if (link.getUID().equals(uid)) {
-                links.add(link);
+        return new LinkedHashSet<>(getIndexed(uidToLinks, uid));
+    }
+
+    /**
+     * Returns all links for a given item name.
+     *
+     * @param itemName item name
+     * @return a non-null set of links for the given item name
+     */
+    public Set<L> getLinks(String itemName) {
+        return new LinkedHashSet<>(getIndexed(itemNameToLinks, itemName));
+    }
+
+    /**
+     * Returns all links to a given thing or to one of its channels.
+     *
+     * @param thingUID thing UID
+     * @return a non-null set of links for the given thing
+     */
+    public Set<L> getLinksForThing(ThingUID thingUID) {
+        return new LinkedHashSet<>(getIndexed(thingUIDToLinks, thingUID));
+    }
+
+    @Override
+    public L get(final String key) {
+        return getByKey(key);
+    }
+
+    @Override
+    protected String getKey(L element) {
+        return element.getID();
+    }
+
+    @Override
+    protected void addToIndex(L element) {
+        synchronized (indexLock) {
+            super.addToIndex(element);
+            addToIndex(itemNameToLinks, element.getItemName(), element);
+            addToIndex(uidToLinks, element.getUID(), element);
+            ThingUID thingUID = getThingUID(element.getUID());
+            if (thingUID != null) {
+                addToIndex(thingUIDToLinks, thingUID, element);
             }
         }
-        return links;
     }
 
     @Override
-    public L get(final String key) {
-        for (final Map.Entry<Provider<L>, Collection<L>> entry : elementMap.entrySet()) {
-            for (final L link : entry.getValue()) {
-                if (key.equals(link.getID())) {
-                    return link;
-                }
+    protected void removeFromIndex(L element) {
+        synchronized (indexLock) {
+            super.removeFromIndex(element);
+            if (get(element.getID()) != null) {
+                // the same link is still provided by another provider
+                return;
+            }
+            removeFromIndex(itemNameToLinks, element.getItemName(), element);
+            removeFromIndex(uidToLinks, element.getUID(), element);
+            ThingUID thingUID = getThingUID(element.getUID());
+            if (thingUID != null) {
+                removeFromIndex(thingUIDToLinks, thingUID, element);
+            }
+        }
+    }
+
+    private <K> Set<L> getIndexed(ConcurrentMap<K, Set<L>> index, K key) {
+        Set<L> links = key != null ? index.get(key) : null;
+        return links != null ? links : Collections.<L> emptySet();
+    }
+
+    private <K> void addToIndex(ConcurrentMap<K, Set<L>> index, K key, L link) {
+        Set<L> links = index.get(key);
+        if (links == null) {
+            links = new CopyOnWriteArraySet<>();
+            index.put(key, links);
+        }
+        links.add(link);
+    }
+
+    private <K> void removeFromIndex(ConcurrentMap<K, Set<L>> index, K key, L link) {
+        Set<L> links = index.get(key);
+        if (links != null) {
+            links.remove(link);
+            if (links.isEmpty()) {
+                index.remove(key);
             }
         }
+    }
+
+    private ThingUID getThingUID(UID uid) {
+        if (uid instanceof ChannelUID) {
+            return ((ChannelUID) uid).getThingUID();
+        } else if (uid instanceof ThingUID) {
+            return (ThingUID) uid;
+        }
         return null;
     }
 
@@ -48,10 +48,8 @@ public class ItemChannelLinkRegistry extends AbstractLinkRegistry<ItemChannelLin
 
         Set<ChannelUID> channelUIDs = new HashSet<>();
 
-        for (ItemChannelLink itemChannelLink : getAll()) {
-            if (itemChannelLink.getItemName().equals(itemName)) {
-                channelUIDs.add(itemChannelLink.getUID());
-            }
+        for (ItemChannelLink itemChannelLink : getLinks(itemName)) {
+            channelUIDs.add(itemChannelLink.getUID());
         }
 
         return channelUIDs;
@@ -68,9 +66,9 @@ public class ItemChannelLinkRegistry extends AbstractLinkRegistry<ItemChannelLin
     @Override
     public Set<String> getLinkedItems(UID uid) {
         final Set<String> linkedItems = new LinkedHashSet<>();
-        for (final AbstractLink link : getAll()) {
+        for (final AbstractLink link : getLinks(uid)) {
             final String itemName = link.getItemName();
-            if (link.getUID().equals(uid) && itemRegistry.get(itemName) != null) {
+            if (itemRegistry.get(itemName) != null) {
                 linkedItems.add(itemName);
             }
         }
@@ -120,7 +118,9 @@ public class ItemChannelLinkRegistry extends AbstractLinkRegistry<ItemChannelLin
 
     public void removeLinksForThing(ThingUID thingUID) {
         if (this.managedProvider != null) {
-            ((ManagedItemChannelLinkProvider) this.managedProvider).removeLinksForThing(thingUID);
+            for (ItemChannelLink itemChannelLink : getLinksForThing(thingUID)) {
+                this.managedProvider.remove(itemChannelLink.getID());
+            }
         } else {
             throw new IllegalStateException("ManagedProvider is not available");
         }
@@ -7,10 +7,7 @@
  */
 package org.eclipse.smarthome.core.thing.link;
 
-import java.util.Collection;
-
 import org.eclipse.smarthome.core.common.registry.DefaultAbstractManagedProvider;
-import org.eclipse.smarthome.core.thing.ThingUID;
 
 /**
  *
@@ -37,13 +34,4 @@ public class ManagedItemChannelLinkProvider extends DefaultAbstractManagedProvid
         return element.getID();
     }
 
-    public void removeLinksForThing(ThingUID thingUID) {
-        Collection<ItemChannelLink> itemChannelLinks = getAll();
-        for (ItemChannelLink itemChannelLink : itemChannelLinks) {
-            if (itemChannelLink.getUID().getThingUID().equals(thingUID)) {
-                this.remove(itemChannelLink.getID());
-            }
-        }
-    }
-
 }
@@ -9,9 +9,12 @@ package org.eclipse.smarthome.core.thing.type;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.smarthome.core.thing.Channel;
 import org.eclipse.smarthome.core.thing.ChannelUID;
@@ -30,6 +33,23 @@ public class ThingTypeRegistry {
 
     private List<ThingTypeProvider> thingTypeProviders = new CopyOnWriteArrayList<>();
 
+    private final AtomicLong version = new AtomicLong();
+
+    /* the thing types, which have been returned last for each locale (the key can be null) */
+    private final Map<Locale, List<ThingType>> lastThingTypes = new HashMap<>();
+
+    /**
+     * Returns the version of the registry. It is increased whenever a {@link ThingTypeProvider} is added or removed
+     * and whenever {@link #getThingTypes(Locale)} returns other thing types than the last time for the same locale,
+     * as the providers do not notify the registry about changes of their thing types. A client, which needs to detect
+     * changes, must therefore get the thing types first and the version afterwards.
+     *
+     * @return version of the registry
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
     /**
      * Returns all thing types.
      *
@@ -42,7 +62,29 @@ public class ThingTypeRegistry {
         for (ThingTypeProvider thingTypeProvider : thingTypeProviders) {
             thingTypes.addAll(thingTypeProvider.getThingTypes(locale));
         }
-        return Collections.unmodifiableList(thingTypes);
+        List<ThingType> result = Collections.unmodifiableList(thingTypes);
+        synchronized (lastThingTypes) {
+            if (!isSame(lastThingTypes.put(locale, result), result)) {
+                version.incrementAndGet();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether two lists contain the same thing type instances. The instances are compared, as the providers
+     * create new instances for changed thing types, while thing types are only equal by their UIDs.
+     */
+    private static boolean isSame(List<ThingType> thingTypes, List<ThingType> otherThingTypes) {
+        if (thingTypes == null || thingTypes.size() != otherThingTypes.size()) {
+            return false;
+        }
+        for (int i = 0; i < thingTypes.size(); i++) {
+            if (thingTypes.get(i) != otherThingTypes.get(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -161,12 +203,15 @@ public class ThingTypeRegistry {
     protected void addThingTypeProvider(ThingTypeProvider thingTypeProvider) {
         if (thingTypeProvider != null) {
             this.thingTypeProviders.add(thingTypeProvider);
+            version.incrementAndGet();
         }
     }
 
     protected void removeThingTypeProvider(ThingTypeProvider thingTypeProvider) {
         if (thingTypeProvider != null) {
-            this.thingTypeProviders.remove(thingTypeProvider);
+            if (this.thingTypeProviders.remove(thingTypeProvider)) {
+                version.incrementAndGet();
+            }
         }
     }
 
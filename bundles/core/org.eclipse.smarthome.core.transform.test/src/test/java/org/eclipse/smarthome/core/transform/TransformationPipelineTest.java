@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.transform;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * Tests for the {@link TransformationPipeline} and the {@link TransformationSource}.
+ *
+ * @author agent - Initial contribution
+ */
+public class TransformationPipelineTest {
+
+    private BundleContext context;
+
+    private int parsedDocuments = 0;
+
+    @Before
+    public void setUp() throws InvalidSyntaxException {
+        context = mock(BundleContext.class);
+        register("APPEND", new TransformationService() {
+            @Override
+            public String transform(String function, String source) throws TransformationException {
+                return source + function;
+            }
+        });
+        register("UPPER", new TransformationService() {
+            @Override
+            public String transform(String function, String source) throws TransformationException {
+                return source.toUpperCase();
+            }
+        });
+        register("FAIL", new TransformationService() {
+            @Override
+            public String transform(String function, String source) throws TransformationException {
+                throw new TransformationException("failed on '" + source + "'");
+            }
+        });
+        register("DOCUMENT", new DocumentTransformationService() {
+            @Override
+            public String transform(String function, String source) throws TransformationException {
+                return transform(function, parse(source));
+            }
+
+            @Override
+            public Object parse(String source) throws TransformationException {
+                parsedDocuments++;
+                return source.split(",");
+            }
+
+            @Override
+            public String transform(String function, Object document) throws TransformationException {
+                return ((String[]) document)[Integer.parseInt(function)];
+            }
+        });
+    }
+
+    @Test
+    public void testTransformationsAreChained() throws TransformationException {
+        TransformationPipeline pipeline = TransformationPipeline.parse("APPEND(b)\u2229UPPER(x)\u2229APPEND(c)");
+
+        assertThat(pipeline.getTypes(), is(Arrays.asList("APPEND", "UPPER", "APPEND")));
+        assertThat(pipeline.transform(context, "a"), is("ABc"));
+        assertThat(pipeline.toString(), is("APPEND(b)\u2229UPPER(x)\u2229APPEND(c)"));
+    }
+
+    @Test
+    public void testFailingTransformationFailsThePipeline() {
+        TransformationPipeline pipeline = new TransformationPipeline().add("APPEND", "b").add("FAIL", "x")
+                .add("APPEND", "c");
+
+        try {
+            pipeline.transform(context, "a");
+            fail("the failing transformation should fail the pipeline");
+        } catch (TransformationException e) {
+            assertThat(e.getMessage(), is("failed on 'ab'"));
+        }
+    }
+
+    @Test
+    public void testUnavailableServiceFailsThePipeline() {
+        try {
+            TransformationPipeline.parse("MISSING(x)").transform(context, "a");
+            fail("the unavailable service should fail the pipeline");
+        } catch (TransformationException e) {
+            assertThat(e.getMessage(), containsString("MISSING"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPipelineIsRejected() {
+        TransformationPipeline.parse("APPEND(b)\u2229UPPER");
+    }
+
+    @Test
+    public void testEmptyPipelinePassesTheSourceThrough() throws TransformationException {
+        TransformationSource source = new TransformationSource("a,b");
+
+        assertThat(new TransformationPipeline().transform(context, source), is("a,b"));
+        assertThat(source.getSource(), is("a,b"));
+        assertThat(parsedDocuments, is(0));
+    }
+
+    @Test
+    public void testPipelinesShareTheParsedSource() throws TransformationException {
+        Map<String, TransformationPipeline> pipelines = new LinkedHashMap<>();
+        pipelines.put("first", TransformationPipeline.parse("DOCUMENT(0)\u2229UPPER(x)"));
+        pipelines.put("second", TransformationPipeline.parse("DOCUMENT(1)"));
+        pipelines.put("third", TransformationPipeline.parse("APPEND(c)"));
+
+        Map<String, String> results = TransformationPipeline.transformAll(context, "a,b", pipelines);
+
+        assertThat(results.get("first"), is("A"));
+        assertThat(results.get("second"), is("b"));
+        assertThat(results.get("third"), is("a,bc"));
+        assertThat(parsedDocuments, is(1));
+    }
+
+    private void register(String type, TransformationService service) throws InvalidSyntaxException {
+        @SuppressWarnings("unchecked")
+        ServiceReference<TransformationService> reference = mock(ServiceReference.class);
+        when(context.getServiceReferences(TransformationService.class, "(smarthome.transform=" + type + ")"))
+                .thenReturn(Collections.singletonList(reference));
+        when(context.getService(reference)).thenReturn(service);
+    }
+
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.transform;
+
+/**
+ * A {@link TransformationService}, which parses its input into a document before it evaluates the function, e.g. a
+ * JSON or XML document. The parsing is exposed separately, so that several functions can be evaluated against the
+ * same document without parsing it again. A {@link TransformationSource} keeps the parsed documents of a source.
+ *
+ * @author agent - Initial contribution and API
+ */
+public interface DocumentTransformationService extends TransformationService {
+
+    /**
+     * Parses the source into a document, which can be passed to {@link #transform(String, Object)}. The document
+     * must not be modified by the service, but it does not need to be thread-safe.
+     *
+     * @param source the input to be parsed
+     * @return the parsed document
+     * @throws TransformationException if the source cannot be parsed
+     */
+    Object parse(String source) throws TransformationException;
+
+    /**
+     * Transforms a document, which has been created by {@link #parse(String)} of this service, by means of the given
+     * function. The result is the same as the one of {@link #transform(String, String)} for the source of the
+     * document.
+     *
+     * @param function the function to be used to transform the document
+     * @param document the parsed document
+     * @return the transformed result
+     * @throws TransformationException if any error occurs
+     */
+    String transform(String function, Object document) throws TransformationException;
+
+}
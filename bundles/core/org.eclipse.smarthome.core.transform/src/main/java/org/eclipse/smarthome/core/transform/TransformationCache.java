@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.transform;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded cache for the compiled artifacts of {@link TransformationService}s, like regular expression patterns,
+ * XPath expressions or XSLT templates, keyed by the expression or the file they have been created from. When the
+ * cache is full, the least recently used entry is evicted.
+ * <p>
+ * The cache is thread-safe. The cached artifacts are shared by all threads, so only artifacts, which can be used
+ * concurrently, should be cached, or their usage has to be synchronized by the caller.
+ * <p>
+ * The numbers of hits and misses are counted and logged on debug level for every miss, so the effectiveness of the
+ * cache can be monitored.
+ *
+ * @author agent - Initial contribution and API
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached artifacts
+ */
+public class TransformationCache<K, V> {
+
+    /**
+     * The default maximum number of entries of a cache.
+     */
+    public static final int DEFAULT_MAX_SIZE = 128;
+
+    /**
+     * Creates the artifact for a key, which is not cached yet.
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the cached artifacts
+     */
+    public interface Loader<K, V> {
+
+        /**
+         * Creates the artifact for the given key.
+         *
+         * @param key the key
+         * @return the artifact, must not be null
+         * @throws TransformationException if the artifact cannot be created
+         */
+        V load(K key) throws TransformationException;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(TransformationCache.class);
+
+    private final Map<K, V> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a cache with the {@link #DEFAULT_MAX_SIZE}.
+     */
+    public TransformationCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSize the maximum number of entries
+     */
+    public TransformationCache(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive.");
+        }
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached artifact for the given key. If there is none, it is created by the loader and added to the
+     * cache. The loader is called without holding a lock, so the artifact may be created more than once, if it is
+     * requested concurrently.
+     *
+     * @param key the key
+     * @param loader the loader to create the artifact
+     * @return the artifact
+     * @throws TransformationException if the artifact cannot be created
+     */
+    public V get(K key, Loader<K, V> loader) throws TransformationException {
+        V value;
+        synchronized (entries) {
+            value = entries.get(key);
+        }
+        if (value != null) {
+            hits.incrementAndGet();
+            return value;
+        }
+        long missCount = misses.incrementAndGet();
+        value = loader.load(key);
+        int size;
+        synchronized (entries) {
+            entries.put(key, value);
+            size = entries.size();
+        }
+        logger.debug("Cached the artifact for '{}' (hits: {}, misses: {}, size: {})", key, hits.get(), missCount, size);
+        return value;
+    }
+
+    /**
+     * Removes the artifact for the given key.
+     *
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Removes all artifacts.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return the number of cached artifacts
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return the number of requests, which have been served from the cache
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of requests, for which the artifact had to be created
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+}
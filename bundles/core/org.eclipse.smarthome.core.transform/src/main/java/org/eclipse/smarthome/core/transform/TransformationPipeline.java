@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.transform;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.osgi.framework.BundleContext;
+
+/**
+ * A chain of transformations, which are applied one after the other, e.g.
+ * <code>JSONPATH($.temp)&#x2229;SCALE(temp.scale)</code>. The first transformation is applied to a
+ * {@link TransformationSource}, so several pipelines, which extract different values from the same source, share a
+ * single parsed document. Every further transformation is applied to the result of its predecessor.
+ *
+ * @author agent - Initial contribution and API
+ */
+public class TransformationPipeline {
+
+    /**
+     * The separator of the transformations in the string representation of a pipeline, the intersection sign.
+     */
+    public static final String CHAIN_SEPARATOR = "\u2229";
+
+    /* RegEx to extract a single transformation <code>'(.*?)\((.*)\)'</code> */
+    private static final Pattern TRANSFORMATION_PATTERN = Pattern.compile("\\s*(.+?)\\((.*)\\)\\s*");
+
+    private final List<Step> steps = new ArrayList<>();
+
+    /**
+     * Parses the string representation of a pipeline, which consists of transformations of the form
+     * <code>TYPE(function)</code> separated by the {@link #CHAIN_SEPARATOR}.
+     *
+     * @param pipeline the string representation of the pipeline
+     * @return the pipeline
+     * @throws IllegalArgumentException if the string is not a valid pipeline
+     */
+    public static TransformationPipeline parse(String pipeline) {
+        TransformationPipeline result = new TransformationPipeline();
+        for (String transformation : pipeline.split(CHAIN_SEPARATOR)) {
+            Matcher matcher = TRANSFORMATION_PATTERN.matcher(transformation);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("'" + transformation + "' is not a valid transformation of '"
+                        + pipeline + "'");
+            }
+            result.add(matcher.group(1), matcher.group(2));
+        }
+        return result;
+    }
+
+    /**
+     * Applies several pipelines to the same source, which is parsed at most once per transformation type.
+     *
+     * @param context a valid bundle context, required for accessing the services
+     * @param source the input to be transformed
+     * @param pipelines the pipelines by an arbitrary key, e.g. the name of the extracted value
+     * @return the results of the pipelines by their key
+     * @throws TransformationException if any of the pipelines fails
+     */
+    public static <K> Map<K, String> transformAll(BundleContext context, String source,
+            Map<K, TransformationPipeline> pipelines) throws TransformationException {
+        TransformationSource transformationSource = new TransformationSource(source);
+        Map<K, String> results = new LinkedHashMap<>();
+        for (Entry<K, TransformationPipeline> entry : pipelines.entrySet()) {
+            results.put(entry.getKey(), entry.getValue().transform(context, transformationSource));
+        }
+        return results;
+    }
+
+    /**
+     * Appends a transformation to the pipeline.
+     *
+     * @param type the transformation type, e.g. JSONPATH
+     * @param function the function of the transformation
+     * @return this pipeline
+     */
+    public TransformationPipeline add(String type, String function) {
+        if (type == null || function == null) {
+            throw new IllegalArgumentException("type and function must not be null");
+        }
+        steps.add(new Step(type, function));
+        return this;
+    }
+
+    /**
+     * @return the transformation types of the pipeline in the order in which they are applied
+     */
+    public List<String> getTypes() {
+        List<String> types = new ArrayList<>(steps.size());
+        for (Step step : steps) {
+            types.add(step.type);
+        }
+        return Collections.unmodifiableList(types);
+    }
+
+    /**
+     * Applies the pipeline to a source.
+     *
+     * @param context a valid bundle context, required for accessing the services
+     * @param source the input to be transformed
+     * @return the result of the last transformation
+     * @throws TransformationException if a transformation fails or its service is not available
+     */
+    public String transform(BundleContext context, String source) throws TransformationException {
+        return transform(context, new TransformationSource(source));
+    }
+
+    /**
+     * Applies the pipeline to a source, whose parsed documents are shared with other pipelines.
+     *
+     * @param context a valid bundle context, required for accessing the services
+     * @param source the input to be transformed
+     * @return the result of the last transformation
+     * @throws TransformationException if a transformation fails or its service is not available
+     */
+    public String transform(BundleContext context, TransformationSource source) throws TransformationException {
+        if (steps.isEmpty()) {
+            return source.getSource();
+        }
+        String value = source.transform(getService(context, steps.get(0)), steps.get(0).function);
+        for (Step step : steps.subList(1, steps.size())) {
+            value = getService(context, step).transform(step.function, value);
+        }
+        return value;
+    }
+
+    private TransformationService getService(BundleContext context, Step step) throws TransformationException {
+        TransformationService service = TransformationHelper.getTransformationService(context, step.type);
+        if (service == null) {
+            throw new TransformationException("Transformation service of type '" + step.type + "' is unavailable");
+        }
+        return service;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Step step : steps) {
+            if (sb.length() > 0) {
+                sb.append(CHAIN_SEPARATOR);
+            }
+            sb.append(step.type).append('(').append(step.function).append(')');
+        }
+        return sb.toString();
+    }
+
+    private static class Step {
+
+        private final String type;
+
+        private final String function;
+
+        private Step(String type, String function) {
+            this.type = type;
+            this.function = function;
+        }
+    }
+
+}
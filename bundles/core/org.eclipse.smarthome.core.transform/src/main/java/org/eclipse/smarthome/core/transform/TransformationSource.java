@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.transform;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A source, which is transformed by several functions, e.g. a JSON or XML response from which several values are
+ * extracted. It parses the source only once for each {@link DocumentTransformationService} and passes the parsed
+ * document to all functions of that service.
+ * <p>
+ * A source is meant to be used by a single thread, as the parsed documents are not necessarily thread-safe.
+ *
+ * @author agent - Initial contribution and API
+ */
+public class TransformationSource {
+
+    private final String source;
+
+    private final Map<DocumentTransformationService, Object> documents = new HashMap<>();
+
+    /**
+     * Creates a source.
+     *
+     * @param source the input to be transformed, must not be null
+     */
+    public TransformationSource(String source) {
+        if (source == null) {
+            throw new IllegalArgumentException("the source must not be null");
+        }
+        this.source = source;
+    }
+
+    /**
+     * @return the unparsed source
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Transforms the source by means of the given service and function. A {@link DocumentTransformationService}
+     * parses the source with the first call and reuses the parsed document for all further calls.
+     *
+     * @param service the transformation service
+     * @param function the function to be used to transform the source
+     * @return the transformed result
+     * @throws TransformationException if any error occurs
+     */
+    public String transform(TransformationService service, String function) throws TransformationException {
+        if (service instanceof DocumentTransformationService) {
+            DocumentTransformationService documentService = (DocumentTransformationService) service;
+            Object document = documents.get(documentService);
+            if (document == null) {
+                document = documentService.parse(source);
+                documents.put(documentService, document);
+            }
+            return documentService.transform(function, document);
+        }
+        return service.transform(function, source);
+    }
+
+}
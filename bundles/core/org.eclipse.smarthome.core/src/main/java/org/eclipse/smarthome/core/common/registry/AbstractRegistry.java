@@ -10,7 +10,9 @@ package org.eclipse.smarthome.core.common.registry;
 import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.smarthome.core.events.Event;
 import org.eclipse.smarthome.core.events.EventPublisher;
@@ -27,6 +29,13 @@ import com.google.common.collect.Iterables;
  * The {@link AbstractRegistry} is an abstract implementation of the {@link Registry} interface, that can be used as
  * base class for {@link Registry} implementations.
  *
+ * If a subclass returns the key of an element by {@link #getKey(Object)}, the elements of all providers are indexed by
+ * their key, so that {@link #getByKey(Object)} does not need to iterate over all elements. If several providers provide
+ * an element with the same key, the element which has been added last is returned.
+ *
+ * The version of the registry is increased after every change of its elements, including the addition and removal of
+ * providers.
+ *
  * @author Dennis Nobel - Initial contribution
  * @author Stefan Bußweiler - Migration to new event mechanism
  *
@@ -49,6 +58,11 @@ public abstract class AbstractRegistry<E, K, P extends Provider<E>>
 
     protected Map<Provider<E>, Collection<E>> elementMap = new ConcurrentHashMap<Provider<E>, Collection<E>>();
 
+    /* the elements of all providers by their key, in the order in which they have been added */
+    private final ConcurrentMap<K, ImmutableList<E>> elementIndex = new ConcurrentHashMap<K, ImmutableList<E>>();
+
+    private final AtomicLong version = new AtomicLong();
+
     protected Collection<RegistryChangeListener<E>> listeners = new CopyOnWriteArraySet<RegistryChangeListener<E>>();
 
     protected ManagedProvider<E, K> managedProvider;
@@ -120,6 +134,8 @@ public abstract class AbstractRegistry<E, K, P extends Provider<E>>
             try {
                 onAddElement(element);
                 elements.add(element);
+                addToIndex(element);
+                version.incrementAndGet();
                 notifyListenersAboutAddedElement(element);
             } catch (Exception ex) {
                 logger.warn("Could not add element: " + ex.getMessage(), ex);
@@ -137,6 +153,11 @@ public abstract class AbstractRegistry<E, K, P extends Provider<E>>
         return ImmutableList.copyOf(Iterables.concat(elementMap.values()));
     }
 
+    @Override
+    public Iterable<E> getAllView() {
+        return Iterables.unmodifiableIterable(Iterables.concat(elementMap.values()));
+    }
+
     @Override
     public void removed(Provider<E> provider, E element) {
         Collection<E> elements = elementMap.get(provider);
@@ -144,6 +165,8 @@ public abstract class AbstractRegistry<E, K, P extends Provider<E>>
             try {
                 onRemoveElement(element);
                 elements.remove(element);
+                removeFromIndex(element);
+                version.incrementAndGet();
                 notifyListenersAboutRemovedElement(element);
             } catch (Exception ex) {
                 logger.warn("Could not remove element: " + ex.getMessage(), ex);
@@ -164,6 +187,12 @@ public abstract class AbstractRegistry<E, K, P extends Provider<E>>
                 onUpdateElement(oldElement, element);
                 elements.remove(oldElement);
                 elements.add(element);
+                if (oldElement != element) {
+                    // the new element is indexed first, so that its key does not vanish from the index in between
+                    addToIndex(element);
+                    removeFromIndex(oldElement);
+                }
+                version.incrementAndGet();
                 notifyListenersAboutUpdatedElement(oldElement, element);
             } catch (Exception ex) {
                 logger.warn("Could not update element: " + ex.getMessage(), ex);
@@ -171,6 +200,19 @@ public abstract class AbstractRegistry<E, K, P extends Provider<E>>
         }
     }
 
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Increases the version of the registry. Subclasses that change the elements of a provider without the methods of
+     * this class must call it once for every such change.
+     */
+    protected void increaseVersion() {
+        version.incrementAndGet();
+    }
+
     @Override
     public E add(E element) {
         if (this.managedProvider != null) {
@@ -249,11 +291,13 @@ public abstract class AbstractRegistry<E, K, P extends Provider<E>>
                 try {
                     onAddElement(element);
                     elements.add(element);
+                    addToIndex(element);
                     notifyListenersAboutAddedElement(element);
                 } catch (Exception ex) {
                     logger.warn("Could not add element: " + ex.getMessage(), ex);
                 }
             }
+            version.incrementAndGet();
             logger.debug("Provider '{}' has been added.", provider.getClass().getName());
         }
     }
@@ -315,7 +359,8 @@ public abstract class AbstractRegistry<E, K, P extends Provider<E>>
     protected void removeProvider(Provider<E> provider) {
         if (elementMap.containsKey(provider)) {
 
-            for (E element : elementMap.get(provider)) {
+            Collection<E> elements = elementMap.get(provider);
+            for (E element : elements) {
                 try {
                     onRemoveElement(element);
                     notifyListenersAboutRemovedElement(element);
@@ -325,6 +370,10 @@ public abstract class AbstractRegistry<E, K, P extends Provider<E>>
             }
 
             elementMap.remove(provider);
+            for (E element : elements) {
+                removeFromIndex(element);
+            }
+            version.incrementAndGet();
 
             provider.removeProviderChangeListener(this);
 
@@ -332,6 +381,84 @@ public abstract class AbstractRegistry<E, K, P extends Provider<E>>
         }
     }
 
+    /**
+     * Returns the key of the given element, which is used to index the elements of this registry. Subclasses should
+     * override this method to enable the index. The default implementation returns null, which means that the
+     * element is not indexed.
+     *
+     * @param element element (not null)
+     * @return the key of the element or null if the element should not be indexed
+     */
+    protected K getKey(E element) {
+        return null;
+    }
+
+    /**
+     * Returns the element with the given key from the index. This requires that the subclass provides the keys of the
+     * elements by {@link #getKey(Object)}.
+     *
+     * @param key key of the element
+     * @return element or null if no element was found
+     */
+    protected E getByKey(K key) {
+        if (key == null) {
+            return null;
+        }
+        ImmutableList<E> elements = elementIndex.get(key);
+        return elements != null ? elements.get(elements.size() - 1) : null;
+    }
+
+    /**
+     * Adds the element to the index. Subclasses, which maintain additional indexes, can override this method, but must
+     * call the super implementation.
+     *
+     * @param element element which has been added to the registry
+     */
+    protected void addToIndex(E element) {
+        K key = getKey(element);
+        if (key != null) {
+            synchronized (elementIndex) {
+                ImmutableList.Builder<E> elements = ImmutableList.builder();
+                addAllExcept(elements, elementIndex.get(key), element);
+                elementIndex.put(key, elements.add(element).build());
+            }
+        }
+    }
+
+    /**
+     * Removes the element from the index. If another provider provides an element with the same key, the index refers
+     * to this element afterwards. Subclasses, which maintain additional indexes, can override this method, but must
+     * call the super implementation.
+     *
+     * @param element element which has been removed from the registry
+     */
+    protected void removeFromIndex(E element) {
+        K key = getKey(element);
+        if (key != null) {
+            synchronized (elementIndex) {
+                ImmutableList.Builder<E> elements = ImmutableList.builder();
+                addAllExcept(elements, elementIndex.get(key), element);
+                ImmutableList<E> remainingElements = elements.build();
+                if (remainingElements.isEmpty()) {
+                    elementIndex.remove(key);
+                } else {
+                    elementIndex.put(key, remainingElements);
+                }
+            }
+        }
+    }
+
+    private void addAllExcept(ImmutableList.Builder<E> builder, ImmutableList<E> elements, E excludedElement) {
+        if (elements != null) {
+            for (E element : elements) {
+                // compare by identity, as different providers can provide equal elements
+                if (element != excludedElement) {
+                    builder.add(element);
+                }
+            }
+        }
+    }
+
     protected void removeManagedProvider(ManagedProvider<E, K> managedProvider) {
         this.managedProvider = null;
     }
@@ -35,6 +35,24 @@ public interface Registry<E, K> {
      */
     Collection<E> getAll();
 
+    /**
+     * Returns a live view of all elements in the registry. In contrast to {@link #getAll()} the elements are not
+     * copied, so the view should be used whenever the elements are only iterated once and no snapshot is needed. The
+     * view reflects concurrent changes of the registry and cannot be modified.
+     *
+     * @return live view of all elements in the registry
+     */
+    Iterable<E> getAllView();
+
+    /**
+     * Returns the version of the registry. The version is increased whenever an element is added, removed or updated,
+     * so a client can detect whether the registry has been changed since it has read the elements. The version
+     * never decreases while the registry exists.
+     *
+     * @return version of the registry
+     */
+    long getVersion();
+
     /**
      * This method retrieves a single element from the registry.
      *
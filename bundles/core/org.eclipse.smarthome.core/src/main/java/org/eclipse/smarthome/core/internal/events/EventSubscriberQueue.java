@@ -0,0 +1,466 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.internal.events;
+
+import java.util.LinkedList;
+import java.util.ListIterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.events.EventSubscriber;
+import org.eclipse.smarthome.core.items.events.ItemCommandEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link EventSubscriberQueue} is a bounded and ordered delivery queue for a single {@link EventSubscriber}. The
+ * queued events are delivered by a shared executor, whereas at most one delivery task per subscriber is active at the
+ * same time. Thus a slow subscriber only delays its own events but never the delivery to other subscribers.
+ *
+ * If the queue is full, the configured {@link OverflowPolicy} decides what happens with a new event. Commands are never
+ * dropped or coalesced, whatever the policy is.
+ *
+ * If the subscriber does not return from a delivery within the timeout, the delivery is given up: the remaining
+ * events are delivered by a new task, while the hung call keeps its thread.
+ *
+ * @author agent - Initial contribution
+ */
+public class EventSubscriberQueue {
+
+    /**
+     * Defines how a full {@link EventSubscriberQueue} handles new events.
+     */
+    public enum OverflowPolicy {
+        /** no event is dropped, the queue grows beyond its capacity, which is only reported */
+        GROW,
+        /**
+         * the publishing thread is blocked until the subscriber has consumed an event, but at most for the configured
+         * timeout, after which the new event is dropped
+         */
+        BLOCK,
+        /** the oldest pending event is dropped */
+        DROP_OLDEST,
+        /**
+         * a pending event with the same type and topic is replaced by the new event, if there is no such event the
+         * oldest pending event is dropped
+         */
+        COALESCE
+    }
+
+    private static class QueuedEvent {
+        private Event event;
+        private final long enqueuedAt;
+
+        private QueuedEvent(Event event, long enqueuedAt) {
+            this.event = event;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    /** maximum number of events delivered by one task before the executor thread is handed over to other queues */
+    private static final int MAX_DELIVERIES_PER_TASK = 64;
+
+    private final Logger logger = LoggerFactory.getLogger(EventSubscriberQueue.class);
+
+    private final EventSubscriber eventSubscriber;
+
+    private final Executor executor;
+
+    private final ScheduledExecutorService timeoutScheduler;
+
+    private final LinkedList<QueuedEvent> queue = new LinkedList<QueuedEvent>();
+
+    private final Runnable deliveryTask = new Runnable() {
+        @Override
+        public void run() {
+            deliverQueuedEvents();
+        }
+    };
+
+    private int capacity;
+
+    private OverflowPolicy overflowPolicy;
+
+    private long timeout;
+
+    private boolean deliveryScheduled = false;
+
+    private boolean closed = false;
+
+    /* increased whenever a hung delivery is given up, so that the task of the hung delivery stops afterwards */
+    private long deliveryGeneration = 0;
+
+    /* the event, which is being delivered by the current task */
+    private QueuedEvent currentDelivery;
+
+    private final AtomicLong deliveredEvents = new AtomicLong();
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    private final AtomicLong coalescedEvents = new AtomicLong();
+
+    private final AtomicLong failedDeliveries = new AtomicLong();
+
+    private final AtomicLong timedOutDeliveries = new AtomicLong();
+
+    private volatile long lastLag = 0;
+
+    private volatile long maxLag = 0;
+
+    /**
+     * Creates a new {@link EventSubscriberQueue}.
+     *
+     * @param eventSubscriber the subscriber to deliver the events to
+     * @param executor the (shared) executor which runs the delivery tasks
+     * @param timeoutScheduler the (shared) scheduler which checks the deliveries for timeouts
+     * @param capacity the maximum number of pending events (must be positive)
+     * @param overflowPolicy the policy which applies if the queue is full
+     * @param timeout the time in milliseconds after which a delivery is given up (0 for no timeout)
+     */
+    public EventSubscriberQueue(EventSubscriber eventSubscriber, Executor executor,
+            ScheduledExecutorService timeoutScheduler, int capacity, OverflowPolicy overflowPolicy, long timeout) {
+        this.eventSubscriber = eventSubscriber;
+        this.executor = executor;
+        this.timeoutScheduler = timeoutScheduler;
+        configure(capacity, overflowPolicy, timeout);
+    }
+
+    /**
+     * Changes the settings of this queue. Already pending events are not affected.
+     *
+     * @param capacity the maximum number of pending events (must be positive)
+     * @param overflowPolicy the policy which applies if the queue is full
+     * @param timeout the time in milliseconds after which a delivery is given up (0 for no timeout)
+     */
+    public synchronized void configure(int capacity, OverflowPolicy overflowPolicy, long timeout) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive.");
+        }
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.timeout = timeout;
+        notifyAll();
+    }
+
+    /**
+     * Appends the given event to the queue and schedules its delivery.
+     *
+     * @param event the event to deliver
+     */
+    public void enqueue(Event event) {
+        QueuedEvent queuedEvent = new QueuedEvent(event, System.nanoTime());
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (queue.size() >= capacity && !handleOverflow(queuedEvent)) {
+                return;
+            }
+            queue.add(queuedEvent);
+            if (!deliveryScheduled) {
+                scheduleDelivery();
+            }
+        }
+    }
+
+    /**
+     * Submits the delivery task to the executor. Must be called while holding the monitor of this queue. If the
+     * executor rejects the task, the delivery is scheduled again with the next event.
+     */
+    private void scheduleDelivery() {
+        deliveryScheduled = true;
+        try {
+            executor.execute(deliveryTask);
+        } catch (RejectedExecutionException e) {
+            deliveryScheduled = false;
+            logger.warn("Cannot schedule the delivery of events to subscriber '{}': {}", eventSubscriber,
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Handles a new event for a full queue. Must be called while holding the monitor of this queue.
+     *
+     * @return true if the new event must still be appended to the queue, false if it has already been handled
+     */
+    private boolean handleOverflow(QueuedEvent queuedEvent) {
+        switch (overflowPolicy) {
+            case GROW:
+                reportGrowth();
+                return true;
+            case BLOCK:
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+                while (queue.size() >= capacity && !closed) {
+                    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0) {
+                        if (isCommand(queuedEvent.event)) {
+                            reportGrowth();
+                            return true;
+                        }
+                        droppedEvents.incrementAndGet();
+                        logger.warn("Subscriber '{}' did not consume its events within {}ms, the event '{}' is "
+                                + "dropped.", eventSubscriber, timeout, queuedEvent.event.getTopic());
+                        return false;
+                    }
+                    try {
+                        wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        if (isCommand(queuedEvent.event)) {
+                            reportGrowth();
+                            return !closed;
+                        }
+                        droppedEvents.incrementAndGet();
+                        logger.warn("Interrupted while waiting for subscriber '{}', the event '{}' is dropped.",
+                                eventSubscriber, queuedEvent.event.getTopic());
+                        return false;
+                    }
+                }
+                return !closed;
+            case COALESCE:
+                ListIterator<QueuedEvent> iterator = queue.listIterator(queue.size());
+                while (iterator.hasPrevious() && !isCommand(queuedEvent.event)) {
+                    QueuedEvent pendingEvent = iterator.previous();
+                    if (isSameKind(pendingEvent.event, queuedEvent.event)) {
+                        pendingEvent.event = queuedEvent.event;
+                        coalescedEvents.incrementAndGet();
+                        return false;
+                    }
+                }
+                dropOldest();
+                return true;
+            case DROP_OLDEST:
+            default:
+                dropOldest();
+                return true;
+        }
+    }
+
+    /**
+     * Drops the oldest pending event, which is not a command. If all pending events are commands, the queue grows.
+     */
+    private void dropOldest() {
+        ListIterator<QueuedEvent> iterator = queue.listIterator();
+        while (iterator.hasNext()) {
+            QueuedEvent droppedEvent = iterator.next();
+            if (!isCommand(droppedEvent.event)) {
+                iterator.remove();
+                long dropped = droppedEvents.incrementAndGet();
+                if (dropped == 1 || dropped % 1000 == 0) {
+                    logger.warn("The event queue of subscriber '{}' is full, dropped event '{}' ({} events dropped "
+                            + "so far).", eventSubscriber, droppedEvent.event.getTopic(), dropped);
+                }
+                return;
+            }
+        }
+        reportGrowth();
+    }
+
+    /**
+     * Reports that the queue grows beyond its capacity, each time it reaches another multiple of the capacity.
+     */
+    private void reportGrowth() {
+        if (queue.size() % capacity == 0) {
+            logger.warn("The event queue of subscriber '{}' exceeds its capacity of {} events, {} events are pending.",
+                    eventSubscriber, capacity, queue.size() + 1);
+        }
+    }
+
+    private boolean isCommand(Event event) {
+        return ItemCommandEvent.TYPE.equals(event.getType());
+    }
+
+    private boolean isSameKind(Event event, Event otherEvent) {
+        return event.getType().equals(otherEvent.getType()) && event.getTopic().equals(otherEvent.getTopic());
+    }
+
+    private void deliverQueuedEvents() {
+        long generation;
+        synchronized (this) {
+            generation = deliveryGeneration;
+        }
+        for (int i = 0; i < MAX_DELIVERIES_PER_TASK; i++) {
+            QueuedEvent queuedEvent;
+            long deliveryTimeout;
+            synchronized (this) {
+                if (generation != deliveryGeneration) {
+                    // the delivery has been given up and a new task has taken over
+                    return;
+                }
+                queuedEvent = queue.poll();
+                currentDelivery = queuedEvent;
+                if (queuedEvent == null) {
+                    deliveryScheduled = false;
+                    return;
+                }
+                deliveryTimeout = timeout;
+                notifyAll();
+            }
+            deliver(queuedEvent, deliveryTimeout);
+        }
+        synchronized (this) {
+            if (generation != deliveryGeneration) {
+                return;
+            }
+            currentDelivery = null;
+            if (queue.isEmpty()) {
+                deliveryScheduled = false;
+            } else {
+                scheduleDelivery();
+            }
+        }
+    }
+
+    private void deliver(final QueuedEvent queuedEvent, final long deliveryTimeout) {
+        long start = System.nanoTime();
+        long lag = TimeUnit.NANOSECONDS.toMillis(start - queuedEvent.enqueuedAt);
+        lastLag = lag;
+        if (lag > maxLag) {
+            maxLag = lag;
+        }
+
+        ScheduledFuture<?> timeoutCheck = null;
+        if (deliveryTimeout > 0) {
+            timeoutCheck = timeoutScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    giveUpDelivery(queuedEvent, deliveryTimeout);
+                }
+            }, deliveryTimeout, TimeUnit.MILLISECONDS);
+        }
+        try {
+            eventSubscriber.receive(queuedEvent.event);
+            deliveredEvents.incrementAndGet();
+        } catch (Throwable t) {
+            failedDeliveries.incrementAndGet();
+            logger.error("Dispatching event to subscriber '" + eventSubscriber + "' failed: " + t.getMessage(), t);
+        } finally {
+            if (timeoutCheck != null) {
+                timeoutCheck.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Gives up a delivery, which has not returned within the timeout. The remaining events are delivered by a new
+     * task, so that the hung subscriber call does not block them.
+     */
+    private synchronized void giveUpDelivery(QueuedEvent queuedEvent, long deliveryTimeout) {
+        if (currentDelivery != queuedEvent || closed) {
+            // the delivery has returned in the meantime
+            return;
+        }
+        deliveryGeneration++;
+        currentDelivery = null;
+        timedOutDeliveries.incrementAndGet();
+        logger.warn("Subscriber '{}' did not return from the delivery of event '{}' within {}ms, its further events "
+                + "are delivered by another thread.", eventSubscriber, queuedEvent.event.getTopic(), deliveryTimeout);
+        if (queue.isEmpty()) {
+            deliveryScheduled = false;
+        } else {
+            scheduleDelivery();
+        }
+    }
+
+    /**
+     * Closes this queue. Pending events are discarded and threads blocked by {@link #enqueue(Event)} are released.
+     */
+    public synchronized void close() {
+        closed = true;
+        queue.clear();
+        notifyAll();
+    }
+
+    /**
+     * Returns the subscriber of this queue.
+     *
+     * @return the subscriber
+     */
+    public EventSubscriber getEventSubscriber() {
+        return eventSubscriber;
+    }
+
+    /**
+     * Returns the number of pending events.
+     *
+     * @return the number of pending events
+     */
+    public synchronized int getSize() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the time in milliseconds the last delivered event has been waiting in the queue.
+     *
+     * @return the lag of the last delivered event in milliseconds
+     */
+    public long getLastLag() {
+        return lastLag;
+    }
+
+    /**
+     * Returns the maximum time in milliseconds an event has been waiting in the queue.
+     *
+     * @return the maximum lag in milliseconds
+     */
+    public long getMaxLag() {
+        return maxLag;
+    }
+
+    /**
+     * Returns the number of events which have been delivered successfully.
+     *
+     * @return the number of delivered events
+     */
+    public long getDeliveredEvents() {
+        return deliveredEvents.get();
+    }
+
+    /**
+     * Returns the number of events which have been dropped because of an overflow.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Returns the number of events which have been replaced by a newer event of the same type and topic.
+     *
+     * @return the number of coalesced events
+     */
+    public long getCoalescedEvents() {
+        return coalescedEvents.get();
+    }
+
+    /**
+     * Returns the number of deliveries for which the subscriber has thrown an exception.
+     *
+     * @return the number of failed deliveries
+     */
+    public long getFailedDeliveries() {
+        return failedDeliveries.get();
+    }
+
+    /**
+     * Returns the number of deliveries which have been given up, as they did not return within the configured
+     * timeout.
+     *
+     * @return the number of timed out deliveries
+     */
+    public long getTimedOutDeliveries() {
+        return timedOutDeliveries.get();
+    }
+
+}
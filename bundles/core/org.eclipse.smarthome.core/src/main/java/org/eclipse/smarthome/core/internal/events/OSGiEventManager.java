@@ -10,21 +10,26 @@ package org.eclipse.smarthome.core.internal.events;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Dictionary;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.smarthome.core.common.SafeMethodCaller;
-import org.eclipse.smarthome.core.common.SafeMethodCaller.ActionWithException;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.events.Event;
 import org.eclipse.smarthome.core.events.EventFactory;
 import org.eclipse.smarthome.core.events.EventFilter;
 import org.eclipse.smarthome.core.events.EventPublisher;
 import org.eclipse.smarthome.core.events.EventSubscriber;
+import org.eclipse.smarthome.core.internal.events.EventSubscriberQueue.OverflowPolicy;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceReference;
 import org.osgi.service.component.ComponentContext;
@@ -36,7 +41,8 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimaps;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.SetMultimap;
 
 /**
@@ -49,6 +55,30 @@ import com.google.common.collect.SetMultimap;
  * The {@link OSGiEventManager} also serves as {@link EventPublisher} by implementing the EventPublisher interface.
  * Events are send in an asynchronous way via OSGi Event Admin mechanism.
  *
+ * If the direct dispatch mode is enabled (default), the posted {@link Event} instance is attached to the OSGi event and
+ * handed over to the local {@link EventSubscriber}s as is, so that the payload does not have to be deserialized again
+ * by the corresponding {@link EventFactory}. The serialized payload is still part of the OSGi event for all other
+ * (e.g. remote or legacy) OSGi event handlers. The mode can be configured through the configuration admin service:
+ * <br/>
+ * {@code org.eclipse.smarthome.core.internal.events.OSGiEventManager:directDispatch=<true|false>}
+ *
+ * The subscribers of each event type are kept in an immutable routing table, which is only rebuilt if an
+ * {@link EventSubscriber} is added or removed. Thus the dispatching of an event neither needs a lock nor allocates a
+ * new collection. The number of routed events and deliveries per event type is counted and can be retrieved by
+ * {@link #getRoutedEventCounts()} and {@link #getDeliveredEventCounts()}.
+ *
+ * Each {@link EventSubscriber} gets its own bounded and ordered {@link EventSubscriberQueue}, which is drained by the
+ * shared "events" thread pool, so that a slow subscriber does not stall the delivery to the other subscribers. A
+ * delivery, which does not return within the timeout, is given up and the following events are delivered by another
+ * thread. The queues can be configured through the configuration admin service:
+ * <br/>
+ * {@code org.eclipse.smarthome.core.internal.events.OSGiEventManager:queueSize=<size>}
+ * <br/>
+ * {@code org.eclipse.smarthome.core.internal.events.OSGiEventManager:overflowPolicy=<GROW|BLOCK|DROP_OLDEST|COALESCE>}
+ * (default is GROW, which does not lose any event, commands are never dropped by any policy)
+ * <br/>
+ * {@code org.eclipse.smarthome.core.internal.events.OSGiEventManager:timeout=<milliseconds>}
+ *
  * @author Stefan Bußweiler - Initial contribution
  */
 public class OSGiEventManager implements EventHandler, EventPublisher {
@@ -80,18 +110,55 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
 
     }
 
+    private static final String DIRECT_DISPATCH_PROPERTY = "directDispatch";
+
+    private static final String QUEUE_SIZE_PROPERTY = "queueSize";
+
+    private static final String OVERFLOW_POLICY_PROPERTY = "overflowPolicy";
+
+    private static final String TIMEOUT_PROPERTY = "timeout";
+
+    private static final String EVENT_INSTANCE_PROPERTY = "eventInstance";
+
+    private static final String THREAD_POOL_NAME = "events";
+
+    private static final String TIMEOUT_POOL_NAME = "eventTimeouts";
+
+    private static final int DEFAULT_QUEUE_SIZE = 1000;
+
+    private static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.GROW;
+
     private Logger logger = LoggerFactory.getLogger(OSGiEventManager.class);
 
+    private volatile boolean directDispatch = true;
+
+    private volatile int queueSize = DEFAULT_QUEUE_SIZE;
+
+    private volatile OverflowPolicy overflowPolicy = DEFAULT_OVERFLOW_POLICY;
+
+    private volatile long timeout = SafeMethodCaller.DEFAULT_TIMEOUT;
+
     private EventAdmin osgiEventAdmin;
 
     private final Map<String, EventFactory> typedEventFactories = new ConcurrentHashMap<String, EventFactory>();
 
-    private final SetMultimap<String, EventSubscriber> typedEventSubscribers = Multimaps
-            .synchronizedSetMultimap(HashMultimap.<String, EventSubscriber> create());
+    private final SetMultimap<String, EventSubscriber> typedEventSubscribers = HashMultimap
+            .<String, EventSubscriber> create();
+
+    private volatile Map<String, Set<EventSubscriber>> eventSubscriberRoutes = ImmutableMap.of();
+
+    private volatile Set<EventSubscriber> allEventTypesSubscriberRoute = ImmutableSet.of();
+
+    private final Map<EventSubscriber, EventSubscriberQueue> eventSubscriberQueues = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, AtomicLong> routedEventCounts = new ConcurrentHashMap<String, AtomicLong>();
+
+    private final ConcurrentMap<String, AtomicLong> deliveredEventCounts = new ConcurrentHashMap<String, AtomicLong>();
 
     private EventSubscriberServiceTracker eventSubscriberServiceTracker;
 
     protected void activate(ComponentContext componentContext) {
+        modified(componentContext);
         eventSubscriberServiceTracker = new EventSubscriberServiceTracker(componentContext.getBundleContext());
         eventSubscriberServiceTracker.open();
     }
@@ -102,6 +169,60 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    protected void modified(ComponentContext componentContext) {
+        Dictionary<String, Object> properties = componentContext.getProperties();
+
+        Object directDispatchObj = properties.get(DIRECT_DISPATCH_PROPERTY);
+        if (directDispatchObj != null) {
+            directDispatch = Boolean.parseBoolean(directDispatchObj.toString());
+        } else {
+            directDispatch = true;
+        }
+        logger.debug("Direct dispatch of events to local subscribers is {}.", directDispatch ? "enabled" : "disabled");
+
+        queueSize = DEFAULT_QUEUE_SIZE;
+        Object queueSizeObj = properties.get(QUEUE_SIZE_PROPERTY);
+        if (queueSizeObj != null) {
+            try {
+                int size = Integer.parseInt(queueSizeObj.toString());
+                if (size > 0) {
+                    queueSize = size;
+                } else {
+                    logger.warn("Ignoring invalid queue size {} - value must be positive", size);
+                }
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid queue size '{}' - value must be an integer", queueSizeObj);
+            }
+        }
+
+        overflowPolicy = DEFAULT_OVERFLOW_POLICY;
+        Object overflowPolicyObj = properties.get(OVERFLOW_POLICY_PROPERTY);
+        if (overflowPolicyObj != null) {
+            try {
+                overflowPolicy = OverflowPolicy.valueOf(overflowPolicyObj.toString().trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring invalid overflow policy '{}' - value must be one of GROW, BLOCK, DROP_OLDEST, "
+                        + "COALESCE",
+                        overflowPolicyObj);
+            }
+        }
+
+        timeout = SafeMethodCaller.DEFAULT_TIMEOUT;
+        Object timeoutObj = properties.get(TIMEOUT_PROPERTY);
+        if (timeoutObj != null) {
+            try {
+                timeout = Long.parseLong(timeoutObj.toString());
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid timeout '{}' - value must be an integer", timeoutObj);
+            }
+        }
+
+        for (EventSubscriberQueue eventSubscriberQueue : eventSubscriberQueues.values()) {
+            eventSubscriberQueue.configure(queueSize, overflowPolicy, timeout);
+        }
+    }
+
     protected void setEventAdmin(EventAdmin eventAdmin) {
         this.osgiEventAdmin = eventAdmin;
     }
@@ -143,7 +264,12 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
             String topicStr = (String) topicObj;
             String sourceStr = (sourceObj instanceof String) ? (String) sourceObj : null;
             if (!typeStr.isEmpty() && !payloadStr.isEmpty() && !topicStr.isEmpty()) {
-                handleEvent(typeStr, payloadStr, topicStr, sourceStr);
+                Object eventObj = osgiEvent.getProperty(EVENT_INSTANCE_PROPERTY);
+                if (eventObj instanceof Event) {
+                    handleEvent(typeStr, (Event) eventObj);
+                } else {
+                    handleEvent(typeStr, payloadStr, topicStr, sourceStr);
+                }
             }
         } else {
             logger.error(
@@ -157,6 +283,7 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
 
         if (eventFactory != null) {
             Set<EventSubscriber> eventSubscribers = getEventSubscribers(type);
+            countRoutedEvent(type, eventSubscribers.size());
             if (!eventSubscribers.isEmpty()) {
                 Event eshEvent = createESHEvent(eventFactory, type, payload, topic, source);
                 if (eshEvent != null) {
@@ -168,6 +295,20 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
         }
     }
 
+    private void handleEvent(final String type, final Event event) {
+        // the factory is not needed to create the event, but it must be available to keep the dispatching consistent
+        // with the deserializing mode
+        if (typedEventFactories.containsKey(type)) {
+            Set<EventSubscriber> eventSubscribers = getEventSubscribers(type);
+            countRoutedEvent(type, eventSubscribers.size());
+            if (!eventSubscribers.isEmpty()) {
+                dispatchESHEvent(eventSubscribers, event);
+            }
+        } else {
+            logger.warn("Could not find an Event Factory for the event type '" + type + "'.");
+        }
+    }
+
     private Event createESHEvent(final EventFactory eventFactory, final String type, final String payload,
             final String topic, final String source) {
         Event eshEvent = null;
@@ -185,18 +326,11 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
             try {
                 EventFilter filter = eventSubscriber.getEventFilter();
                 if (filter == null || filter.apply(event)) {
-                    SafeMethodCaller.call(new ActionWithException<Void>() {
-
-                        @Override
-                        public Void call() throws Exception {
-                            eventSubscriber.receive(event);
-                            return null;
-                        }
-                    });
+                    EventSubscriberQueue eventSubscriberQueue = eventSubscriberQueues.get(eventSubscriber);
+                    if (eventSubscriberQueue != null) {
+                        eventSubscriberQueue.enqueue(event);
+                    }
                 }
-            } catch (TimeoutException timeoutException) {
-                logger.warn("Dispatching event to subscriber '{}' takes more than {}ms.", eventSubscriber.toString(),
-                        SafeMethodCaller.DEFAULT_TIMEOUT);
             } catch (Throwable t) {
                 logger.error("Dispatching/filtering event for subscriber '" + EventSubscriber.class.getName()
                         + "' failed: " + t.getMessage(), t);
@@ -205,17 +339,65 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
     }
 
     private Set<EventSubscriber> getEventSubscribers(String eventType) {
-        Set<EventSubscriber> eventTypeSubscribers = typedEventSubscribers.get(eventType);
-        Set<EventSubscriber> allEventTypeSubscribers = typedEventSubscribers.get(EventSubscriber.ALL_EVENT_TYPES);
+        Set<EventSubscriber> subscribers = eventSubscriberRoutes.get(eventType);
+        return subscribers != null ? subscribers : allEventTypesSubscriberRoute;
+    }
 
-        Set<EventSubscriber> subscribers = new HashSet<EventSubscriber>();
-        if (eventTypeSubscribers != null) {
-            subscribers.addAll(eventTypeSubscribers);
+    private void countRoutedEvent(String eventType, int subscriberCount) {
+        getCounter(routedEventCounts, eventType).incrementAndGet();
+        if (subscriberCount > 0) {
+            getCounter(deliveredEventCounts, eventType).addAndGet(subscriberCount);
         }
-        if (allEventTypeSubscribers != null) {
-            subscribers.addAll(allEventTypeSubscribers);
+    }
+
+    private AtomicLong getCounter(ConcurrentMap<String, AtomicLong> counters, String eventType) {
+        AtomicLong counter = counters.get(eventType);
+        if (counter == null) {
+            AtomicLong newCounter = new AtomicLong();
+            counter = counters.putIfAbsent(eventType, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Returns the number of events, which have been routed to the subscribers, per event type.
+     *
+     * @return the number of routed events per event type (not null)
+     */
+    public Map<String, Long> getRoutedEventCounts() {
+        return toSnapshot(routedEventCounts);
+    }
+
+    /**
+     * Returns the number of events, which have been handed over to subscribers, per event type. In relation to
+     * {@link #getRoutedEventCounts()} it shows the fan-out of each event type. Events which are rejected by the
+     * {@link EventFilter} of a subscriber are included.
+     *
+     * @return the number of deliveries per event type (not null)
+     */
+    public Map<String, Long> getDeliveredEventCounts() {
+        return toSnapshot(deliveredEventCounts);
+    }
+
+    /**
+     * Returns the delivery queues of all subscribers, which provide the current queue size, the lag and the number of
+     * dropped, coalesced and timed out deliveries per subscriber.
+     *
+     * @return the delivery queues of all subscribers (not null)
+     */
+    public Collection<EventSubscriberQueue> getEventSubscriberQueues() {
+        return Collections.unmodifiableCollection(eventSubscriberQueues.values());
+    }
+
+    private Map<String, Long> toSnapshot(Map<String, AtomicLong> counters) {
+        Map<String, Long> snapshot = new HashMap<String, Long>();
+        for (Entry<String, AtomicLong> entry : counters.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().get());
         }
-        return subscribers;
+        return Collections.unmodifiableMap(snapshot);
     }
 
     @Override
@@ -223,21 +405,25 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
         EventAdmin eventAdmin = this.osgiEventAdmin;
         assertValidArgument(event);
         assertValidState(eventAdmin);
-        postAsOSGiEvent(eventAdmin, event);
+        postAsOSGiEvent(eventAdmin, event, directDispatch);
     }
 
-    private void postAsOSGiEvent(final EventAdmin eventAdmin, final Event event) throws IllegalStateException {
+    private void postAsOSGiEvent(final EventAdmin eventAdmin, final Event event, final boolean attachEventInstance)
+            throws IllegalStateException {
         try {
             AccessController.doPrivileged(new PrivilegedExceptionAction<Void>() {
                 @Override
                 public Void run() throws Exception {
-                    Dictionary<String, Object> properties = new Hashtable<String, Object>(3);
+                    Dictionary<String, Object> properties = new Hashtable<String, Object>(5);
                     properties.put("type", event.getType());
                     properties.put("payload", event.getPayload());
                     properties.put("topic", event.getTopic());
                     if (event.getSource() != null) {
                         properties.put("source", event.getSource());
                     }
+                    if (attachEventInstance) {
+                        properties.put(EVENT_INSTANCE_PROPERTY, event);
+                    }
                     eventAdmin.postEvent(new org.osgi.service.event.Event("smarthome", properties));
                     return null;
                 }
@@ -267,21 +453,49 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
     private void addEventSubscriber(EventSubscriber eventSubscriber) {
         Set<String> subscribedEventTypes = eventSubscriber.getSubscribedEventTypes();
 
-        for (String subscribedEventType : subscribedEventTypes) {
-            synchronized (this) {
-                if (!typedEventSubscribers.containsEntry(subscribedEventType, eventSubscriber)) {
-                    typedEventSubscribers.put(subscribedEventType, eventSubscriber);
-                }
+        synchronized (typedEventSubscribers) {
+            if (!eventSubscriberQueues.containsKey(eventSubscriber)) {
+                eventSubscriberQueues.put(eventSubscriber,
+                        new EventSubscriberQueue(eventSubscriber, ThreadPoolManager.getPool(THREAD_POOL_NAME),
+                                ThreadPoolManager.getScheduledPool(TIMEOUT_POOL_NAME), queueSize, overflowPolicy,
+                                timeout));
             }
+            for (String subscribedEventType : subscribedEventTypes) {
+                typedEventSubscribers.put(subscribedEventType, eventSubscriber);
+            }
+            rebuildEventSubscriberRoutes();
         }
     }
 
     private void removeEventSubscriber(EventSubscriber eventSubscriber) {
         Set<String> subscribedEventTypes = eventSubscriber.getSubscribedEventTypes();
 
-        for (String subscribedEventType : subscribedEventTypes) {
-            typedEventSubscribers.remove(subscribedEventType, eventSubscriber);
+        synchronized (typedEventSubscribers) {
+            for (String subscribedEventType : subscribedEventTypes) {
+                typedEventSubscribers.remove(subscribedEventType, eventSubscriber);
+            }
+            rebuildEventSubscriberRoutes();
+            EventSubscriberQueue eventSubscriberQueue = eventSubscriberQueues.remove(eventSubscriber);
+            if (eventSubscriberQueue != null) {
+                eventSubscriberQueue.close();
+            }
         }
     }
 
+    private void rebuildEventSubscriberRoutes() {
+        Set<EventSubscriber> allEventTypesSubscribers = ImmutableSet
+                .copyOf(typedEventSubscribers.get(EventSubscriber.ALL_EVENT_TYPES));
+
+        ImmutableMap.Builder<String, Set<EventSubscriber>> routes = ImmutableMap.builder();
+        for (String eventType : typedEventSubscribers.keySet()) {
+            if (!EventSubscriber.ALL_EVENT_TYPES.equals(eventType)) {
+                routes.put(eventType, ImmutableSet.<EventSubscriber> builder()
+                        .addAll(typedEventSubscribers.get(eventType)).addAll(allEventTypesSubscribers).build());
+            }
+        }
+
+        eventSubscriberRoutes = routes.build();
+        allEventTypesSubscriberRoute = allEventTypesSubscribers;
+    }
+
 }
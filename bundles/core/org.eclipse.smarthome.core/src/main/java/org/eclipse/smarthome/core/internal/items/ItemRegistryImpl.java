@@ -13,13 +13,16 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.smarthome.core.common.registry.AbstractRegistry;
-import org.eclipse.smarthome.core.common.registry.Provider;
 import org.eclipse.smarthome.core.common.registry.RegistryChangeListener;
 import org.eclipse.smarthome.core.events.EventPublisher;
 import org.eclipse.smarthome.core.items.GenericItem;
@@ -64,6 +67,8 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
 
     private Map<String, Integer> stateDescriptionProviderRanking = new ConcurrentHashMap<>();
 
+    private final ConcurrentMap<String, Map<String, Item>> itemsByType = new ConcurrentHashMap<>();
+
     public ItemRegistryImpl() {
         super(ItemProvider.class);
     }
@@ -94,13 +99,16 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
         Collection<Item> providedItems = provider.getAll();
         List<Item> items = new CopyOnWriteArrayList<Item>();
         elementMap.put(provider, items);
+        boolean changed = false;
         for (Item item : providedItems) {
             Item oldItem = oldItemsMap.get(item.getName());
             if (oldItem == null) {
                 // it is a new item
+                changed = true;
                 try {
                     onAddElement(item);
                     items.add(item);
+                    addToIndex(item);
                     for (RegistryChangeListener<Item> listener : listeners) {
                         listener.added(item);
                     }
@@ -109,9 +117,11 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
                 }
             } else if (!oldItem.equals(item)) {
                 // it is a modified item
+                changed = true;
                 try {
                     onAddElement(item);
                     items.add(item);
+                    addToIndex(item);
                     for (RegistryChangeListener<Item> listener : listeners) {
                         listener.updated(oldItem, item);
                     }
@@ -121,10 +131,26 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
             } else {
                 // it has not been modified, so keep the old instance
                 items.add(oldItem);
+                addToIndex(oldItem);
             }
             oldItemsMap.remove(item.getName());
         }
 
+        // remove all old items, which have not been kept, from the index
+        if (oldItems != null) {
+            Set<Item> keptItems = Collections.newSetFromMap(new IdentityHashMap<Item, Boolean>());
+            keptItems.addAll(items);
+            for (Item oldItem : oldItems) {
+                if (!keptItems.contains(oldItem)) {
+                    removeFromIndex(oldItem);
+                }
+            }
+        }
+
+        if (changed || !oldItemsMap.isEmpty()) {
+            increaseVersion();
+        }
+
         // send a remove notification for all remaining old items
         for (Item removedItem : oldItemsMap.values()) {
             for (RegistryChangeListener<Item> listener : listeners) {
@@ -153,14 +179,45 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
 
     @Override
     public Item get(final String itemName) {
-        for (final Map.Entry<Provider<Item>, Collection<Item>> entry : elementMap.entrySet()) {
-            for (final Item item : entry.getValue()) {
-                if (itemName.equals(item.getName())) {
-                    return item;
+        return getByKey(itemName);
+    }
+
+    @Override
+    protected String getKey(Item element) {
+        return element.getName();
+    }
+
+    @Override
+    protected void addToIndex(Item element) {
+        super.addToIndex(element);
+        Map<String, Item> items = itemsByType.get(element.getType());
+        if (items == null) {
+            // keep the registration order of the items
+            Map<String, Item> newItems = Collections.synchronizedMap(new LinkedHashMap<String, Item>());
+            items = itemsByType.putIfAbsent(element.getType(), newItems);
+            if (items == null) {
+                items = newItems;
+            }
+        }
+        items.put(element.getName(), element);
+    }
+
+    @Override
+    protected void removeFromIndex(Item element) {
+        super.removeFromIndex(element);
+        Map<String, Item> items = itemsByType.get(element.getType());
+        if (items != null) {
+            synchronized (items) {
+                if (items.get(element.getName()) == element) {
+                    items.remove(element.getName());
+                    // another provider might still provide an item with the same name
+                    Item item = get(element.getName());
+                    if (item != null && element.getType().equals(item.getType())) {
+                        items.put(item.getName(), item);
+                    }
                 }
             }
         }
-        return null;
     }
 
     /*
@@ -198,15 +255,13 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
 
     @Override
     public Collection<Item> getItemsOfType(String type) {
-        Collection<Item> matchedItems = new ArrayList<Item>();
-
-        for (Item item : getItems()) {
-            if (item.getType().equals(type)) {
-                matchedItems.add(item);
-            }
+        Map<String, Item> items = itemsByType.get(type);
+        if (items == null) {
+            return new ArrayList<Item>();
+        }
+        synchronized (items) {
+            return new ArrayList<Item>(items.values());
         }
-
-        return matchedItems;
     }
 
     /*
@@ -221,7 +276,7 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
         String regex = pattern.replace("?", ".?").replace("*", ".*?");
         Collection<Item> matchedItems = new ArrayList<Item>();
 
-        for (Item item : getItems()) {
+        for (Item item : getAllView()) {
             if (item.getName().matches(regex)) {
                 matchedItems.add(item);
             }
@@ -271,7 +326,7 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
     }
 
     private void addMembersToGroupItem(GroupItem groupItem) {
-        for (Item i : getItems()) {
+        for (Item i : getAllView()) {
             if (i.getGroupNames().contains(groupItem.getName())) {
                 groupItem.addMember(i);
             }
@@ -313,7 +368,7 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
     @Override
     protected void setEventPublisher(EventPublisher eventPublisher) {
         super.setEventPublisher(eventPublisher);
-        for (Item item : getItems()) {
+        for (Item item : getAllView()) {
             ((GenericItem) item).setEventPublisher(eventPublisher);
         }
     }
@@ -321,15 +376,16 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String, ItemProvide
     @Override
     protected void unsetEventPublisher(EventPublisher eventPublisher) {
         super.unsetEventPublisher(eventPublisher);
-        for (Item item : getItems()) {
+        for (Item item : getAllView()) {
             ((GenericItem) item).setEventPublisher(null);
         }
     }
 
     @Override
     public Collection<Item> getItemsByTag(String... tags) {
+        // tags can be changed at runtime, so they are not indexed, but the items are not copied for the lookup
         List<Item> filteredItems = new ArrayList<Item>();
-        for (Item item : getItems()) {
+        for (Item item : getAllView()) {
             if (itemHasTags(item, tags)) {
                 filteredItems.add(item);
             }
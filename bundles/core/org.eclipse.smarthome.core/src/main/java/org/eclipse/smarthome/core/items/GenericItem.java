@@ -17,9 +17,8 @@ import java.util.Locale;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.events.EventPublisher;
 import org.eclipse.smarthome.core.items.events.ItemEventFactory;
 import org.eclipse.smarthome.core.types.Command;
@@ -28,10 +27,9 @@ import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.StateDescription;
 import org.eclipse.smarthome.core.types.StateDescriptionProvider;
 import org.eclipse.smarthome.core.types.UnDefType;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Joiner;
+import com.google.common.base.Objects;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
@@ -47,15 +45,16 @@ import com.google.common.collect.ImmutableSet;
  */
 abstract public class GenericItem implements ActiveItem {
 
-    private final Logger logger = LoggerFactory.getLogger(GenericItem.class);
-
-    private static final String ITEM_THREADPOOLNAME = "items";
+    /* the state generation, which is shared by all items and increased whenever the state of any item changes */
+    private static final AtomicLong STATE_GENERATIONS = new AtomicLong();
 
     protected EventPublisher eventPublisher;
 
     protected Set<StateChangeListener> listeners = new CopyOnWriteArraySet<StateChangeListener>(
             Collections.newSetFromMap(new WeakHashMap<StateChangeListener, Boolean>()));
 
+    private final StateChangeNotifier stateChangeNotifier = new StateChangeNotifier(this);
+
     protected List<String> groupNames = new ArrayList<String>();
 
     protected Set<String> tags = new HashSet<String>();
@@ -191,6 +190,16 @@ abstract public class GenericItem implements ActiveItem {
         }
     }
 
+    /**
+     * Returns the latest state generation of all items. It is increased whenever the state of any item changes, so a
+     * client can detect state changes of a set of items without looking at each of them.
+     *
+     * @return the latest state generation, 0 if no state has been changed yet
+     */
+    public static long getLatestStateGeneration() {
+        return STATE_GENERATIONS.get();
+    }
+
     /**
      * Sets new state, notifies listeners and sends events.
      *
@@ -216,26 +225,20 @@ abstract public class GenericItem implements ActiveItem {
         internalSend(command);
     }
 
+    /**
+     * Notifies the listeners about a state update and increases the state generation, if the state has changed. The
+     * notifications of this item are delivered asynchronously, but in the order in which the updates have been
+     * applied.
+     *
+     * @param oldState the previous state
+     * @param newState the new state
+     */
     protected void notifyListeners(final State oldState, final State newState) {
-        // if nothing has changed, we send update notifications
-        Set<StateChangeListener> clonedListeners = null;
-        clonedListeners = new CopyOnWriteArraySet<StateChangeListener>(listeners);
-        ExecutorService pool = ThreadPoolManager.getPool(ITEM_THREADPOOLNAME);
-        for (final StateChangeListener listener : clonedListeners) {
-            pool.execute(new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        listener.stateUpdated(GenericItem.this, newState);
-                        if (newState != null && !newState.equals(oldState)) {
-                            listener.stateChanged(GenericItem.this, oldState, newState);
-                        }
-                    } catch (Exception e) {
-                        logger.warn("failed notifying listener '{}' about state update of item {}: {}",
-                                new Object[] { listener.toString(), GenericItem.this.getName(), e.getMessage() }, e);
-                    }
-                }
-            });
+        if (!Objects.equal(oldState, newState)) {
+            STATE_GENERATIONS.incrementAndGet();
+        }
+        if (!listeners.isEmpty()) {
+            stateChangeNotifier.enqueue(oldState, newState);
         }
     }
 
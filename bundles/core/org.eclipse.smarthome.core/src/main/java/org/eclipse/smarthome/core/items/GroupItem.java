@@ -35,6 +35,13 @@ public class GroupItem extends GenericItem implements StateChangeListener {
 
     protected GroupFunction function;
 
+    private final Object aggregationLock = new Object();
+
+    /**
+     * the intermediate result of an {@link IncrementalGroupFunction}, null if it must be calculated from all members
+     */
+    private IncrementalGroupFunction.Aggregation aggregation;
+
     public GroupItem(String name) {
         this(name, null);
     }
@@ -114,6 +121,7 @@ public class GroupItem extends GenericItem implements StateChangeListener {
             throw new IllegalArgumentException("Item must not be null!");
         }
         members.add(item);
+        invalidateAggregation();
         if (item instanceof GenericItem) {
             GenericItem genericItem = (GenericItem) item;
             genericItem.addStateChangeListener(this);
@@ -131,6 +139,7 @@ public class GroupItem extends GenericItem implements StateChangeListener {
             throw new IllegalArgumentException("Item must not be null!");
         }
         members.remove(item);
+        invalidateAggregation();
         if (item instanceof GenericItem) {
             GenericItem genericItem = (GenericItem) item;
             genericItem.removeStateChangeListener(this);
@@ -286,12 +295,39 @@ public class GroupItem extends GenericItem implements StateChangeListener {
     @Override
     public void stateUpdated(Item item, State state) {
         State oldState = this.state;
-        setState(function.calculate(members));
+        setState(calculateState(item));
         if (!oldState.equals(this.state)) {
             sendGroupStateChangedEvent(item.getName(), this.state, oldState);
         }
     }
 
+    /**
+     * Calculates the group state after the state of the given member has been updated. If the group function is an
+     * {@link IncrementalGroupFunction}, only the state of the given member is applied to the current aggregation. The
+     * aggregation is calculated from all members if the members of the group have changed.
+     *
+     * @param member the member whose state has been updated
+     * @return the calculated group state
+     */
+    private State calculateState(Item member) {
+        if (function instanceof IncrementalGroupFunction) {
+            synchronized (aggregationLock) {
+                if (aggregation == null || !aggregation.update(member)) {
+                    aggregation = ((IncrementalGroupFunction) function).createAggregation(members);
+                }
+                return aggregation.getState();
+            }
+        } else {
+            return function.calculate(members);
+        }
+    }
+
+    private void invalidateAggregation() {
+        synchronized (aggregationLock) {
+            aggregation = null;
+        }
+    }
+
     @Override
     public void setState(State state) {
         State oldState = this.state;
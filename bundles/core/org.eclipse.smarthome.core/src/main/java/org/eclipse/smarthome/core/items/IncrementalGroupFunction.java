@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.items;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.smarthome.core.types.State;
+
+/**
+ * An {@link IncrementalGroupFunction} is a {@link GroupFunction}, which is able to update the group state if the
+ * state of a single member changes, without walking over all members again.
+ *
+ * A {@link GroupItem} creates an {@link Aggregation} from all of its members once and afterwards only passes the
+ * members with a changed state to it. If the members of the group change, the aggregation is created again.
+ *
+ * @author agent - Initial contribution and API
+ *
+ */
+public interface IncrementalGroupFunction extends GroupFunction {
+
+    /**
+     * Creates a new aggregation for the given items. The result of {@link Aggregation#getState()} must be equal to
+     * the result of {@link #calculate(Set)} for the same items.
+     *
+     * @param items the items to calculate a group state for
+     * @return the aggregation
+     */
+    Aggregation createAggregation(Set<Item> items);
+
+    /**
+     * An {@link Aggregation} holds the intermediate results of an {@link IncrementalGroupFunction} for a set of
+     * items. It is not thread-safe.
+     */
+    interface Aggregation {
+
+        /**
+         * Updates the aggregation with the current state of the given item.
+         *
+         * @param item the item whose state has changed
+         * @return true if the aggregation has been updated, false if the item is not part of the aggregation
+         */
+        boolean update(Item item);
+
+        /**
+         * Returns the group state for the aggregated items.
+         *
+         * @return the calculated group state
+         */
+        State getState();
+    }
+
+    /**
+     * Base class for {@link Aggregation}s, which remembers the contribution of each item, so that the previous
+     * contribution can be removed from the intermediate result when the state of an item changes.
+     *
+     * @param <C> the type of the contribution of a single item
+     */
+    abstract class MemberAggregation<C> implements Aggregation {
+
+        private final Map<Item, C> contributions = new IdentityHashMap<>();
+
+        /**
+         * Adds the contributions of all given items. Must be called once after construction.
+         *
+         * @param items the items to aggregate
+         * @return this aggregation
+         */
+        public MemberAggregation<C> init(Set<Item> items) {
+            if (items != null) {
+                for (Item item : items) {
+                    C contribution = getContribution(item);
+                    contributions.put(item, contribution);
+                    add(contribution);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public boolean update(Item item) {
+            if (!contributions.containsKey(item)) {
+                return false;
+            }
+            C newContribution = getContribution(item);
+            C oldContribution = contributions.put(item, newContribution);
+            remove(oldContribution);
+            add(newContribution);
+            return true;
+        }
+
+        /**
+         * Returns the number of aggregated items.
+         *
+         * @return the number of items
+         */
+        protected int size() {
+            return contributions.size();
+        }
+
+        /**
+         * Determines the contribution of the given item based on its current state.
+         *
+         * @param item the item
+         * @return the contribution, can be null
+         */
+        protected abstract C getContribution(Item item);
+
+        /**
+         * Adds a contribution to the intermediate result.
+         *
+         * @param contribution the contribution, can be null
+         */
+        protected abstract void add(C contribution);
+
+        /**
+         * Removes a previously added contribution from the intermediate result.
+         *
+         * @param contribution the contribution, can be null
+         */
+        protected abstract void remove(C contribution);
+    }
+
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.items;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.eclipse.smarthome.core.types.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link StateChangeNotifier} delivers the state notifications of a single {@link GenericItem} to its
+ * {@link StateChangeListener}s. The notifications are delivered by the shared "items" thread pool, but at most one
+ * delivery task per item is active at the same time. Thus the listeners always receive the updates of an item in the
+ * order in which they have been applied.
+ *
+ * If the listeners of an item fall behind and more than {@link #MAX_PENDING_NOTIFICATIONS} notifications are pending,
+ * new notifications are coalesced with the latest pending one, i.e. the listeners are only informed about the most
+ * recent state. A notification is not coalesced, if this would cancel a change, e.g. a change from A to B followed by
+ * a change back to A, as the listeners would not be informed about any change then.
+ *
+ * The static methods of this class provide metrics about the notifications of all items.
+ *
+ * @author agent - Initial contribution and API
+ */
+public final class StateChangeNotifier {
+
+    /** the maximum number of pending notifications per item, before notifications are coalesced */
+    public static final int MAX_PENDING_NOTIFICATIONS = 16;
+
+    /** maximum number of notifications delivered by one task before the thread is handed over to other items */
+    private static final int MAX_DELIVERIES_PER_TASK = 64;
+
+    private static final String ITEM_THREADPOOLNAME = "items";
+
+    private static final AtomicInteger pendingNotifications = new AtomicInteger();
+
+    private static final AtomicInteger maxPendingNotifications = new AtomicInteger();
+
+    private static final AtomicLong coalescedNotifications = new AtomicLong();
+
+    private static class Notification {
+        private final State oldState;
+        private State newState;
+
+        private Notification(State oldState, State newState) {
+            this.oldState = oldState;
+            this.newState = newState;
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(StateChangeNotifier.class);
+
+    private final GenericItem item;
+
+    private final ArrayDeque<Notification> queue = new ArrayDeque<>();
+
+    private final Runnable deliveryTask = new Runnable() {
+        @Override
+        public void run() {
+            deliverPendingNotifications();
+        }
+    };
+
+    private boolean deliveryScheduled = false;
+
+    StateChangeNotifier(GenericItem item) {
+        this.item = item;
+    }
+
+    /**
+     * Queues a notification about a state update and schedules its delivery.
+     *
+     * @param oldState the previous state of the item
+     * @param newState the new state of the item
+     */
+    void enqueue(State oldState, State newState) {
+        synchronized (this) {
+            Notification lastNotification = queue.peekLast();
+            if (lastNotification != null && queue.size() >= MAX_PENDING_NOTIFICATIONS
+                    && canCoalesce(lastNotification, oldState, newState)) {
+                lastNotification.newState = newState;
+                coalescedNotifications.incrementAndGet();
+            } else {
+                queue.add(new Notification(oldState, newState));
+                updateMaxPendingNotifications(pendingNotifications.incrementAndGet());
+            }
+            if (!deliveryScheduled) {
+                deliveryScheduled = true;
+                ThreadPoolManager.getPool(ITEM_THREADPOOLNAME).execute(deliveryTask);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a notification can be merged into a pending one. The merged notification must still report a
+     * change, if any of both does.
+     */
+    private static boolean canCoalesce(Notification notification, State oldState, State newState) {
+        return isChange(notification.oldState, newState)
+                || !(isChange(notification.oldState, notification.newState) || isChange(oldState, newState));
+    }
+
+    private static boolean isChange(State oldState, State newState) {
+        return newState != null && !newState.equals(oldState);
+    }
+
+    /**
+     * Returns the number of notifications of this item, which have not been delivered yet.
+     *
+     * @return the number of pending notifications
+     */
+    synchronized int getSize() {
+        return queue.size();
+    }
+
+    private void deliverPendingNotifications() {
+        for (int i = 0; i < MAX_DELIVERIES_PER_TASK; i++) {
+            Notification notification;
+            synchronized (this) {
+                notification = queue.poll();
+                if (notification == null) {
+                    deliveryScheduled = false;
+                    return;
+                }
+                pendingNotifications.decrementAndGet();
+            }
+            deliver(notification.oldState, notification.newState);
+        }
+        synchronized (this) {
+            if (queue.isEmpty()) {
+                deliveryScheduled = false;
+            } else {
+                ThreadPoolManager.getPool(ITEM_THREADPOOLNAME).execute(deliveryTask);
+            }
+        }
+    }
+
+    private void deliver(State oldState, State newState) {
+        // the listeners are held in a copy-on-write set, so iterating over it works on a snapshot
+        for (StateChangeListener listener : item.listeners) {
+            try {
+                listener.stateUpdated(item, newState);
+                if (isChange(oldState, newState)) {
+                    listener.stateChanged(item, oldState, newState);
+                }
+            } catch (Exception e) {
+                logger.warn("failed notifying listener '{}' about state update of item {}: {}",
+                        new Object[] { listener.toString(), item.getName(), e.getMessage() }, e);
+            }
+        }
+    }
+
+    private static void updateMaxPendingNotifications(int pending) {
+        int max = maxPendingNotifications.get();
+        while (pending > max && !maxPendingNotifications.compareAndSet(max, pending)) {
+            max = maxPendingNotifications.get();
+        }
+    }
+
+    /**
+     * Returns the number of state notifications of all items, which have not been delivered yet.
+     *
+     * @return the number of pending notifications
+     */
+    public static int getPendingNotifications() {
+        return pendingNotifications.get();
+    }
+
+    /**
+     * Returns the highest number of pending state notifications of all items that has been observed so far.
+     *
+     * @return the maximum number of pending notifications
+     */
+    public static int getMaxPendingNotifications() {
+        return maxPendingNotifications.get();
+    }
+
+    /**
+     * Returns the number of state notifications, which have been merged into a pending notification because the
+     * listeners of an item fell behind.
+     *
+     * @return the number of coalesced notifications
+     */
+    public static long getCoalescedNotifications() {
+        return coalescedNotifications.get();
+    }
+
+}
@@ -14,6 +14,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.eclipse.smarthome.core.items.GroupFunction;
+import org.eclipse.smarthome.core.items.IncrementalGroupFunction;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.UnDefType;
@@ -22,6 +23,9 @@ import org.eclipse.smarthome.core.types.UnDefType;
  * This interface is only a container for functions that require the core type library
  * for its calculations.
  *
+ * All functions are {@link IncrementalGroupFunction}s, so a group only needs to apply the state change of a single
+ * member instead of recalculating its state from all members.
+ *
  * @author Kai Kreuzer - Initial contribution and API
  * @author Thomas Eichstädt-Engelen - Added "N" functions
  * @author Gaël L'hopital - Added count function
@@ -36,7 +40,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * Through the getStateAs() method, it can be determined, how many
      * items actually are not in the 'activeState'.
      */
-    static class And implements GroupFunction {
+    static class And implements IncrementalGroupFunction {
 
         protected final State activeState;
         protected final State passiveState;
@@ -64,6 +68,48 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             }
         }
 
+        @Override
+        public Aggregation createAggregation(Set<Item> items) {
+            return new MemberAggregation<Boolean>() {
+                private int activeCount = 0;
+
+                @Override
+                protected Boolean getContribution(Item item) {
+                    return activeState.equals(item.getStateAs(activeState.getClass()));
+                }
+
+                @Override
+                protected void add(Boolean active) {
+                    if (active) {
+                        activeCount++;
+                    }
+                }
+
+                @Override
+                protected void remove(Boolean active) {
+                    if (active) {
+                        activeCount--;
+                    }
+                }
+
+                @Override
+                public State getState() {
+                    return calculate(activeCount, size());
+                }
+            }.init(items);
+        }
+
+        /**
+         * Determines the group state from the number of items in the 'activeState'.
+         *
+         * @param activeCount the number of items in the 'activeState'
+         * @param count the number of all items
+         * @return the calculated group state
+         */
+        protected State calculate(int activeCount, int count) {
+            return count > 0 && activeCount == count ? activeState : passiveState;
+        }
+
         @Override
         public State getStateAs(Set<Item> items, Class<? extends State> stateClass) {
             State state = calculate(items);
@@ -108,7 +154,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * Through the getStateAs() method, it can be determined, how many
      * items actually are in the 'activeState'.
      */
-    static class Or implements GroupFunction {
+    static class Or implements IncrementalGroupFunction {
 
         protected final State activeState;
         protected final State passiveState;
@@ -133,6 +179,48 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return passiveState;
         }
 
+        @Override
+        public Aggregation createAggregation(Set<Item> items) {
+            return new MemberAggregation<Boolean>() {
+                private int activeCount = 0;
+
+                @Override
+                protected Boolean getContribution(Item item) {
+                    return activeState.equals(item.getStateAs(activeState.getClass()));
+                }
+
+                @Override
+                protected void add(Boolean active) {
+                    if (active) {
+                        activeCount++;
+                    }
+                }
+
+                @Override
+                protected void remove(Boolean active) {
+                    if (active) {
+                        activeCount--;
+                    }
+                }
+
+                @Override
+                public State getState() {
+                    return calculate(activeCount, size());
+                }
+            }.init(items);
+        }
+
+        /**
+         * Determines the group state from the number of items in the 'activeState'.
+         *
+         * @param activeCount the number of items in the 'activeState'
+         * @param count the number of all items
+         * @return the calculated group state
+         */
+        protected State calculate(int activeCount, int count) {
+            return activeCount > 0 ? activeState : passiveState;
+        }
+
         @Override
         public State getStateAs(Set<Item> items, Class<? extends State> stateClass) {
             State state = calculate(items);
@@ -184,6 +272,12 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return notResult;
         }
 
+        @Override
+        protected State calculate(int activeCount, int count) {
+            State result = super.calculate(activeCount, count);
+            return result.equals(activeState) ? passiveState : activeState;
+        }
+
     }
 
     /**
@@ -205,12 +299,18 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return notResult;
         }
 
+        @Override
+        protected State calculate(int activeCount, int count) {
+            State result = super.calculate(activeCount, count);
+            return result.equals(activeState) ? passiveState : activeState;
+        }
+
     }
 
     /**
      * This calculates the numeric average over all item states of decimal type.
      */
-    static class Avg implements GroupFunction {
+    static class Avg implements IncrementalGroupFunction {
 
         public Avg() {
         }
@@ -238,6 +338,20 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             }
         }
 
+        @Override
+        public Aggregation createAggregation(Set<Item> items) {
+            return new DecimalSumAggregation() {
+                @Override
+                public State getState() {
+                    if (getCount() > 0) {
+                        return new DecimalType(getSum().divide(new BigDecimal(getCount()), RoundingMode.HALF_UP));
+                    } else {
+                        return UnDefType.UNDEF;
+                    }
+                }
+            }.init(items);
+        }
+
         /**
          * @{inheritDoc
          */
@@ -260,7 +374,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
     /**
      * This calculates the numeric sum over all item states of decimal type.
      */
-    static class Sum implements GroupFunction {
+    static class Sum implements IncrementalGroupFunction {
 
         public Sum() {
         }
@@ -279,6 +393,16 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return new DecimalType(sum);
         }
 
+        @Override
+        public Aggregation createAggregation(Set<Item> items) {
+            return new DecimalSumAggregation() {
+                @Override
+                public State getState() {
+                    return new DecimalType(getSum());
+                }
+            }.init(items);
+        }
+
         @Override
         public State getStateAs(Set<Item> items, Class<? extends State> stateClass) {
             State state = calculate(items);
@@ -298,7 +422,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
     /**
      * This calculates the minimum value of all item states of decimal type.
      */
-    static class Min implements GroupFunction {
+    static class Min implements IncrementalGroupFunction {
 
         public Min() {
         }
@@ -322,6 +446,11 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return UnDefType.UNDEF;
         }
 
+        @Override
+        public Aggregation createAggregation(Set<Item> items) {
+            return new DecimalExtremumAggregation(false).init(items);
+        }
+
         @Override
         public State getStateAs(Set<Item> items, Class<? extends State> stateClass) {
             State state = calculate(items);
@@ -341,7 +470,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
     /**
      * This calculates the maximum value of all item states of decimal type.
      */
-    static class Max implements GroupFunction {
+    static class Max implements IncrementalGroupFunction {
 
         public Max() {
         }
@@ -365,6 +494,11 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return UnDefType.UNDEF;
         }
 
+        @Override
+        public Aggregation createAggregation(Set<Item> items) {
+            return new DecimalExtremumAggregation(true).init(items);
+        }
+
         @Override
         public State getStateAs(Set<Item> items, Class<? extends State> stateClass) {
             State state = calculate(items);
@@ -388,7 +522,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * Group:Number:COUNT("[5-9]") will count all items having a string state between 5 and 9
      * ...
      */
-    static class Count implements GroupFunction {
+    static class Count implements IncrementalGroupFunction {
 
         protected final Pattern pattern;
 
@@ -414,6 +548,37 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return new DecimalType(count);
         }
 
+        @Override
+        public Aggregation createAggregation(Set<Item> items) {
+            return new MemberAggregation<Boolean>() {
+                private int count = 0;
+
+                @Override
+                protected Boolean getContribution(Item item) {
+                    return pattern.matcher(item.getState().toString()).matches();
+                }
+
+                @Override
+                protected void add(Boolean matches) {
+                    if (matches) {
+                        count++;
+                    }
+                }
+
+                @Override
+                protected void remove(Boolean matches) {
+                    if (matches) {
+                        count--;
+                    }
+                }
+
+                @Override
+                public State getState() {
+                    return new DecimalType(count);
+                }
+            }.init(items);
+        }
+
         @Override
         public State getStateAs(Set<Item> items, Class<? extends State> stateClass) {
             State state = calculate(items);
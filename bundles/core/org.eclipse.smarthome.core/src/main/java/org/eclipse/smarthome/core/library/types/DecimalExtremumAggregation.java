@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.library.types;
+
+import java.math.BigDecimal;
+import java.util.TreeMap;
+
+import org.eclipse.smarthome.core.items.IncrementalGroupFunction.MemberAggregation;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.UnDefType;
+
+/**
+ * Keeps all item states of decimal type in a sorted multiset, so that the minimum or the maximum value is still known
+ * if the current extreme value is removed.
+ *
+ * @author agent - Initial contribution and API
+ *
+ */
+class DecimalExtremumAggregation extends MemberAggregation<BigDecimal> {
+
+    private final TreeMap<BigDecimal, Integer> values = new TreeMap<>();
+
+    private final boolean maximum;
+
+    /**
+     * @param maximum true to calculate the maximum, false to calculate the minimum
+     */
+    DecimalExtremumAggregation(boolean maximum) {
+        this.maximum = maximum;
+    }
+
+    @Override
+    protected BigDecimal getContribution(Item item) {
+        DecimalType itemState = (DecimalType) item.getStateAs(DecimalType.class);
+        return itemState != null ? itemState.toBigDecimal() : null;
+    }
+
+    @Override
+    protected void add(BigDecimal value) {
+        if (value != null) {
+            Integer valueCount = values.get(value);
+            values.put(value, valueCount == null ? 1 : valueCount + 1);
+        }
+    }
+
+    @Override
+    protected void remove(BigDecimal value) {
+        if (value != null) {
+            Integer valueCount = values.get(value);
+            if (valueCount == null || valueCount <= 1) {
+                values.remove(value);
+            } else {
+                values.put(value, valueCount - 1);
+            }
+        }
+    }
+
+    @Override
+    public State getState() {
+        if (values.isEmpty()) {
+            return UnDefType.UNDEF;
+        }
+        return new DecimalType(maximum ? values.lastKey() : values.firstKey());
+    }
+
+}
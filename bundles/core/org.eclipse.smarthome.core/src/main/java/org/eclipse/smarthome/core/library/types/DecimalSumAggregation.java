@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.library.types;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.smarthome.core.items.IncrementalGroupFunction.MemberAggregation;
+import org.eclipse.smarthome.core.items.Item;
+
+/**
+ * Keeps the running sum and count of all item states of decimal type. The scales of the values are tracked as well,
+ * so that the sum has the same scale as a sum which is calculated from scratch.
+ *
+ * @author agent - Initial contribution and API
+ *
+ */
+abstract class DecimalSumAggregation extends MemberAggregation<BigDecimal> {
+
+    private BigDecimal sum = BigDecimal.ZERO;
+
+    private int count = 0;
+
+    private final TreeMap<Integer, Integer> scales = new TreeMap<>();
+
+    @Override
+    protected BigDecimal getContribution(Item item) {
+        DecimalType itemState = (DecimalType) item.getStateAs(DecimalType.class);
+        return itemState != null ? itemState.toBigDecimal() : null;
+    }
+
+    @Override
+    protected void add(BigDecimal value) {
+        if (value != null) {
+            sum = sum.add(value);
+            count++;
+            Integer scaleCount = scales.get(value.scale());
+            scales.put(value.scale(), scaleCount == null ? 1 : scaleCount + 1);
+        }
+    }
+
+    @Override
+    protected void remove(BigDecimal value) {
+        if (value != null) {
+            sum = sum.subtract(value);
+            count--;
+            Integer scaleCount = scales.get(value.scale());
+            if (scaleCount == null || scaleCount <= 1) {
+                scales.remove(value.scale());
+            } else {
+                scales.put(value.scale(), scaleCount - 1);
+            }
+        }
+    }
+
+    /**
+     * Returns the sum of all values with the scale it would have if all values were added to zero.
+     *
+     * @return the sum
+     */
+    protected BigDecimal getSum() {
+        Map.Entry<Integer, Integer> maxScale = scales.lastEntry();
+        int scale = maxScale != null ? Math.max(0, maxScale.getKey()) : 0;
+        return sum.setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return the number of values
+     */
+    protected int getCount() {
+        return count;
+    }
+
+}
@@ -11,14 +11,19 @@ import static org.hamcrest.CoreMatchers.*
 import static org.junit.Assert.*
 import static org.junit.matchers.JUnitMatchers.*
 
+import javax.ws.rs.core.EntityTag
+import javax.ws.rs.core.Request
 import javax.ws.rs.core.Response
 import javax.ws.rs.core.UriInfo
 import javax.ws.rs.core.Response.Status
 
 import org.eclipse.smarthome.core.items.ItemProvider
+import org.eclipse.smarthome.core.items.ItemRegistry
+import org.eclipse.smarthome.core.items.ItemsChangeListener
 import org.eclipse.smarthome.core.items.ManagedItemProvider
 import org.eclipse.smarthome.core.library.items.DimmerItem
 import org.eclipse.smarthome.core.library.items.SwitchItem
+import org.eclipse.smarthome.core.library.types.OnOffType
 import org.eclipse.smarthome.io.rest.core.item.ItemResource
 import org.eclipse.smarthome.test.OSGiTest
 import org.junit.After
@@ -49,6 +54,7 @@ class ItemResourceOSGiTest extends OSGiTest {
 
     @After
     void cleanUp() {
+        itemResource.request = null
         managedItemProvider.getAll().each {
             managedItemProvider.remove(it.name)
         }
@@ -135,6 +141,57 @@ class ItemResourceOSGiTest extends OSGiTest {
         assertThat response.status, is(Status.METHOD_NOT_ALLOWED.code)
     }
 
+    @Test
+    void 'assert getItems answers with not modified until an item changes'() {
+        managedItemProvider.add(new SwitchItem("Switch"))
+        def eTag = itemResource.getItems(null, null, null, false).entityTag
+        assertThat eTag, is(notNullValue())
+        assertThat itemResource.getItems(null, null, null, false).entityTag, is(eTag)
+
+        itemResource.request = [
+            evaluatePreconditions: { EntityTag tag ->
+                tag == eTag ? Response.notModified(tag) : null
+            }
+        ] as Request
+        assertThat itemResource.getItems(null, null, null, false).status, is(Status.NOT_MODIFIED.code)
+
+        getService(ItemRegistry).get("Switch").setState(OnOffType.ON)
+        def response = itemResource.getItems(null, null, null, false)
+        assertThat response.status, is(Status.OK.code)
+        assertThat response.entityTag, is(not(eTag))
+
+        itemResource.addTag("Switch", "MyTag")
+        assertThat itemResource.getItems(null, null, null, false).entityTag, is(not(response.entityTag))
+    }
+
+    @Test
+    void 'assert getItems answers with ok after all items of a provider changed'() {
+        def items = [new SwitchItem("Item1")]
+        def listeners = []
+        def itemProvider = [
+            getAll: { return items },
+            addProviderChangeListener: { listener -> listeners << listener },
+            removeProviderChangeListener: { listener -> listeners.remove(listener) },
+        ] as ItemProvider
+        registerService itemProvider
+        waitForAssert { assertThat listeners.isEmpty(), is(false) }
+
+        def eTag = itemResource.getItems(null, null, null, false).entityTag
+        itemResource.request = [
+            evaluatePreconditions: { EntityTag tag ->
+                tag == eTag ? Response.notModified(tag) : null
+            }
+        ] as Request
+        assertThat itemResource.getItems(null, null, null, false).status, is(Status.NOT_MODIFIED.code)
+
+        // e.g. an items file is reloaded
+        items = [new SwitchItem("Item1"), new SwitchItem("Item2")]
+        listeners.each { ((ItemsChangeListener) it).allItemsChanged(itemProvider, null) }
+        def response = itemResource.getItems(null, null, null, false)
+        assertThat response.status, is(Status.OK.code)
+        assertThat containsItems(response.entity, ["Item1", "Item2"]), is(true)
+    }
+
     private containsItems(Object entity, List<String> itemNames) {
         def allFound = true
         itemNames.each { itemName ->
@@ -7,9 +7,8 @@
  */
 package org.eclipse.smarthome.io.rest.core.discovery;
 
-import java.util.LinkedHashSet;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
@@ -35,6 +34,9 @@ import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingUID;
 import org.eclipse.smarthome.io.rest.JSONResponse;
 import org.eclipse.smarthome.io.rest.RESTResource;
+import org.eclipse.smarthome.io.rest.StreamingCollection;
+
+import com.google.common.base.Function;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -117,7 +119,7 @@ public class InboxResource implements RESTResource {
     @ApiResponses(value = { @ApiResponse(code = 200, message = "OK") })
     public Response getAll() {
         List<DiscoveryResult> discoveryResults = inbox.getAll();
-        Set<DiscoveryResultDTO> discoveryResultBeans = convertToListBean(discoveryResults);
+        Collection<DiscoveryResultDTO> discoveryResultBeans = convertToListBean(discoveryResults);
 
         return Response.ok(discoveryResultBeans).build();
     }
@@ -140,12 +142,13 @@ public class InboxResource implements RESTResource {
         return Response.ok().build();
     }
 
-    private Set<DiscoveryResultDTO> convertToListBean(List<DiscoveryResult> discoveryResults) {
-        Set<DiscoveryResultDTO> discoveryResultBeans = new LinkedHashSet<>();
-        for (DiscoveryResult discoveryResult : discoveryResults) {
-            discoveryResultBeans.add(DiscoveryResultDTOMapper.map(discoveryResult));
-        }
-        return discoveryResultBeans;
+    private Collection<DiscoveryResultDTO> convertToListBean(List<DiscoveryResult> discoveryResults) {
+        return new StreamingCollection<>(discoveryResults, new Function<DiscoveryResult, DiscoveryResultDTO>() {
+            @Override
+            public DiscoveryResultDTO apply(DiscoveryResult discoveryResult) {
+                return DiscoveryResultDTOMapper.map(discoveryResult);
+            }
+        });
     }
 
 }
@@ -7,10 +7,10 @@
  */
 package org.eclipse.smarthome.io.rest.core.item;
 
+import java.net.URI;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 
@@ -27,8 +27,10 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
@@ -53,12 +55,16 @@ import org.eclipse.smarthome.core.library.types.UpDownType;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.TypeParser;
+import org.eclipse.smarthome.io.rest.ETagUtil;
 import org.eclipse.smarthome.io.rest.JSONResponse;
 import org.eclipse.smarthome.io.rest.LocaleUtil;
 import org.eclipse.smarthome.io.rest.RESTResource;
+import org.eclipse.smarthome.io.rest.StreamingCollection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Function;
+
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -99,6 +105,9 @@ public class ItemResource implements RESTResource {
     @Context
     UriInfo uriInfo;
 
+    @Context
+    Request request;
+
     private ItemRegistry itemRegistry;
     private EventPublisher eventPublisher;
     private ManagedItemProvider managedItemProvider;
@@ -147,8 +156,18 @@ public class ItemResource implements RESTResource {
         final Locale locale = LocaleUtil.getLocale(language);
         logger.debug("Received HTTP GET request at '{}'", uriInfo.getPath());
 
+        // the latest state generation of all items, as the state of a group depends on members, which the filter
+        // might exclude
+        EntityTag eTag = ETagUtil.createETag(
+                new long[] { itemRegistry.getVersion(), GenericItem.getLatestStateGeneration() }, uriInfo.getBaseUri(),
+                locale, type, tags, recursive);
+        Response notModified = ETagUtil.evaluatePreconditions(request, eTag);
+        if (notModified != null) {
+            return notModified;
+        }
+
         Object responseObject = getItemBeans(type, tags, recursive, locale);
-        return Response.ok(responseObject).build();
+        return Response.ok(responseObject).tag(eTag).build();
     }
 
     @GET
@@ -535,12 +554,16 @@ public class ItemResource implements RESTResource {
         return item;
     }
 
-    private List<EnrichedItemDTO> getItemBeans(String type, String tags, boolean recursive, Locale locale) {
-        List<EnrichedItemDTO> beans = new LinkedList<>();
-        Collection<Item> items;
+    /**
+     * Returns the DTOs of the requested items. The DTOs are created while the response is written, so they are not
+     * all held in memory at the same time.
+     */
+    private Collection<EnrichedItemDTO> getItemBeans(String type, String tags, final boolean recursive,
+            final Locale locale) {
+        Iterable<Item> items;
         if (tags == null) {
             if (type == null) {
-                items = itemRegistry.getItems();
+                items = itemRegistry.getAllView();
             } else {
                 items = itemRegistry.getItemsOfType(type);
             }
@@ -552,11 +575,15 @@ public class ItemResource implements RESTResource {
                 items = itemRegistry.getItemsByTagAndType(type, tagList);
             }
         }
-        if (items != null) {
-            for (Item item : items) {
-                beans.add(EnrichedItemDTOMapper.map(item, recursive, uriInfo.getBaseUri(), locale));
-            }
+        if (items == null) {
+            return Collections.emptyList();
         }
-        return beans;
+        final URI baseUri = uriInfo.getBaseUri();
+        return new StreamingCollection<>(items, new Function<Item, EnrichedItemDTO>() {
+            @Override
+            public EnrichedItemDTO apply(Item item) {
+                return EnrichedItemDTOMapper.map(item, recursive, baseUri, locale);
+            }
+        });
     }
 }
@@ -8,11 +8,11 @@
 package org.eclipse.smarthome.io.rest.core.thing;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -31,8 +31,10 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
@@ -67,12 +69,16 @@ import org.eclipse.smarthome.core.thing.type.ChannelKind;
 import org.eclipse.smarthome.core.thing.type.ThingType;
 import org.eclipse.smarthome.core.thing.type.ThingTypeRegistry;
 import org.eclipse.smarthome.core.thing.util.ThingHelper;
+import org.eclipse.smarthome.io.rest.ETagUtil;
 import org.eclipse.smarthome.io.rest.JSONResponse;
 import org.eclipse.smarthome.io.rest.LocaleUtil;
 import org.eclipse.smarthome.io.rest.RESTResource;
+import org.eclipse.smarthome.io.rest.StreamingCollection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Function;
+
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -115,6 +121,9 @@ public class ThingResource implements RESTResource {
     @Context
     private UriInfo uriInfo;
 
+    @Context
+    private Request request;
+
     /**
      * create a new Thing
      *
@@ -194,9 +203,16 @@ public class ThingResource implements RESTResource {
     public Response getAll(@HeaderParam(HttpHeaders.ACCEPT_LANGUAGE) @ApiParam(value = "language") String language) {
         final Locale locale = LocaleUtil.getLocale(language);
 
-        Collection<Thing> things = thingRegistry.getAll();
-        Set<EnrichedThingDTO> thingBeans = convertToListBean(things, locale);
-        return Response.ok(thingBeans).build();
+        EntityTag eTag = ETagUtil.createETag(
+                new long[] { thingRegistry.getVersion(), itemChannelLinkRegistry.getVersion(), getThingsFingerprint() },
+                uriInfo.getBaseUri(), locale);
+        Response notModified = ETagUtil.evaluatePreconditions(request, eTag);
+        if (notModified != null) {
+            return notModified;
+        }
+
+        Collection<EnrichedThingDTO> thingBeans = convertToListBean(thingRegistry.getAllView(), locale);
+        return Response.ok(thingBeans).tag(eTag).build();
     }
 
     @GET
@@ -585,14 +601,31 @@ public class ThingResource implements RESTResource {
         this.configStatusService = null;
     }
 
-    private Set<EnrichedThingDTO> convertToListBean(Collection<Thing> things, Locale locale) {
-        Set<EnrichedThingDTO> thingBeans = new LinkedHashSet<>();
-        for (Thing thing : things) {
-            EnrichedThingDTO thingBean = EnrichedThingDTOMapper.map(thing, uriInfo.getBaseUri(), locale,
-                    getLinkedItemsMap(thing));
-            thingBeans.add(thingBean);
+    /**
+     * Returns a hash of the parts of all things, which are changed by the handlers without updating the things in the
+     * registry, i.e. the status, the configuration and the properties.
+     */
+    private long getThingsFingerprint() {
+        long fingerprint = 0;
+        for (Thing thing : thingRegistry.getAllView()) {
+            fingerprint = 31 * fingerprint + thing.getStatusInfo().hashCode();
+            fingerprint = 31 * fingerprint + thing.getConfiguration().hashCode();
+            fingerprint = 31 * fingerprint + thing.getProperties().hashCode();
         }
-        return thingBeans;
+        return fingerprint;
+    }
+
+    /**
+     * Returns the DTOs of the given things, which are created while the response is written.
+     */
+    private Collection<EnrichedThingDTO> convertToListBean(Iterable<Thing> things, final Locale locale) {
+        final URI baseUri = uriInfo.getBaseUri();
+        return new StreamingCollection<>(things, new Function<Thing, EnrichedThingDTO>() {
+            @Override
+            public EnrichedThingDTO apply(Thing thing) {
+                return EnrichedThingDTOMapper.map(thing, baseUri, locale, getLinkedItemsMap(thing));
+            }
+        });
     }
 
     private Map<String, Set<String>> getLinkedItemsMap(Thing thing) {
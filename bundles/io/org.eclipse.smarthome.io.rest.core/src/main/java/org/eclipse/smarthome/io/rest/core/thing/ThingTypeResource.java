@@ -18,8 +18,11 @@ import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 
 import org.eclipse.smarthome.config.core.ConfigDescription;
@@ -42,6 +45,7 @@ import org.eclipse.smarthome.core.thing.type.ChannelType;
 import org.eclipse.smarthome.core.thing.type.ThingType;
 import org.eclipse.smarthome.core.thing.type.ThingTypeRegistry;
 import org.eclipse.smarthome.core.thing.type.TypeResolver;
+import org.eclipse.smarthome.io.rest.ETagUtil;
 import org.eclipse.smarthome.io.rest.LocaleUtil;
 import org.eclipse.smarthome.io.rest.RESTResource;
 import org.slf4j.Logger;
@@ -76,6 +80,9 @@ public class ThingTypeResource implements RESTResource {
     private ThingTypeRegistry thingTypeRegistry;
     private ConfigDescriptionRegistry configDescriptionRegistry;
 
+    @Context
+    private Request request;
+
     protected void setThingTypeRegistry(ThingTypeRegistry thingTypeRegistry) {
         this.thingTypeRegistry = thingTypeRegistry;
     }
@@ -99,9 +106,18 @@ public class ThingTypeResource implements RESTResource {
     public Response getAll(
             @HeaderParam(HttpHeaders.ACCEPT_LANGUAGE) @ApiParam(value = HttpHeaders.ACCEPT_LANGUAGE) String language) {
         Locale locale = LocaleUtil.getLocale(language);
-        Set<StrippedThingTypeDTO> strippedThingTypeDTOs = convertToStrippedThingTypeDTOs(
-                thingTypeRegistry.getThingTypes(locale), locale);
-        return Response.ok(strippedThingTypeDTOs).build();
+        // the registry detects changed thing types while returning them, so the version is read afterwards
+        List<ThingType> thingTypes = thingTypeRegistry.getThingTypes(locale);
+        long version = thingTypeRegistry.getVersion();
+
+        EntityTag eTag = ETagUtil.createETag(new long[] { version }, locale);
+        Response notModified = ETagUtil.evaluatePreconditions(request, eTag);
+        if (notModified != null) {
+            return notModified;
+        }
+
+        Set<StrippedThingTypeDTO> strippedThingTypeDTOs = convertToStrippedThingTypeDTOs(thingTypes, locale);
+        return Response.ok(strippedThingTypeDTOs).tag(eTag).build();
     }
 
     @GET
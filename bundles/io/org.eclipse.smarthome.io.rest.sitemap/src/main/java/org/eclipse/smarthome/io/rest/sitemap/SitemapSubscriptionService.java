@@ -8,8 +8,10 @@
 package org.eclipse.smarthome.io.rest.sitemap;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -31,6 +33,8 @@ import org.slf4j.LoggerFactory;
  * events to the subscriber.
  * For this to work correctly, the subscriber needs to make sure that setPageId is called whenever it switches to a new
  * page.
+ * Besides subscriptions, callbacks can be registered for a single page directly, e.g. by long-polling requests, which
+ * are waiting for the next change of a page. They share the listener of the page with the subscriptions.
  *
  * @author Kai Kreuzer - Initial contribution and API
  */
@@ -51,6 +55,9 @@ public class SitemapSubscriptionService {
     /* subscription id -> sitemap+page */
     private final Map<String, String> pageOfSubscription = new ConcurrentHashMap<>();
 
+    /* sitemap+page -> subscription ids */
+    private final Map<String, Set<String>> subscriptionsOfPage = new ConcurrentHashMap<>();
+
     /* subscription id -> callback */
     private Map<String, SitemapSubscriptionCallback> callbacks = new ConcurrentHashMap<>();
 
@@ -63,8 +70,9 @@ public class SitemapSubscriptionService {
     protected void activate() {
     }
 
-    protected void deactivate() {
+    protected synchronized void deactivate() {
         pageOfSubscription.clear();
+        subscriptionsOfPage.clear();
         callbacks.clear();
         for (PageChangeListener listener : pageChangeListeners.values()) {
             listener.dispose();
@@ -107,13 +115,12 @@ public class SitemapSubscriptionService {
      * @param subscriptionId the id of the subscription to remove
      */
     public void removeSubscription(String subscriptionId) {
-        callbacks.remove(subscriptionId);
+        SitemapSubscriptionCallback callback = callbacks.remove(subscriptionId);
         String sitemapPage = pageOfSubscription.remove(subscriptionId);
-        if (sitemapPage != null && !pageOfSubscription.values().contains(sitemapPage)) {
-            // this was the only subscription listening on this page, so we can dispose the listener
-            PageChangeListener listener = pageChangeListeners.remove(sitemapPage);
-            if (listener != null) {
-                listener.dispose();
+        if (sitemapPage != null) {
+            removeSubscriptionOfPage(sitemapPage, subscriptionId);
+            if (callback != null) {
+                removeCallbackFromListener(sitemapPage, callback);
             }
         }
         logger.debug("Removed subscription with id {}", subscriptionId);
@@ -161,10 +168,12 @@ public class SitemapSubscriptionService {
         if (callback != null) {
             String oldSitemapPage = pageOfSubscription.remove(subscriptionId);
             if (oldSitemapPage != null) {
+                removeSubscriptionOfPage(oldSitemapPage, subscriptionId);
                 removeCallbackFromListener(oldSitemapPage, callback);
             }
             addCallbackToListener(sitemapName, pageId, callback);
             pageOfSubscription.put(subscriptionId, getValue(sitemapName, pageId));
+            addSubscriptionOfPage(getValue(sitemapName, pageId), subscriptionId);
 
             logger.debug("Subscription {} changed to page {} of sitemap {}",
                     new Object[] { subscriptionId, pageId, sitemapName });
@@ -173,7 +182,49 @@ public class SitemapSubscriptionService {
         }
     }
 
-    private void addCallbackToListener(String sitemapName, String pageId, SitemapSubscriptionCallback callback) {
+    /**
+     * Retrieves the subscriptions, which are currently showing a page.
+     *
+     * @param sitemapName the sitemap name
+     * @param pageId the page id
+     * @return the ids of the subscriptions of the page
+     */
+    public Set<String> getSubscriptionIds(String sitemapName, String pageId) {
+        Set<String> subscriptionIds = subscriptionsOfPage.get(getValue(sitemapName, pageId));
+        if (subscriptionIds == null) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(subscriptionIds);
+    }
+
+    /**
+     * Registers a callback for the changes of a sitemap page without a subscription. The callback has to be removed by
+     * {@link #removePageChangeCallback(String, String, SitemapSubscriptionCallback)} as soon as it is not needed
+     * anymore.
+     *
+     * @param sitemapName the sitemap name
+     * @param pageId the page id
+     * @param callback the callback to be notified about the changes of the page
+     * @return true, if the callback has been registered, false if the page does not exist
+     */
+    public boolean addPageChangeCallback(String sitemapName, String pageId, SitemapSubscriptionCallback callback) {
+        return addCallbackToListener(sitemapName, pageId, callback);
+    }
+
+    /**
+     * Removes a callback, which has been registered by
+     * {@link #addPageChangeCallback(String, String, SitemapSubscriptionCallback)}.
+     *
+     * @param sitemapName the sitemap name
+     * @param pageId the page id
+     * @param callback the callback to remove
+     */
+    public void removePageChangeCallback(String sitemapName, String pageId, SitemapSubscriptionCallback callback) {
+        removeCallbackFromListener(getValue(sitemapName, pageId), callback);
+    }
+
+    private synchronized boolean addCallbackToListener(String sitemapName, String pageId,
+            SitemapSubscriptionCallback callback) {
         PageChangeListener listener = pageChangeListeners.get(getValue(sitemapName, pageId));
         if (listener == null) {
             // there is no listener for this page yet, so let's try to create one
@@ -196,14 +247,16 @@ public class SitemapSubscriptionService {
         }
         if (listener != null) {
             listener.addCallback(callback);
+            return true;
         }
+        return false;
     }
 
-    private void removeCallbackFromListener(String sitemapPage, SitemapSubscriptionCallback callback) {
+    private synchronized void removeCallbackFromListener(String sitemapPage, SitemapSubscriptionCallback callback) {
         PageChangeListener oldListener = pageChangeListeners.get(sitemapPage);
         if (oldListener != null) {
             oldListener.removeCallback(callback);
-            if (!pageOfSubscription.values().contains(sitemapPage)) {
+            if (!oldListener.hasCallbacks()) {
                 // no other callbacks are left here, so we can safely dispose the listener
                 oldListener.dispose();
                 pageChangeListeners.remove(sitemapPage);
@@ -211,6 +264,25 @@ public class SitemapSubscriptionService {
         }
     }
 
+    private synchronized void addSubscriptionOfPage(String sitemapPage, String subscriptionId) {
+        Set<String> subscriptionIds = subscriptionsOfPage.get(sitemapPage);
+        if (subscriptionIds == null) {
+            subscriptionIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            subscriptionsOfPage.put(sitemapPage, subscriptionIds);
+        }
+        subscriptionIds.add(subscriptionId);
+    }
+
+    private synchronized void removeSubscriptionOfPage(String sitemapPage, String subscriptionId) {
+        Set<String> subscriptionIds = subscriptionsOfPage.get(sitemapPage);
+        if (subscriptionIds != null) {
+            subscriptionIds.remove(subscriptionId);
+            if (subscriptionIds.isEmpty()) {
+                subscriptionsOfPage.remove(sitemapPage);
+            }
+        }
+    }
+
     private String getValue(String sitemapName, String pageId) {
         return sitemapName + SITEMAP_PAGE_SEPARATOR + pageId;
     }
@@ -9,8 +9,11 @@ package org.eclipse.smarthome.io.rest.sitemap.internal;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.emf.common.util.EList;
@@ -20,8 +23,10 @@ import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemNotFoundException;
 import org.eclipse.smarthome.core.items.StateChangeListener;
 import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.io.rest.core.item.EnrichedItemDTO;
 import org.eclipse.smarthome.io.rest.core.item.EnrichedItemDTOMapper;
 import org.eclipse.smarthome.io.rest.sitemap.SitemapSubscriptionService.SitemapSubscriptionCallback;
+import org.eclipse.smarthome.model.sitemap.ColorArray;
 import org.eclipse.smarthome.model.sitemap.Frame;
 import org.eclipse.smarthome.model.sitemap.VisibilityRule;
 import org.eclipse.smarthome.model.sitemap.Widget;
@@ -29,6 +34,10 @@ import org.eclipse.smarthome.ui.items.ItemUIRegistry;
 
 /**
  * This is a class that listens on item state change events and creates sitemap events for a dedicated sitemap page.
+ * <p>
+ * When it is created, it determines for every item, which widgets of the page depend on it, i.e. which show the item
+ * or use it in their visibility or color rules. On a state change, only these widgets are rendered, each one once for
+ * all callbacks of the page.
  *
  * @author Kai Kreuzer - Initial contribution and API
  *
@@ -38,8 +47,9 @@ public class PageChangeListener implements StateChangeListener {
     private final String sitemapName;
     private final String pageId;
     private final ItemUIRegistry itemUIRegistry;
-    private final EList<Widget> widgets;
     private final Set<Item> items;
+    /* item name -> widgets of the page, which depend on the item */
+    private final Map<String, List<Widget>> widgetsByItem;
     private final List<SitemapSubscriptionCallback> callbacks = Collections
             .synchronizedList(new ArrayList<SitemapSubscriptionCallback>());
     private Set<SitemapSubscriptionCallback> distinctCallbacks = Collections.emptySet();
@@ -56,8 +66,11 @@ public class PageChangeListener implements StateChangeListener {
         this.sitemapName = sitemapName;
         this.pageId = pageId;
         this.itemUIRegistry = itemUIRegistry;
-        this.widgets = widgets;
-        items = getAllItems(widgets);
+        this.widgetsByItem = new HashMap<>();
+        if (itemUIRegistry != null) {
+            indexWidgets(widgets);
+        }
+        items = getAllItems(widgetsByItem.keySet());
         for (Item item : items) {
             if (item instanceof GenericItem) {
                 ((GenericItem) item).addStateChangeListener(this);
@@ -86,6 +99,13 @@ public class PageChangeListener implements StateChangeListener {
         distinctCallbacks = new HashSet<>(callbacks);
     }
 
+    /**
+     * @return true, if any callback is registered for this page
+     */
+    public boolean hasCallbacks() {
+        return !callbacks.isEmpty();
+    }
+
     /**
      * Disposes this instance and releases all resources.
      */
@@ -100,50 +120,70 @@ public class PageChangeListener implements StateChangeListener {
     }
 
     /**
-     * Collects all items that are represented by a given list of widgets
+     * Adds the given widgets to the index of the items they depend on. Frames are not rendered themselves, but their
+     * children are.
      *
-     * @param widgets
-     *            the widget list to get the items for added to all bundles containing REST resources
-     * @return all items that are represented by the list of widgets
+     * @param widgets the widgets of the page
      */
-    private Set<Item> getAllItems(EList<Widget> widgets) {
-        Set<Item> items = new HashSet<Item>();
-        if (itemUIRegistry != null) {
-            for (Widget widget : widgets) {
-                String itemName = widget.getItem();
+    private void indexWidgets(List<Widget> widgets) {
+        for (Widget widget : widgets) {
+            if (widget instanceof Frame) {
+                indexWidgets(((Frame) widget).getChildren());
+                continue;
+            }
+            Set<String> itemNames = new LinkedHashSet<>();
+            itemNames.add(widget.getItem());
+            // now scan visibility and color rules
+            for (VisibilityRule vr : widget.getVisibility()) {
+                itemNames.add(vr.getItem());
+            }
+            for (ColorArray color : widget.getLabelColor()) {
+                itemNames.add(color.getItem());
+            }
+            for (ColorArray color : widget.getValueColor()) {
+                itemNames.add(color.getItem());
+            }
+            for (String itemName : itemNames) {
                 if (itemName != null) {
-                    addItemWithName(items, itemName);
-                } else {
-                    if (widget instanceof Frame) {
-                        items.addAll(getAllItems(((Frame) widget).getChildren()));
+                    List<Widget> itemWidgets = widgetsByItem.get(itemName);
+                    if (itemWidgets == null) {
+                        itemWidgets = new ArrayList<>();
+                        widgetsByItem.put(itemName, itemWidgets);
                     }
-                }
-                // now scan visibility rules
-                for (VisibilityRule vr : widget.getVisibility()) {
-                    String ruleItemName = vr.getItem();
-                    addItemWithName(items, ruleItemName);
+                    itemWidgets.add(widget);
                 }
             }
         }
-        return items;
     }
 
-    private void addItemWithName(Set<Item> items, String itemName) {
-        if (itemName != null) {
+    /**
+     * Collects all items with the given names
+     *
+     * @param itemNames the names of the items
+     * @return all items, which exist
+     */
+    private Set<Item> getAllItems(Set<String> itemNames) {
+        Set<Item> items = new HashSet<Item>();
+        for (String itemName : itemNames) {
             try {
-                Item item = itemUIRegistry.getItem(itemName);
-                items.add(item);
+                items.add(itemUIRegistry.getItem(itemName));
             } catch (ItemNotFoundException e) {
                 // ignore
             }
         }
+        return items;
     }
 
     @Override
     public void stateChanged(Item item, State oldState, State newState) {
-        Set<SitemapEvent> events = constructSitemapEvents(item, oldState, newState, widgets);
+        Set<SitemapSubscriptionCallback> callbacks = distinctCallbacks;
+        List<Widget> widgets = widgetsByItem.get(item.getName());
+        if (widgets == null || callbacks.isEmpty()) {
+            return;
+        }
+        Set<SitemapEvent> events = constructSitemapEvents(item, widgets);
         for (SitemapEvent event : events) {
-            for (SitemapSubscriptionCallback callback : distinctCallbacks) {
+            for (SitemapSubscriptionCallback callback : callbacks) {
                 callback.onEvent(event);
             }
         }
@@ -153,37 +193,23 @@ public class PageChangeListener implements StateChangeListener {
     public void stateUpdated(Item item, State state) {
     }
 
-    private Set<SitemapEvent> constructSitemapEvents(Item item, State oldState, State newState, List<Widget> widgets) {
-        Set<SitemapEvent> events = new HashSet<>();
+    private Set<SitemapEvent> constructSitemapEvents(Item item, List<Widget> widgets) {
+        Set<SitemapEvent> events = new LinkedHashSet<>();
+        // the item is the same for all widgets
+        EnrichedItemDTO itemBean = EnrichedItemDTOMapper.map(item, false, null, null);
         for (Widget w : widgets) {
-            if (w instanceof Frame) {
-                events.addAll(constructSitemapEvents(item, oldState, newState, ((Frame) w).getChildren()));
-            } else {
-                if ((w.getItem() != null && w.getItem().equals(item.getName()))
-                        || definesVisibility(w, item.getName())) {
-                    SitemapWidgetEvent event = new SitemapWidgetEvent();
-                    event.sitemapName = sitemapName;
-                    event.pageId = pageId;
-                    event.label = itemUIRegistry.getLabel(w);
-                    event.labelcolor = itemUIRegistry.getLabelColor(w);
-                    event.valuecolor = itemUIRegistry.getValueColor(w);
-                    event.widgetId = itemUIRegistry.getWidgetId(w);
-                    event.visibility = itemUIRegistry.getVisiblity(w);
-                    event.item = EnrichedItemDTOMapper.map(item, false, null, null);
-                    events.add(event);
-                }
-            }
+            SitemapWidgetEvent event = new SitemapWidgetEvent();
+            event.sitemapName = sitemapName;
+            event.pageId = pageId;
+            event.label = itemUIRegistry.getLabel(w);
+            event.labelcolor = itemUIRegistry.getLabelColor(w);
+            event.valuecolor = itemUIRegistry.getValueColor(w);
+            event.widgetId = itemUIRegistry.getWidgetId(w);
+            event.visibility = itemUIRegistry.getVisiblity(w);
+            event.item = itemBean;
+            events.add(event);
         }
         return events;
     }
 
-    private boolean definesVisibility(Widget w, String name) {
-        for (VisibilityRule vr : w.getVisibility()) {
-            if (name.equals(vr.getItem())) {
-                return true;
-            }
-        }
-        return false;
-    }
-
 }
@@ -9,54 +9,38 @@ package org.eclipse.smarthome.io.rest.sitemap.internal;
 
 import java.io.IOException;
 
-import org.eclipse.smarthome.io.rest.sitemap.SitemapSubscriptionService;
 import org.glassfish.jersey.media.sse.EventOutput;
-import org.glassfish.jersey.media.sse.OutboundEvent;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
- * {@link EventOutput} implementation that takes a subscription id parameter and only writes out events that match the
- * page of this subscription.
- * Should only be used when the {@link OutboundEvent}s sent through this {@link EventOutput} contain a data object of
- * type {@link SitemapEvent}
+ * {@link EventOutput} implementation for the events of a single subscription. The events are only written to the
+ * outputs of the subscriptions, which show the page of the event, so the output does not filter them itself. When the
+ * output is closed, it is removed from the {@link SitemapResource} together with its subscription.
  *
  * @author Kai Kreuzer - Initial contribution and API
  *
  */
 public class SitemapEventOutput extends EventOutput {
 
-    private final Logger logger = LoggerFactory.getLogger(SitemapEventOutput.class);
+    private final SitemapResource sitemapResource;
 
     private final String subscriptionId;
-    private final SitemapSubscriptionService subscriptions;
 
-    public SitemapEventOutput(SitemapSubscriptionService subscriptions, String subscriptionId) {
+    public SitemapEventOutput(SitemapResource sitemapResource, String subscriptionId) {
         super();
-        this.subscriptions = subscriptions;
+        this.sitemapResource = sitemapResource;
         this.subscriptionId = subscriptionId;
     }
 
-    @Override
-    public void write(OutboundEvent chunk) throws IOException {
-        if (chunk.getName().equals("subscriptionId") && chunk.getData().equals(subscriptionId)) {
-            super.write(chunk);
-        } else {
-            SitemapEvent event = (SitemapEvent) chunk.getData();
-            String sitemapName = event.sitemapName;
-            String pageId = event.pageId;
-            if (sitemapName != null && sitemapName.equals(subscriptions.getSitemapName(subscriptionId))
-                    && pageId != null && pageId.equals(subscriptions.getPageId(subscriptionId))) {
-                super.write(chunk);
-                if (logger.isDebugEnabled() && event instanceof SitemapWidgetEvent) {
-                    logger.debug("Sent sitemap event for widget {} to subscription {}.",
-                            ((SitemapWidgetEvent) event).widgetId, subscriptionId);
-                }
-            }
-        }
-    }
-
     public String getSubscriptionId() {
         return subscriptionId;
     }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            sitemapResource.removeEventOutput(this);
+        }
+    }
 }
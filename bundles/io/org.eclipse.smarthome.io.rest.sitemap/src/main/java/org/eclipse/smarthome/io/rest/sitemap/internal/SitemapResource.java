@@ -7,15 +7,17 @@
  */
 package org.eclipse.smarthome.io.rest.sitemap.internal;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Date;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
@@ -26,9 +28,14 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.container.TimeoutHandler;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriBuilder;
@@ -36,11 +43,10 @@ import javax.ws.rs.core.UriInfo;
 
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EObject;
-import org.eclipse.smarthome.core.items.GenericItem;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemNotFoundException;
-import org.eclipse.smarthome.core.items.StateChangeListener;
-import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.io.rest.ETagUtil;
 import org.eclipse.smarthome.io.rest.JSONResponse;
 import org.eclipse.smarthome.io.rest.LocaleUtil;
 import org.eclipse.smarthome.io.rest.RESTResource;
@@ -66,14 +72,12 @@ import org.eclipse.smarthome.model.sitemap.Widget;
 import org.eclipse.smarthome.ui.items.ItemUIRegistry;
 import org.glassfish.jersey.media.sse.EventOutput;
 import org.glassfish.jersey.media.sse.OutboundEvent;
-import org.glassfish.jersey.media.sse.SseBroadcaster;
 import org.glassfish.jersey.media.sse.SseFeature;
-import org.glassfish.jersey.server.BroadcasterListener;
-import org.glassfish.jersey.server.ChunkedOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.MapMaker;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -93,7 +97,7 @@ import io.swagger.annotations.ApiResponses;
  */
 @Path(SitemapResource.PATH_SITEMAPS)
 @Api(value = SitemapResource.PATH_SITEMAPS)
-public class SitemapResource implements RESTResource, SitemapSubscriptionCallback, BroadcasterListener<OutboundEvent> {
+public class SitemapResource implements RESTResource, SitemapSubscriptionCallback {
 
     private final Logger logger = LoggerFactory.getLogger(SitemapResource.class);
 
@@ -102,28 +106,24 @@ public class SitemapResource implements RESTResource, SitemapSubscriptionCallbac
 
     private static final long TIMEOUT_IN_MS = 30000;
 
-    private SseBroadcaster broadcaster;
+    private static final String THREAD_POOL_NAME = "sitemap";
 
     @Context
     UriInfo uriInfo;
 
+    @Context
+    Request request;
+
     private ItemUIRegistry itemUIRegistry;
 
     private SitemapSubscriptionService subscriptions;
 
     private java.util.List<SitemapProvider> sitemapProviders = new ArrayList<>();
 
-    private Map<String, EventOutput> eventOutputs = new MapMaker().weakValues().makeMap();
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
 
-    protected void activate() {
-        broadcaster = new SseBroadcaster();
-        broadcaster.add(this);
-    }
-
-    protected void deactivate() {
-        broadcaster.remove(this);
-        broadcaster = null;
-    }
+    /** the outputs of the subscriptions, which are removed together with their subscription when they are closed */
+    private final Map<String, SitemapEventOutput> eventOutputs = new ConcurrentHashMap<>();
 
     public void setItemUIRegistry(ItemUIRegistry itemUIRegistry) {
         this.itemUIRegistry = itemUIRegistry;
@@ -182,11 +182,12 @@ public class SitemapResource implements RESTResource, SitemapSubscriptionCallbac
     @ApiResponses(value = { @ApiResponse(code = 200, message = "OK"),
             @ApiResponse(code = 404, message = "Sitemap with requested name does not exist or page does not exist, or page refers to a non-linkable widget"),
             @ApiResponse(code = 400, message = "Invalid subscription id has been provided.") })
-    public Response getPageData(@Context HttpHeaders headers,
+    public void getPageData(@Context HttpHeaders headers,
             @HeaderParam(HttpHeaders.ACCEPT_LANGUAGE) @ApiParam(value = "language") String language,
             @PathParam("sitemapname") @ApiParam(value = "sitemap name") String sitemapname,
             @PathParam("pageid") @ApiParam(value = "page id") String pageId,
-            @QueryParam("subscriptionid") @ApiParam(value = "subscriptionid", required = false) String subscriptionId) {
+            @QueryParam("subscriptionid") @ApiParam(value = "subscriptionid", required = false) String subscriptionId,
+            @Suspended AsyncResponse asyncResponse) {
         final Locale locale = LocaleUtil.getLocale(language);
         logger.debug("Received HTTP GET request at '{}'", uriInfo.getPath());
 
@@ -194,18 +195,24 @@ public class SitemapResource implements RESTResource, SitemapSubscriptionCallbac
             try {
                 subscriptions.setPageId(subscriptionId, sitemapname, pageId);
             } catch (IllegalArgumentException e) {
-                return JSONResponse.createErrorResponse(Response.Status.BAD_REQUEST, e.getMessage());
+                asyncResponse.resume(JSONResponse.createErrorResponse(Response.Status.BAD_REQUEST, e.getMessage()));
+                return;
             }
         }
 
+        // the request scoped uriInfo cannot be accessed once the request has been suspended
+        URI uri = uriInfo.getBaseUriBuilder().build();
         if (headers.getRequestHeader("X-Atmosphere-Transport") != null) {
             // Make the REST-API pseudo-compatible with openHAB 1.x
             // The client asks Atmosphere for server push functionality,
-            // so we do a simply listening for changes on the appropriate items
-            blockUnlessChangeOccurs(sitemapname, pageId);
+            // so we respond as soon as an item of the page changes, without occupying a thread while waiting
+            PageChangeWaiter waiter = new PageChangeWaiter(asyncResponse, sitemapname, pageId, uri, locale);
+            if (waiter.start()) {
+                return;
+            }
         }
-        Object responseObject = getPageBean(sitemapname, pageId, uriInfo.getBaseUriBuilder().build(), locale);
-        return Response.ok(responseObject).build();
+
+        resumeWithPage(asyncResponse, sitemapname, pageId, uri, locale, request);
     }
 
     /**
@@ -219,8 +226,7 @@ public class SitemapResource implements RESTResource, SitemapSubscriptionCallbac
     @ApiResponses(value = { @ApiResponse(code = 201, message = "Subscription created.") })
     public Object createEventSubscription() {
         String subscriptionId = subscriptions.createSubscription(this);
-        final EventOutput eventOutput = new SitemapEventOutput(subscriptions, subscriptionId);
-        broadcaster.add(eventOutput);
+        final SitemapEventOutput eventOutput = new SitemapEventOutput(this, subscriptionId);
         eventOutputs.put(subscriptionId, eventOutput);
         URI uri = uriInfo.getBaseUriBuilder().path(PATH_SITEMAPS).path(SEGMENT_EVENTS).path(subscriptionId).build();
         return Response.created(uri);
@@ -523,142 +529,156 @@ public class SitemapResource implements RESTResource, SitemapSubscriptionCallbac
         return null;
     }
 
-    private void blockUnlessChangeOccurs(String sitemapname, String pageId) {
-        Sitemap sitemap = getSitemap(sitemapname);
-        if (sitemap != null) {
-            if (pageId.equals(sitemap.getName())) {
-                waitForChanges(sitemap.getChildren());
-            } else {
-                Widget pageWidget = itemUIRegistry.getWidget(sitemap, pageId);
-                if (pageWidget instanceof LinkableWidget) {
-                    EList<Widget> children = itemUIRegistry.getChildren((LinkableWidget) pageWidget);
-                    waitForChanges(children);
-                }
-            }
-        }
-    }
-
-    /**
-     * This method only returns when a change has occurred to any item on the
-     * page to display or if the timeout is reached
-     *
-     * @param widgets
-     *            the widgets of the page to observe
-     */
-    private boolean waitForChanges(EList<Widget> widgets) {
-        long startTime = (new Date()).getTime();
-        boolean timeout = false;
-        BlockingStateChangeListener listener = new BlockingStateChangeListener();
-        // let's get all items for these widgets
-        Set<GenericItem> items = getAllItems(widgets);
-        for (GenericItem item : items) {
-            item.addStateChangeListener(listener);
-        }
-        while (!listener.hasChangeOccurred() && !timeout) {
-            timeout = (new Date()).getTime() - startTime > TIMEOUT_IN_MS;
-            try {
-                Thread.sleep(300);
-            } catch (InterruptedException e) {
-                timeout = true;
-                break;
-            }
-        }
-        for (GenericItem item : items) {
-            item.removeStateChangeListener(listener);
-        }
-        return !timeout;
-    }
-
     /**
-     * Collects all items that are represented by a given list of widgets
+     * Resumes a page request with the current page. The page is tagged with a digest of its JSON, as it depends on
+     * state descriptions and transformations, which do not have a version. If the client already has the page, the
+     * request is answered with 304 (Not Modified).
      *
-     * @param widgets
-     *            the widget list to get the items for added to all bundles containing REST resources
-     * @return all items that are represented by the list of widgets
+     * @param conditionalRequest the request to evaluate the conditional headers of, null to return the page in any
+     *            case
      */
-    private Set<GenericItem> getAllItems(EList<Widget> widgets) {
-        Set<GenericItem> items = new HashSet<GenericItem>();
-        if (itemUIRegistry != null) {
-            for (Widget widget : widgets) {
-                String itemName = widget.getItem();
-                if (itemName != null) {
-                    try {
-                        Item item = itemUIRegistry.getItem(itemName);
-                        if (item instanceof GenericItem) {
-                            final GenericItem gItem = (GenericItem) item;
-                            items.add(gItem);
-                        }
-                    } catch (ItemNotFoundException e) {
-                        // ignore
-                    }
-                } else {
-                    if (widget instanceof Frame) {
-                        items.addAll(getAllItems(((Frame) widget).getChildren()));
-                    }
-                }
-            }
+    private void resumeWithPage(AsyncResponse asyncResponse, String sitemapName, String pageId, URI uri,
+            Locale locale, Request conditionalRequest) {
+        try {
+            String page = GSON.toJson(getPageBean(sitemapName, pageId, uri, locale));
+            EntityTag eTag = ETagUtil.createContentETag(page);
+            Response notModified = ETagUtil.evaluatePreconditions(conditionalRequest, eTag);
+            asyncResponse.resume(notModified != null ? notModified
+                    : Response.ok(page, MediaType.APPLICATION_JSON).tag(eTag).build());
+        } catch (RuntimeException e) {
+            // e.g. a WebApplicationException for an unknown page, which is mapped to its response
+            asyncResponse.resume(e);
         }
-        return items;
     }
 
     /**
-     * This is a state change listener, which is merely used to determine, if a
-     * state change has occurred on one of a list of items.
+     * This is a callback for a suspended long-polling request, which resumes the request with the current page as
+     * soon as a change has occurred to any item on the page or if the timeout is reached. While it is waiting, no
+     * thread is occupied.
      *
-     * @author Kai Kreuzer - Initial contribution and API
+     * @author agent - Initial contribution and API
      *
      */
-    private static class BlockingStateChangeListener implements StateChangeListener {
+    private class PageChangeWaiter implements SitemapSubscriptionCallback, TimeoutHandler {
 
-        private boolean changed = false;
+        private final AsyncResponse asyncResponse;
+        private final String sitemapName;
+        private final String pageId;
+        private final URI uri;
+        private final Locale locale;
 
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public void stateChanged(Item item, State oldState, State newState) {
-            changed = true;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        public PageChangeWaiter(AsyncResponse asyncResponse, String sitemapName, String pageId, URI uri,
+                Locale locale) {
+            this.asyncResponse = asyncResponse;
+            this.sitemapName = sitemapName;
+            this.pageId = pageId;
+            this.uri = uri;
+            this.locale = locale;
         }
 
         /**
-         * determines, whether a state change has occurred since its creation
+         * Starts waiting for a change of the page.
          *
-         * @return true, if a state has changed
+         * @return true, if the page exists and changes are awaited
          */
-        public boolean hasChangeOccurred() {
-            return changed;
+        public boolean start() {
+            asyncResponse.setTimeoutHandler(this);
+            asyncResponse.setTimeout(TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
+            return subscriptions.addPageChangeCallback(sitemapName, pageId, this);
         }
 
-        /**
-         * {@inheritDoc}
-         */
         @Override
-        public void stateUpdated(Item item, State state) {
-            // ignore if the state did not change
+        public void onEvent(SitemapEvent event) {
+            if (done.compareAndSet(false, true)) {
+                // the page is not created by the thread, which notifies about the item change
+                ThreadPoolManager.getPool(THREAD_POOL_NAME).execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        resume();
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void handleTimeout(AsyncResponse asyncResponse) {
+            if (done.compareAndSet(false, true)) {
+                resume();
+            } else {
+                // a change has occurred in the meantime, the request must not be answered as unavailable, while the
+                // page is created
+                asyncResponse.setTimeout(TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void resume() {
+            subscriptions.removePageChangeCallback(sitemapName, pageId, this);
+            // the client waits for a changed page, so it is not evaluated against the conditional headers
+            resumeWithPage(asyncResponse, sitemapName, pageId, uri, locale, null);
         }
     }
 
+    /**
+     * Sends an event to the subscriptions, which show the page of the event. The event is serialized once for all of
+     * them.
+     */
     @Override
     public void onEvent(SitemapEvent event) {
-        OutboundEvent.Builder eventBuilder = new OutboundEvent.Builder();
-        OutboundEvent outboundEvent = eventBuilder.name("event").mediaType(MediaType.APPLICATION_JSON_TYPE).data(event)
-                .build();
-        broadcaster.broadcast(outboundEvent);
+        Set<String> subscriptionIds = subscriptions.getSubscriptionIds(event.sitemapName, event.pageId);
+        OutboundEvent outboundEvent = null;
+        for (String subscriptionId : subscriptionIds) {
+            SitemapEventOutput eventOutput = eventOutputs.get(subscriptionId);
+            if (eventOutput != null) {
+                if (outboundEvent == null) {
+                    // the JSON string is written as it is
+                    outboundEvent = new OutboundEvent.Builder().name("event").mediaType(MediaType.TEXT_PLAIN_TYPE)
+                            .data(String.class, GSON.toJson(event)).build();
+                }
+                write(eventOutput, outboundEvent);
+                if (logger.isDebugEnabled() && event instanceof SitemapWidgetEvent) {
+                    logger.debug("Sent sitemap event for widget {} to subscription {}.",
+                            ((SitemapWidgetEvent) event).widgetId, subscriptionId);
+                }
+            }
+        }
     }
 
-    @Override
-    public void onClose(ChunkedOutput<OutboundEvent> event) {
-        if (event instanceof SitemapEventOutput) {
-            SitemapEventOutput sitemapEvent = (SitemapEventOutput) event;
-            logger.debug("SSE connection for subscription {} has been closed.", sitemapEvent.getSubscriptionId());
-            subscriptions.removeSubscription(sitemapEvent.getSubscriptionId());
+    private void write(SitemapEventOutput eventOutput, OutboundEvent outboundEvent) {
+        if (eventOutput.isClosed()) {
+            // the output has been closed by a failed write of the container
+            removeEventOutput(eventOutput);
+            return;
+        }
+        try {
+            eventOutput.write(outboundEvent);
+        } catch (IOException e) {
+            // the exception is usually "null", as the client has simply disconnected
+            try {
+                // the output removes itself together with its subscription
+                eventOutput.close();
+            } catch (IOException ex) {
+                // the output is discarded anyway
+            }
         }
     }
 
-    @Override
-    public void onException(ChunkedOutput<OutboundEvent> event, Exception e) {
-        // the exception is usually "null" and onClose() is automatically called afterwards
-        // - so let's don't do anything in this method.
+    /**
+     * Removes a closed output and its subscription, so neither the output nor the page subscription are kept after
+     * the client has disconnected.
+     *
+     * @param eventOutput the closed output
+     */
+    void removeEventOutput(SitemapEventOutput eventOutput) {
+        String subscriptionId = eventOutput.getSubscriptionId();
+        if (eventOutputs.remove(subscriptionId, eventOutput)) {
+            logger.debug("SSE connection for subscription {} has been closed.", subscriptionId);
+            SitemapSubscriptionService subscriptions = this.subscriptions;
+            if (subscriptions != null) {
+                subscriptions.removeSubscription(subscriptionId);
+            }
+        }
     }
 
 }
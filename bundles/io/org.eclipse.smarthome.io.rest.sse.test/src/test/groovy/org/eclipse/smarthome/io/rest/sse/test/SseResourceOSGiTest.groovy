@@ -11,6 +11,8 @@ import static org.hamcrest.CoreMatchers.*
 import static org.junit.Assert.*
 import static org.junit.matchers.JUnitMatchers.*
 
+import org.eclipse.smarthome.io.rest.sse.internal.SseEventOutput
+import org.eclipse.smarthome.io.rest.sse.internal.SseEventOutputIndex
 import org.eclipse.smarthome.io.rest.sse.internal.util.SseUtil
 import org.eclipse.smarthome.test.OSGiTest
 import org.junit.Test
@@ -99,4 +101,50 @@ class SseResourceOSGiTest extends OSGiTest {
         assertThat "smarthome/items/anyitem/added".matches(regexes[0]), is(true);
         assertThat "smarthome/items/anyitem/removed".matches(regexes[0]), is(false);
     }
+
+    @Test
+    public void testEventOutputIndex() {
+        def index = new SseEventOutputIndex()
+        def all = new SseEventOutput("")
+        def added = new SseEventOutput("*/added")
+        def items = new SseEventOutput("smarthome/items/*/statechanged, smarthome/things")
+        def other = new SseEventOutput("qivicon")
+        [all, added, items, other].each { index.add(it) }
+
+        assertThat index.getOutputs("smarthome/items/anyitem/statechanged"), is([all, items] as Set)
+        assertThat index.getOutputs("smarthome/items/anyitem/added"), is([all, added] as Set)
+        assertThat index.getOutputs("smarthome/things/anything/updated"), is([all, items] as Set)
+        assertThat index.getOutputs("qivicon/anything/updated"), is([all, other] as Set)
+
+        index.remove(all)
+        assertThat index.getOutputs("smarthome/inbox/anything/updated").isEmpty(), is(true)
+        assertThat index.size(), is(3)
+    }
+
+    @Test
+    public void testEventOutputIndexUsesTheLiteralPrefixOfTheFilters() {
+        def index = new SseEventOutputIndex()
+        def item = new SseEventOutput("smarthome/items/MyItem/*")
+        def otherItem = new SseEventOutput("smarthome/items/OtherItem/*")
+        def prefix = new SseEventOutput("smarthome/items/My")
+        [item, otherItem, prefix].each { index.add(it) }
+
+        assertThat index.getOutputs("smarthome/items/MyItem/statechanged"), is([item, prefix] as Set)
+        assertThat index.getOutputs("smarthome/items/OtherItem/statechanged"), is([otherItem] as Set)
+        assertThat index.getOutputs("smarthome/things/MyItem/updated").isEmpty(), is(true)
+        assertThat index.getOutputs("smarthome").isEmpty(), is(true)
+    }
+
+    @Test
+    public void testClosedEventOutputIsRemovedFromTheIndex() {
+        def index = new SseEventOutputIndex()
+        def item = new SseEventOutput("smarthome/items/MyItem/*")
+        def all = new SseEventOutput("")
+        [item, all].each { index.add(it) }
+
+        item.close()
+
+        assertThat index.getOutputs("smarthome/items/MyItem/statechanged"), is([all] as Set)
+        assertThat index.size(), is(1)
+    }
 }
@@ -8,6 +8,7 @@
 package org.eclipse.smarthome.io.rest.sse;
 
 import java.io.IOException;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -26,10 +27,13 @@ import javax.ws.rs.core.UriInfo;
 
 import org.eclipse.smarthome.core.events.Event;
 import org.eclipse.smarthome.io.rest.sse.internal.SseEventOutput;
+import org.eclipse.smarthome.io.rest.sse.internal.SseEventOutputIndex;
 import org.eclipse.smarthome.io.rest.sse.internal.util.SseUtil;
 import org.glassfish.jersey.media.sse.EventOutput;
-import org.glassfish.jersey.media.sse.SseBroadcaster;
+import org.glassfish.jersey.media.sse.OutboundEvent;
 import org.glassfish.jersey.media.sse.SseFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -39,6 +43,9 @@ import io.swagger.annotations.ApiResponses;
 
 /**
  * SSE Resource for pushing events to currently listening clients.
+ * <p>
+ * The clients are kept in a {@link SseEventOutputIndex}, so only the clients with a matching topic filter are looked
+ * at for an event. An event is serialized once and only if there is at least one matching client.
  *
  * @author Ivan Iliev - Initial Contribution and API
  * @author Yordan Zhelev - Added Swagger annotations
@@ -53,7 +60,9 @@ public class SseResource {
 
     private static final String X_ACCEL_BUFFERING_HEADER = "X-Accel-Buffering";
 
-    private final SseBroadcaster broadcaster;
+    private final Logger logger = LoggerFactory.getLogger(SseResource.class);
+
+    private final SseEventOutputIndex eventOutputs;
 
     private final ExecutorService executorService;
 
@@ -68,7 +77,7 @@ public class SseResource {
 
     public SseResource() {
         this.executorService = Executors.newSingleThreadExecutor();
-        this.broadcaster = new SseBroadcaster();
+        this.eventOutputs = new SseEventOutputIndex();
     }
 
     /**
@@ -95,8 +104,8 @@ public class SseResource {
 
         // construct an EventOutput that will only write out events that match
         // the given filter
-        final EventOutput eventOutput = new SseEventOutput(eventFilter);
-        broadcaster.add(eventOutput);
+        final SseEventOutput eventOutput = new SseEventOutput(eventFilter);
+        eventOutputs.add(eventOutput);
 
         // Disables proxy buffering when using an nginx http server proxy for this response.
         // This allows you to not disable proxy buffering in nginx and still have working sse
@@ -134,8 +143,34 @@ public class SseResource {
         executorService.execute(new Runnable() {
             @Override
             public void run() {
-                broadcaster.broadcast(SseUtil.buildEvent(event));
+                Set<SseEventOutput> outputs = eventOutputs.getOutputs(event.getTopic());
+                if (outputs.isEmpty()) {
+                    return;
+                }
+                OutboundEvent outboundEvent = SseUtil.buildEvent(event);
+                for (SseEventOutput output : outputs) {
+                    write(output, outboundEvent);
+                }
             }
         });
     }
+
+    private void write(SseEventOutput output, OutboundEvent outboundEvent) {
+        if (output.isClosed()) {
+            eventOutputs.remove(output);
+            return;
+        }
+        try {
+            output.write(outboundEvent);
+        } catch (IOException | RuntimeException e) {
+            // the client has disconnected
+            logger.debug("Removing SSE client after failed write: {}", e.getMessage());
+            try {
+                // the output removes itself from the index
+                output.close();
+            } catch (IOException ex) {
+                logger.trace("Closing the SSE output failed", ex);
+            }
+        }
+    }
 }
@@ -8,38 +8,86 @@
 package org.eclipse.smarthome.io.rest.sse.internal;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.regex.Pattern;
 
-import org.eclipse.smarthome.io.rest.sse.beans.EventBean;
 import org.eclipse.smarthome.io.rest.sse.internal.util.SseUtil;
 import org.glassfish.jersey.media.sse.EventOutput;
-import org.glassfish.jersey.media.sse.OutboundEvent;
 
 /**
- * {@link EventOutput} implementation that takes a filter parameter and only writes out events that match this filter.
- * Should only be used when the {@link OutboundEvent}s sent through this {@link EventOutput} contain a data object of
- * type {@link EventBean}
- * 
+ * {@link EventOutput} implementation that takes a filter parameter and only accepts events whose topic matches this
+ * filter. The filter is compiled once, when the connection is opened. The events are not filtered by
+ * {@link #write(org.glassfish.jersey.media.sse.OutboundEvent)}, but by the {@link SseEventOutputIndex}, which only
+ * passes the matching events to the output. When the output is closed, it removes itself from the index.
+ *
  * @author Ivan Iliev - Initial contribution and API
- * 
+ *
  */
 public class SseEventOutput extends EventOutput {
 
-    private List<String> regexFilters;
+    private final List<String> topicFilters;
+
+    private final List<Pattern> filterPatterns;
+
+    private final boolean matchAll;
+
+    private volatile SseEventOutputIndex index;
 
     public SseEventOutput(String topicFilter) {
         super();
-        this.regexFilters = SseUtil.convertToRegex(topicFilter);
+        this.topicFilters = Collections.unmodifiableList(SseUtil.splitTopicFilter(topicFilter));
+        List<Pattern> patterns = new ArrayList<>();
+        for (String regex : SseUtil.convertToRegex(topicFilter)) {
+            patterns.add(Pattern.compile(regex));
+        }
+        this.filterPatterns = patterns;
+        this.matchAll = SseUtil.matchesAllTopics(topicFilter);
     }
 
-    @Override
-    public void write(OutboundEvent chunk) throws IOException {
-        EventBean event = (EventBean) chunk.getData();
+    /**
+     * @return the single topic filters of this output without any whitespace
+     */
+    public List<String> getTopicFilters() {
+        return topicFilters;
+    }
+
+    /**
+     * Checks whether an event with the given topic should be sent through this output.
+     *
+     * @param topic the topic of the event
+     * @return true, if the topic matches any of the filters of this output
+     */
+    public boolean matches(String topic) {
+        if (matchAll) {
+            return true;
+        }
+        for (Pattern pattern : filterPatterns) {
+            if (pattern.matcher(topic).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        for (String filter : regexFilters) {
-            if (event.topic.matches(filter)) {
-                super.write(chunk);
-                return;
+    /**
+     * Sets the index, which the output is added to, so it can remove itself when it is closed.
+     *
+     * @param index the index
+     */
+    void setIndex(SseEventOutputIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            SseEventOutputIndex index = this.index;
+            if (index != null) {
+                index.remove(this);
             }
         }
     }
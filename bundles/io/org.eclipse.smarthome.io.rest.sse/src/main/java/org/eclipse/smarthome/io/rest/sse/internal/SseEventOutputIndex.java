@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.io.rest.sse.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * The {@link SseEventOutputIndex} keeps the {@link SseEventOutput}s of the connected clients in a tree of topic
+ * segments. Each filter of an output is indexed by its literal prefix up to the first wildcard, e.g.
+ * <code>smarthome/items</code> for <code>smarthome/items/*&#47;statechanged</code>. For an event, only the outputs
+ * on the path of its topic through the tree are matched against the topic, so a client, which is interested in the
+ * events of a single item, is not even looked at for the events of other items.
+ * <p>
+ * An output removes itself from the index, when it is closed.
+ * <p>
+ * Adding and removing outputs is synchronized, while looking up outputs is not blocked.
+ *
+ * @author agent - Initial contribution
+ */
+public class SseEventOutputIndex {
+
+    private static final String TOPIC_SEPARATOR = "/";
+
+    /** the root of the tree, which keeps the outputs with any filter without a complete first topic segment */
+    private final Node root = new Node();
+
+    /**
+     * Adds an output to the index.
+     *
+     * @param output the output
+     */
+    public synchronized void add(SseEventOutput output) {
+        output.setIndex(this);
+        for (List<String> prefix : getPrefixes(output)) {
+            Node node = root;
+            for (String segment : prefix) {
+                Node child = node.children.get(segment);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(segment, child);
+                }
+                node = child;
+            }
+            node.outputs.add(output);
+        }
+    }
+
+    /**
+     * Removes an output from the index. Removing an output, which is not indexed, has no effect.
+     *
+     * @param output the output
+     */
+    public synchronized void remove(SseEventOutput output) {
+        for (List<String> prefix : getPrefixes(output)) {
+            remove(root, prefix, output);
+        }
+    }
+
+    private static void remove(Node node, List<String> prefix, SseEventOutput output) {
+        if (prefix.isEmpty()) {
+            node.outputs.remove(output);
+            return;
+        }
+        Node child = node.children.get(prefix.get(0));
+        if (child != null) {
+            remove(child, prefix.subList(1, prefix.size()), output);
+            if (child.isEmpty()) {
+                node.children.remove(prefix.get(0));
+            }
+        }
+    }
+
+    /**
+     * Returns the outputs, whose filters match the given topic.
+     *
+     * @param topic the topic of an event
+     * @return the matching outputs, empty if no client is interested in the topic
+     */
+    public Set<SseEventOutput> getOutputs(String topic) {
+        Set<SseEventOutput> result = null;
+        Node node = root;
+        int start = 0;
+        while (node != null) {
+            for (SseEventOutput output : node.outputs) {
+                if (output.matches(topic)) {
+                    result = add(result, output);
+                }
+            }
+            int separatorIndex = topic.indexOf(TOPIC_SEPARATOR, start);
+            if (separatorIndex < 0) {
+                break;
+            }
+            node = node.children.get(topic.substring(start, separatorIndex));
+            start = separatorIndex + 1;
+        }
+        return result != null ? result : Collections.<SseEventOutput> emptySet();
+    }
+
+    /**
+     * @return the number of indexed outputs
+     */
+    public int size() {
+        Set<SseEventOutput> outputs = new LinkedHashSet<>();
+        collect(root, outputs);
+        return outputs.size();
+    }
+
+    private static void collect(Node node, Set<SseEventOutput> outputs) {
+        outputs.addAll(node.outputs);
+        for (Node child : node.children.values()) {
+            collect(child, outputs);
+        }
+    }
+
+    private static Set<SseEventOutput> add(Set<SseEventOutput> result, SseEventOutput output) {
+        Set<SseEventOutput> outputs = result != null ? result : new LinkedHashSet<SseEventOutput>();
+        outputs.add(output);
+        return outputs;
+    }
+
+    /**
+     * Returns the literal prefixes of the filters of an output, i.e. their complete topic segments before the first
+     * wildcard. The last segment of a filter is not complete, as e.g. <code>smarthome</code> matches
+     * <code>smarthome2/...</code> as well.
+     */
+    private static Set<List<String>> getPrefixes(SseEventOutput output) {
+        Set<List<String>> prefixes = new LinkedHashSet<>();
+        if (output.getTopicFilters().isEmpty()) {
+            prefixes.add(Collections.<String> emptyList());
+        }
+        for (String filter : output.getTopicFilters()) {
+            int wildcardIndex = filter.indexOf('*');
+            String literal = wildcardIndex < 0 ? filter : filter.substring(0, wildcardIndex);
+            List<String> prefix = new ArrayList<>();
+            int start = 0;
+            int separatorIndex;
+            while ((separatorIndex = literal.indexOf(TOPIC_SEPARATOR, start)) >= 0) {
+                prefix.add(literal.substring(start, separatorIndex));
+                start = separatorIndex + 1;
+            }
+            prefixes.add(prefix);
+        }
+        return prefixes;
+    }
+
+    private static class Node {
+
+        private final Map<String, Node> children = new ConcurrentHashMap<>();
+
+        private final Set<SseEventOutput> outputs = new CopyOnWriteArraySet<>();
+
+        private boolean isEmpty() {
+            return outputs.isEmpty() && children.isEmpty();
+        }
+    }
+
+}
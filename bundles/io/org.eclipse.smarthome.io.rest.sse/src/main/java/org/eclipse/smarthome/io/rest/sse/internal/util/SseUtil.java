@@ -19,6 +19,9 @@ import org.eclipse.smarthome.core.events.Event;
 import org.eclipse.smarthome.io.rest.sse.beans.EventBean;
 import org.glassfish.jersey.media.sse.OutboundEvent;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
 /**
  * Utility class containing helper methods for the SSE implementation.
  * 
@@ -28,6 +31,8 @@ import org.glassfish.jersey.media.sse.OutboundEvent;
 public class SseUtil {
     static final String TOPIC_VALIDATE_PATTERN = "(\\w*\\*?\\/?,?\\s*)*";
 
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
     static {
         boolean servlet3 = false;
         try {
@@ -45,8 +50,9 @@ public class SseUtil {
     public static final boolean SERVLET3_SUPPORT;
 
     /**
-     * Creates a new {@link OutboundEvent} object containing an {@link EventBean} created for the given Eclipse
-     * SmartHome {@link Event}.
+     * Creates a new {@link OutboundEvent} object containing the JSON representation of an {@link EventBean} created for
+     * the given Eclipse SmartHome {@link Event}. The event is serialized once, so it can be written to any number of
+     * clients without serializing it again.
      * 
      * @param event the event
      * 
@@ -59,8 +65,9 @@ public class SseUtil {
         eventBean.payload = event.getPayload();
 
         OutboundEvent.Builder eventBuilder = new OutboundEvent.Builder();
-        OutboundEvent outboundEvent = eventBuilder.name("message").mediaType(MediaType.APPLICATION_JSON_TYPE)
-                .data(eventBean).build();
+        // the JSON string is written as it is
+        OutboundEvent outboundEvent = eventBuilder.name("message").mediaType(MediaType.TEXT_PLAIN_TYPE)
+                .data(String.class, GSON.toJson(eventBean)).build();
 
         return outboundEvent;
     }
@@ -104,6 +111,25 @@ public class SseUtil {
         return StringUtils.isEmpty(topicFilter) || topicFilter.matches(TOPIC_VALIDATE_PATTERN);
     }
 
+    /**
+     * Splits the given topicFilter at any commas (",") and removes the whitespace around the single filters.
+     *
+     * @param topicFilter
+     * @return the single filters, empty if the topicFilter is empty
+     */
+    public static List<String> splitTopicFilter(String topicFilter) {
+        List<String> filters = new ArrayList<String>();
+
+        if (StringUtils.isNotEmpty(topicFilter)) {
+            StringTokenizer tokenizer = new StringTokenizer(topicFilter, ",");
+            while (tokenizer.hasMoreElements()) {
+                filters.add(tokenizer.nextToken().trim());
+            }
+        }
+
+        return filters;
+    }
+
     /**
      * Splits the given topicFilter at any commas (",") and for each token replaces any wildcards(*) with the regex
      * pattern (.*)
@@ -117,13 +143,29 @@ public class SseUtil {
         if (StringUtils.isEmpty(topicFilter)) {
             filters.add(".*");
         } else {
-            StringTokenizer tokenizer = new StringTokenizer(topicFilter, ",");
-            while (tokenizer.hasMoreElements()) {
-                String regex = tokenizer.nextToken().trim().replace("*", ".*") + ".*";
-                filters.add(regex);
+            for (String filter : splitTopicFilter(topicFilter)) {
+                filters.add(filter.replace("*", ".*") + ".*");
             }
         }
 
         return filters;
     }
+
+    /**
+     * Checks whether the given topicFilter accepts every topic, so that no regex has to be evaluated.
+     *
+     * @param topicFilter
+     * @return true if the topicFilter is empty or any of its single filters consists of wildcards only
+     */
+    public static boolean matchesAllTopics(String topicFilter) {
+        if (StringUtils.isEmpty(topicFilter)) {
+            return true;
+        }
+        for (String filter : splitTopicFilter(topicFilter)) {
+            if (StringUtils.containsOnly(filter, "*")) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
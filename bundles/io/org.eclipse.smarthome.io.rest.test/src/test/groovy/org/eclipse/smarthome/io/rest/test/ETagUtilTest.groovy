@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.io.rest.test
+
+import static org.hamcrest.CoreMatchers.*
+import static org.junit.Assert.*
+
+import org.eclipse.smarthome.io.rest.ETagUtil
+import org.junit.Test
+
+/**
+ * Test for the {@link ETagUtil}.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+class ETagUtilTest {
+
+    @Test
+    void 'assert tags depend on the versions and the parameters'() {
+        def eTag = ETagUtil.createETag([1, 2] as long[], "a", null)
+        assertThat eTag.weak, is(true)
+        assertThat ETagUtil.createETag([1, 2] as long[], "a", null), is(eTag)
+
+        assertThat ETagUtil.createETag([1, 3] as long[], "a", null), is(not(eTag))
+        assertThat ETagUtil.createETag([1, 2] as long[], "b", null), is(not(eTag))
+        assertThat ETagUtil.createETag([1, 2] as long[], "a", "null"), is(not(eTag))
+        assertThat ETagUtil.createETag([1, 2] as long[], "a,b", "c"),
+                is(not(ETagUtil.createETag([1, 2] as long[], "a", "b,c")))
+    }
+
+    @Test
+    void 'assert content tags depend on the content'() {
+        assertThat ETagUtil.createContentETag("{}"), is(ETagUtil.createContentETag("{}"))
+        assertThat ETagUtil.createContentETag("{}"), is(not(ETagUtil.createContentETag("[]")))
+    }
+}
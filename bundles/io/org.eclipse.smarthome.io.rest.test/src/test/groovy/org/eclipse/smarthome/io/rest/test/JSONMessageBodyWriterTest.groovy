@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.io.rest.test
+
+import static org.hamcrest.CoreMatchers.*
+import static org.junit.Assert.*
+
+import org.eclipse.smarthome.io.rest.JSONMessageBodyWriter
+import org.eclipse.smarthome.io.rest.JSONResponse
+import org.eclipse.smarthome.io.rest.StreamingCollection
+import org.junit.Test
+
+import com.google.common.base.Function
+
+/**
+ * Test for the {@link JSONMessageBodyWriter}.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+class JSONMessageBodyWriterTest {
+
+    static class TestDTO {
+        String name
+        int value
+        String empty
+    }
+
+    @Test
+    void 'assert streamed collection is written like a serialized list'() {
+        def mapped = 0
+        def collection = new StreamingCollection<Integer, TestDTO>([1, 2, 3], { Integer i ->
+            mapped++
+            new TestDTO(name: "dto" + i, value: i)
+        } as Function)
+        assertThat mapped, is(0)
+        assertThat collection.size(), is(3)
+
+        def out = new ByteArrayOutputStream()
+        new JSONMessageBodyWriter().writeTo(collection, collection.getClass(), null, null, null, null, out)
+
+        assertThat mapped, is(3)
+        assertThat out.toString("UTF-8"), is(equalTo(JSONResponse.GSON.toJson(collection.collect { it })))
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.io.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+
+/**
+ * {@link ETagUtil} provides helper methods for answering conditional GET requests in REST resources.
+ * <p>
+ * A resource creates the entity tag from the versions of the data it returns, before it reads the data itself. If the
+ * client already has the representation with this tag, the resource answers with 304 (Not Modified) without creating
+ * the representation again. Representations, which depend on data without a version, are tagged with a digest of the
+ * representation itself instead.
+ *
+ * @author agent - Initial contribution and API
+ */
+public class ETagUtil {
+
+    /* distinguishes the tags of this runtime from the ones of former runs, as the versions start again on restart */
+    private static final String RUNTIME_ID = Long.toHexString(System.currentTimeMillis());
+
+    /**
+     * Creates a weak entity tag from the versions of the data of a response and from the request parameters, which
+     * select or format the data, e.g. filters or the locale. The parameters are included by a SHA-1 digest of their
+     * string representations.
+     *
+     * @param versions
+     *            the versions of the data, which must have been read before the data
+     * @param parameters
+     *            the request parameters (elements can be null)
+     * @return the entity tag
+     */
+    public static EntityTag createETag(long[] versions, Object... parameters) {
+        StringBuilder value = new StringBuilder(RUNTIME_ID).append('-');
+        for (long version : versions) {
+            value.append(Long.toHexString(version)).append('-');
+        }
+        StringBuilder content = new StringBuilder();
+        for (Object parameter : parameters) {
+            // the length prefix keeps e.g. ("a,b", "c") and ("a", "b,c") apart
+            String string = parameter instanceof Object[] ? Arrays.deepToString((Object[]) parameter)
+                    : String.valueOf(parameter);
+            content.append(parameter == null ? -1 : string.length()).append(':').append(string);
+        }
+        value.append(digest(content.toString()));
+        return new EntityTag(value.toString(), true);
+    }
+
+    /**
+     * Creates a weak entity tag from the content of a response, for representations, which depend on data without a
+     * version. The content has to be created for every request, but it is not sent again, if the client already has
+     * it.
+     *
+     * @param content
+     *            the serialized representation
+     * @return the entity tag
+     */
+    public static EntityTag createContentETag(String content) {
+        return new EntityTag(digest(content), true);
+    }
+
+    private static String digest(String content) {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform has to support SHA-1
+            throw new IllegalStateException(e);
+        }
+        byte[] hash = messageDigest.digest(content.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Evaluates the conditional headers of a request against the entity tag of the current representation.
+     *
+     * @param request
+     *            the request (can be null, if the resource is not called by the JAX-RS runtime)
+     * @param eTag
+     *            the entity tag of the current representation
+     * @return the response, e.g. 304 (Not Modified), if the preconditions are not met, or null, if the representation
+     *         has to be returned
+     */
+    public static Response evaluatePreconditions(Request request, EntityTag eTag) {
+        if (request == null) {
+            return null;
+        }
+        ResponseBuilder builder = request.evaluatePreconditions(eTag);
+        return builder != null ? builder.tag(eTag).build() : null;
+    }
+
+}
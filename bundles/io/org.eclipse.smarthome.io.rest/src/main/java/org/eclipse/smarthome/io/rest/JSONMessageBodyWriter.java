@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.io.rest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes {@link JSONStreamable} entities with a {@link JsonWriter} directly to the output stream of a response.
+ *
+ * @author agent - Initial contribution and API
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class JSONMessageBodyWriter implements MessageBodyWriter<JSONStreamable> {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /* the indent of the pretty printing, the same as the one used by Gson */
+    private static final String INDENT = "  ";
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return JSONStreamable.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public long getSize(JSONStreamable entity, Class<?> type, Type genericType, Annotation[] annotations,
+            MediaType mediaType) {
+        // the size is not known before the entity has been written
+        return -1;
+    }
+
+    @Override
+    public void writeTo(JSONStreamable entity, Class<?> type, Type genericType, Annotation[] annotations,
+            MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+            throws IOException, WebApplicationException {
+        JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(entityStream, UTF_8)));
+        writer.setIndent(INDENT);
+        entity.writeJSON(JSONResponse.GSON, writer);
+        // the stream is closed by the container
+        writer.flush();
+    }
+
+}
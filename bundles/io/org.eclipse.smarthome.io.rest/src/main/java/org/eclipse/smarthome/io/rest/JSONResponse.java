@@ -7,6 +7,8 @@
  */
 package org.eclipse.smarthome.io.rest;
 
+import java.io.IOException;
+
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -21,6 +23,7 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 
 /**
  * Static helper methods to build up JSON-like Response objects and error handling.
@@ -124,20 +127,34 @@ public class JSONResponse {
      * @return Response configure for error or success
      */
     public static Response createResponse(Response.Status status, Object entity, String errormessage) {
-        JsonElement ret;
+        // configure response
+        ResponseBuilder rp = response(status);
         if (status.getFamily() == Response.Status.Family.SUCCESSFUL) {
-            // create non-null JsonElement if null!=entity
-            ret = null != entity ? GSON.toJsonTree(entity) : null;
+            // the entity is written directly to the output stream by the JSONMessageBodyWriter
+            if (null != entity) {
+                rp = rp.entity(entity instanceof JSONStreamable ? entity : new StreamableEntity(entity));
+            }
         } else {
-            ret = createErrorJson(errormessage, status, entity, null);
+            rp = rp.entity(GSON.toJson(createErrorJson(errormessage, status, entity, null)));
         }
+        return rp.build();
+    }
 
-        // configure response
-        ResponseBuilder rp = response(status);
-        if (null != ret) {
-            rp = rp.entity(GSON.toJson(ret));
+    /**
+     * wraps a single entity, so that it is serialized by the {@link JSONMessageBodyWriter}
+     */
+    private static class StreamableEntity implements JSONStreamable {
+
+        private final Object entity;
+
+        private StreamableEntity(Object entity) {
+            this.entity = entity;
+        }
+
+        @Override
+        public void writeJSON(Gson gson, JsonWriter writer) throws IOException {
+            gson.toJson(entity, entity.getClass(), writer);
         }
-        return rp.build();
     }
 
     /**
@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.io.rest;
+
+import java.io.IOException;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * An entity of a REST response, which is written as JSON directly to the output stream by the
+ * {@link JSONMessageBodyWriter}, instead of being converted to a JSON string first.
+ *
+ * @author agent - Initial contribution and API
+ */
+public interface JSONStreamable {
+
+    /**
+     * Writes the entity as JSON.
+     *
+     * @param gson the Gson instance to serialize the DTOs with
+     * @param writer the writer to write the JSON to
+     * @throws IOException if the JSON cannot be written
+     */
+    void writeJSON(Gson gson, JsonWriter writer) throws IOException;
+
+}
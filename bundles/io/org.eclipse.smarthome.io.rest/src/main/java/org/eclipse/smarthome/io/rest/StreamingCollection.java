@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.io.rest;
+
+import java.io.IOException;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A read-only collection of DTOs, which are mapped from the elements of a source, e.g. a registry, while they are
+ * iterated. When it is returned as the entity of a REST response, it is written as a JSON array one DTO after the
+ * other, so neither a list of all DTOs nor the complete JSON document is held in memory.
+ *
+ * @author agent - Initial contribution and API
+ *
+ * @param <S> the type of the source elements
+ * @param <T> the type of the DTOs
+ */
+public class StreamingCollection<S, T> extends AbstractCollection<T> implements JSONStreamable {
+
+    private final Iterable<S> source;
+
+    private final Function<? super S, ? extends T> mapper;
+
+    /**
+     * Creates a collection.
+     *
+     * @param source the source elements, which are iterated again for every iteration of the collection
+     * @param mapper the function, which maps a source element to its DTO
+     */
+    public StreamingCollection(Iterable<S> source, Function<? super S, ? extends T> mapper) {
+        if (source == null || mapper == null) {
+            throw new IllegalArgumentException("source and mapper must not be null");
+        }
+        this.source = source;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return Iterables.<S, T> transform(source, mapper).iterator();
+    }
+
+    @Override
+    public int size() {
+        if (source instanceof Collection) {
+            return ((Collection<S>) source).size();
+        }
+        return Iterables.size(source);
+    }
+
+    @Override
+    public void writeJSON(Gson gson, JsonWriter writer) throws IOException {
+        writer.beginArray();
+        for (S element : source) {
+            T dto = mapper.apply(element);
+            if (dto == null) {
+                writer.nullValue();
+            } else {
+                gson.toJson(dto, dto.getClass(), writer);
+            }
+        }
+        writer.endArray();
+    }
+
+}
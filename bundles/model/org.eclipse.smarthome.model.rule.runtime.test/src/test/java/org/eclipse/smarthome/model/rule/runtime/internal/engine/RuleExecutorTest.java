@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.model.rule.runtime.internal.engine;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.smarthome.model.rule.rules.Rule;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link RuleExecutor}.
+ *
+ * @author agent - Initial contribution
+ */
+public class RuleExecutorTest {
+
+    private final RuleExecutor executor = new RuleExecutor();
+
+    @Test
+    public void testExecutionsOfARuleRunInOrderOneAfterTheOther() throws InterruptedException {
+        Rule rule = createRule("rule");
+        final List<Integer> executions = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+        for (int i = 0; i < 50; i++) {
+            final int execution = i;
+            executor.submit(rule, new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    if (running.incrementAndGet() > 1) {
+                        overlapped.set(true);
+                    }
+                    executions.add(execution);
+                    running.decrementAndGet();
+                    return null;
+                }
+            });
+        }
+
+        assertThat(executor.awaitCompletion(5, TimeUnit.SECONDS), is(true));
+        assertThat(overlapped.get(), is(false));
+        assertThat(executions.size(), is(50));
+        for (int i = 0; i < 50; i++) {
+            assertThat(executions.get(i), is(i));
+        }
+        assertThat(executor.getMetrics().get("rule").getExecutions(), is(50L));
+    }
+
+    @Test
+    public void testShutdownRulesHaveCompletedWhenAwaitCompletionReturns() throws InterruptedException {
+        final AtomicInteger completedRules = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            executor.submit(createRule("shutdown" + i), new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    Thread.sleep(100);
+                    completedRules.incrementAndGet();
+                    return null;
+                }
+            });
+        }
+
+        assertThat(executor.awaitCompletion(5, TimeUnit.SECONDS), is(true));
+        assertThat(completedRules.get(), is(3));
+    }
+
+    @Test
+    public void testAwaitCompletionIsBoundedByTheTimeout() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        executor.submit(createRule("blocking"), new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                release.await();
+                return null;
+            }
+        });
+
+        assertThat(executor.awaitCompletion(100, TimeUnit.MILLISECONDS), is(false));
+        release.countDown();
+        assertThat(executor.awaitCompletion(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void testFailingExecutionDoesNotBlockTheRule() throws InterruptedException {
+        Rule rule = createRule("failing");
+        final AtomicBoolean executed = new AtomicBoolean();
+        executor.submit(rule, new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                throw new IllegalStateException("failure");
+            }
+        });
+        executor.submit(rule, new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                executed.set(true);
+                return null;
+            }
+        });
+
+        assertThat(executor.awaitCompletion(5, TimeUnit.SECONDS), is(true));
+        assertThat(executed.get(), is(true));
+    }
+
+    private Rule createRule(String name) {
+        Rule rule = mock(Rule.class);
+        when(rule.getName()).thenReturn(name);
+        return rule;
+    }
+
+}
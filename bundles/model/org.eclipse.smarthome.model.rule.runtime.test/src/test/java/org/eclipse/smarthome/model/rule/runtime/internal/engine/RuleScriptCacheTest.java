@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.model.rule.runtime.internal.engine;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.smarthome.model.rule.rules.Rule;
+import org.eclipse.smarthome.model.rule.runtime.internal.engine.RuleScriptCache.PreparedRule;
+import org.eclipse.smarthome.model.script.engine.ScriptEngine;
+import org.junit.Test;
+
+import com.google.inject.Injector;
+
+/**
+ * Tests for the {@link RuleScriptCache}.
+ *
+ * @author agent - Initial contribution
+ */
+public class RuleScriptCacheTest {
+
+    private int preparedRules = 0;
+
+    private final RuleScriptCache cache = new RuleScriptCache() {
+        @Override
+        PreparedRule prepare(Rule rule, ScriptEngine scriptEngine, Injector injector) {
+            preparedRules++;
+            return new PreparedRule(null, null);
+        }
+    };
+
+    @Test
+    public void testPreparedRuleIsCached() {
+        Rule rule = createRule("test.rules");
+
+        PreparedRule preparedRule = get(rule, cache.getGeneration());
+        assertThat(get(rule, cache.getGeneration()), is(sameInstance(preparedRule)));
+        assertThat(preparedRules, is(1));
+    }
+
+    @Test
+    public void testInvalidateRemovesTheRulesOfTheModel() {
+        Rule rule = createRule("test.rules");
+        Rule otherRule = createRule("other.rules");
+        PreparedRule preparedRule = get(rule, cache.getGeneration());
+        PreparedRule otherPreparedRule = get(otherRule, cache.getGeneration());
+
+        cache.invalidate("test.rules");
+
+        assertThat(get(rule, cache.getGeneration()), is(not(sameInstance(preparedRule))));
+        assertThat(get(otherRule, cache.getGeneration()), is(sameInstance(otherPreparedRule)));
+        assertThat(preparedRules, is(3));
+    }
+
+    @Test
+    public void testExecutionSubmittedBeforeInvalidateDoesNotCacheItsRule() {
+        Rule staleRule = createRule("test.rules");
+        long generation = cache.getGeneration();
+
+        cache.invalidate("test.rules");
+
+        PreparedRule preparedRule = get(staleRule, generation);
+        assertThat(preparedRule, is(notNullValue()));
+        assertThat(get(staleRule, generation), is(not(sameInstance(preparedRule))));
+        assertThat(preparedRules, is(2));
+
+        // an execution submitted after the invalidation caches the rule again
+        preparedRule = get(staleRule, cache.getGeneration());
+        assertThat(get(staleRule, cache.getGeneration()), is(sameInstance(preparedRule)));
+        assertThat(preparedRules, is(3));
+    }
+
+    @Test
+    public void testClearRemovesAllRules() {
+        Rule rule = createRule("test.rules");
+        long generation = cache.getGeneration();
+        get(rule, generation);
+
+        cache.clear();
+
+        get(rule, generation);
+        get(rule, cache.getGeneration());
+        assertThat(preparedRules, is(3));
+    }
+
+    private PreparedRule get(Rule rule, long generation) {
+        return cache.get(rule, generation, null, null);
+    }
+
+    private Rule createRule(String modelName) {
+        Resource resource = mock(Resource.class);
+        when(resource.getURI()).thenReturn(URI.createURI("rules/" + modelName));
+        Rule rule = mock(Rule.class);
+        when(rule.eResource()).thenReturn(resource);
+        return rule;
+    }
+
+}
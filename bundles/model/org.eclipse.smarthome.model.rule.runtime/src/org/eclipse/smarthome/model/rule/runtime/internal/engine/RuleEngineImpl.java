@@ -11,7 +11,9 @@ import static org.eclipse.smarthome.model.rule.runtime.internal.engine.RuleTrigg
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -38,10 +40,10 @@ import org.eclipse.smarthome.model.rule.jvmmodel.RulesJvmModelInferrer;
 import org.eclipse.smarthome.model.rule.rules.Rule;
 import org.eclipse.smarthome.model.rule.rules.RuleModel;
 import org.eclipse.smarthome.model.rule.runtime.RuleEngine;
+import org.eclipse.smarthome.model.rule.runtime.internal.engine.RuleScriptCache.PreparedRule;
 import org.eclipse.smarthome.model.script.engine.Script;
 import org.eclipse.smarthome.model.script.engine.ScriptEngine;
 import org.eclipse.smarthome.model.script.engine.ScriptExecutionException;
-import org.eclipse.smarthome.model.script.engine.ScriptExecutionThread;
 import org.eclipse.xtext.naming.QualifiedName;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,6 +55,9 @@ import com.google.inject.Injector;
  * This class is the core of the openHAB rule engine.
  * It listens to changes to the rules folder, evaluates the trigger conditions of the rules and
  * schedules them for execution dependent on their triggering conditions.
+ * <p>
+ * Triggered rules are executed by a {@link RuleExecutor} on a thread pool, serialized per rule. If the configuration
+ * property {@code coalesce} is set to {@code true}, a pending execution of a rule is replaced by a newly triggered one.
  *
  * @author Kai Kreuzer - Initial contribution and API
  * @author Oliver Libutzki - Bugfixing
@@ -62,6 +67,11 @@ import com.google.inject.Injector;
 public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeListener, ModelRepositoryChangeListener,
         RuleEngine, EventSubscriber {
 
+    private static final String CONFIG_COALESCE = "coalesce";
+
+    /** the maximum time in seconds to wait for the shutdown rules on deactivation */
+    private static final long SHUTDOWN_TIMEOUT = 10;
+
     private final Logger logger = LoggerFactory.getLogger(RuleEngineImpl.class);
 
     protected final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
@@ -74,6 +84,10 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
 
     private Injector injector;
 
+    private final RuleExecutor ruleExecutor = new RuleExecutor();
+
+    private final RuleScriptCache scriptCache = new RuleScriptCache();
+
     private ScheduledFuture<?> startupJob;
 
     // this flag is used to signal that items are still being added and that we hence do not consider the rule engine
@@ -87,7 +101,8 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
         }
     };
 
-    public void activate() {
+    public void activate(Map<String, Object> config) {
+        modified(config);
         injector = RulesStandaloneSetup.getInjector();
         triggerManager = injector.getInstance(RuleTriggerManager.class);
 
@@ -116,11 +131,30 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
         scheduleStartupRules();
     }
 
+    public void modified(Map<String, Object> config) {
+        Object coalesce = config != null ? config.get(CONFIG_COALESCE) : null;
+        ruleExecutor.setCoalesce(coalesce != null && Boolean.parseBoolean(coalesce.toString().trim()));
+    }
+
     public void deactivate() {
-        // execute all scripts that were registered for system shutdown
+        if (startupJob != null) {
+            startupJob.cancel(false);
+        }
+
+        // execute all scripts that were registered for system shutdown and wait for them, before the services they
+        // use go away
         executeRules(triggerManager.getRules(SHUTDOWN));
+        try {
+            if (!ruleExecutor.awaitCompletion(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+                logger.warn("Rules are still running {} seconds after the rule engine has been deactivated.",
+                        SHUTDOWN_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
         triggerManager.clearAll();
         triggerManager = null;
+        scriptCache.clear();
     }
 
     public void setItemRegistry(ItemRegistry itemRegistry) {
@@ -148,6 +182,7 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
     }
 
     public void unsetScriptEngine(ScriptEngine scriptEngine) {
+        scriptCache.clear();
         this.scriptEngine = null;
     }
 
@@ -247,6 +282,7 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
                 if (type == org.eclipse.smarthome.model.core.EventType.REMOVED
                         || type == org.eclipse.smarthome.model.core.EventType.MODIFIED) {
                     triggerManager.removeRuleModel(model);
+                    scriptCache.invalidate(modelName);
                 }
 
                 // add new and modified rules to the trigger sets
@@ -299,25 +335,30 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
         }
     }
 
-    protected synchronized void executeRule(Rule rule, RuleEvaluationContext context) {
-        Script script = scriptEngine.newScriptFromXExpression(rule.getScript());
+    protected void executeRule(final Rule rule, final RuleEvaluationContext context) {
+        final long cacheGeneration = scriptCache.getGeneration();
+        ruleExecutor.submit(rule, new Callable<Object>() {
+            @Override
+            public Object call() throws ScriptExecutionException {
+                PreparedRule preparedRule = scriptCache.get(rule, cacheGeneration, scriptEngine, injector);
 
-        logger.debug("Executing rule '{}'", rule.getName());
+                logger.debug("Executing rule '{}'", rule.getName());
 
-        context.setGlobalContext(RuleContextHelper.getContext(rule, injector));
+                context.setGlobalContext(preparedRule.getGlobalContext());
 
-        ScriptExecutionThread thread = new ScriptExecutionThread(rule.getName(), script, context);
-        thread.start();
+                return preparedRule.getScript().execute(context);
+            }
+        });
     }
 
-    protected synchronized void executeRules(Iterable<Rule> rules) {
+    protected void executeRules(Iterable<Rule> rules) {
         for (Rule rule : rules) {
             RuleEvaluationContext context = new RuleEvaluationContext();
             executeRule(rule, context);
         }
     }
 
-    protected synchronized void executeRules(Iterable<Rule> rules, ChannelTriggeredEvent event) {
+    protected void executeRules(Iterable<Rule> rules, ChannelTriggeredEvent event) {
         for (Rule rule : rules) {
             RuleEvaluationContext context = new RuleEvaluationContext();
             context.newValue(QualifiedName.create(RulesJvmModelInferrer.VAR_RECEIVED_EVENT), event);
@@ -325,7 +366,7 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
         }
     }
 
-    protected synchronized void executeRules(Iterable<Rule> rules, Command command) {
+    protected void executeRules(Iterable<Rule> rules, Command command) {
         for (Rule rule : rules) {
             RuleEvaluationContext context = new RuleEvaluationContext();
             context.newValue(QualifiedName.create(RulesJvmModelInferrer.VAR_RECEIVED_COMMAND), command);
@@ -333,7 +374,7 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
         }
     }
 
-    protected synchronized void executeRules(Iterable<Rule> rules, State oldState) {
+    protected void executeRules(Iterable<Rule> rules, State oldState) {
         for (Rule rule : rules) {
             RuleEvaluationContext context = new RuleEvaluationContext();
             context.newValue(QualifiedName.create(RulesJvmModelInferrer.VAR_PREVIOUS_STATE), oldState);
@@ -341,6 +382,15 @@ public class RuleEngineImpl implements ItemRegistryChangeListener, StateChangeLi
         }
     }
 
+    /**
+     * Returns the execution metrics of all rules, which have been triggered so far.
+     *
+     * @return the metrics by rule name
+     */
+    public Map<String, RuleExecutionMetrics> getRuleExecutionMetrics() {
+        return ruleExecutor.getMetrics();
+    }
+
     /**
      * we need to be able to deactivate the rule execution, otherwise the openHAB designer
      * would also execute the rules.
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.model.rule.runtime.internal.engine;
+
+/**
+ * The {@link RuleExecutionMetrics} hold the statistics of the executions of a rule. All times are in nanoseconds.
+ *
+ * @author agent - Initial contribution and API
+ */
+public class RuleExecutionMetrics {
+
+    private long executions;
+
+    private long coalescedExecutions;
+
+    private long totalQueueTime;
+
+    private long maxQueueTime;
+
+    private long totalRunTime;
+
+    private long maxRunTime;
+
+    synchronized void recordExecution(long queueTime, long runTime) {
+        executions++;
+        totalQueueTime += queueTime;
+        maxQueueTime = Math.max(maxQueueTime, queueTime);
+        totalRunTime += runTime;
+        maxRunTime = Math.max(maxRunTime, runTime);
+    }
+
+    synchronized void recordCoalesced() {
+        coalescedExecutions++;
+    }
+
+    /**
+     * @return the number of finished executions
+     */
+    public synchronized long getExecutions() {
+        return executions;
+    }
+
+    /**
+     * @return the number of executions, which have been replaced by a later execution before they were run
+     */
+    public synchronized long getCoalescedExecutions() {
+        return coalescedExecutions;
+    }
+
+    /**
+     * @return the average time between submitting and starting an execution
+     */
+    public synchronized long getAverageQueueTime() {
+        return executions > 0 ? totalQueueTime / executions : 0;
+    }
+
+    /**
+     * @return the maximum time between submitting and starting an execution
+     */
+    public synchronized long getMaxQueueTime() {
+        return maxQueueTime;
+    }
+
+    /**
+     * @return the average time an execution has been running
+     */
+    public synchronized long getAverageRunTime() {
+        return executions > 0 ? totalRunTime / executions : 0;
+    }
+
+    /**
+     * @return the maximum time an execution has been running
+     */
+    public synchronized long getMaxRunTime() {
+        return maxRunTime;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "executions=" + executions + ", coalesced=" + coalescedExecutions + ", avgQueueTime="
+                + getAverageQueueTime() + "ns, maxQueueTime=" + maxQueueTime + "ns, avgRunTime=" + getAverageRunTime()
+                + "ns, maxRunTime=" + maxRunTime + "ns";
+    }
+
+}
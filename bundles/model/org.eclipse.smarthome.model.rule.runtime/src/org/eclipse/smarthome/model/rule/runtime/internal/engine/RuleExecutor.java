@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.model.rule.runtime.internal.engine;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.eclipse.smarthome.model.rule.rules.Rule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link RuleExecutor} runs rule executions on the thread pool {@value #THREAD_POOL_NAME} of the
+ * {@link ThreadPoolManager}, so the number of concurrently running rules is bounded by the pool size, which can be
+ * configured as {@code org.eclipse.smarthome.threadpool:ruleEngine=<poolSize>}.
+ * <p>
+ * The executions of a single rule are serialized: they run one after the other in the order in which they have been
+ * submitted, while different rules run in parallel. If coalescing is enabled, a new execution replaces an execution
+ * of the same rule, which is still waiting to be run, so that a burst of triggers results in a single execution with
+ * the latest context.
+ * <p>
+ * For each rule name the time executions have spent waiting in the queue and running is recorded.
+ *
+ * @author agent - Initial contribution and API
+ */
+class RuleExecutor {
+
+    static final String THREAD_POOL_NAME = "ruleEngine";
+
+    private final Logger logger = LoggerFactory.getLogger(RuleExecutor.class);
+
+    /** the queues of the rules with pending or running executions, guarded by itself */
+    private final Map<Rule, RuleQueue> queues = new HashMap<>();
+
+    private final ConcurrentMap<String, RuleExecutionMetrics> metrics = new ConcurrentHashMap<>();
+
+    private volatile boolean coalesce = false;
+
+    /**
+     * Enables or disables the coalescing of pending executions of the same rule.
+     *
+     * @param coalesce true if a new execution should replace a pending one
+     */
+    void setCoalesce(boolean coalesce) {
+        this.coalesce = coalesce;
+    }
+
+    /**
+     * Submits an execution of a rule. It is run after all previously submitted executions of the same rule.
+     *
+     * @param rule the rule
+     * @param execution the execution
+     */
+    void submit(Rule rule, Callable<?> execution) {
+        PendingExecution pendingExecution = new PendingExecution(execution, System.nanoTime());
+        RuleQueue queue;
+        boolean schedule;
+        synchronized (queues) {
+            queue = queues.get(rule);
+            if (queue == null) {
+                queue = new RuleQueue(rule);
+                queues.put(rule, queue);
+            }
+            schedule = queue.add(pendingExecution, coalesce);
+        }
+        if (schedule) {
+            getPool().execute(queue);
+        }
+    }
+
+    /**
+     * Waits until all submitted executions have been run.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return true if all executions have been run, false if the timeout has elapsed before
+     * @throws InterruptedException if the current thread has been interrupted while waiting
+     */
+    boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (queues) {
+            while (!queues.isEmpty()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(queues, remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns the execution metrics of all rules, which have been executed so far.
+     *
+     * @return an unmodifiable map of the metrics by rule name
+     */
+    Map<String, RuleExecutionMetrics> getMetrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    private RuleExecutionMetrics getMetrics(String ruleName) {
+        RuleExecutionMetrics ruleMetrics = metrics.get(ruleName);
+        if (ruleMetrics == null) {
+            RuleExecutionMetrics newMetrics = new RuleExecutionMetrics();
+            ruleMetrics = metrics.putIfAbsent(ruleName, newMetrics);
+            if (ruleMetrics == null) {
+                ruleMetrics = newMetrics;
+            }
+        }
+        return ruleMetrics;
+    }
+
+    private ExecutorService getPool() {
+        return ThreadPoolManager.getPool(THREAD_POOL_NAME);
+    }
+
+    private static class PendingExecution {
+
+        private Callable<?> execution;
+
+        private final long submitTime;
+
+        private PendingExecution(Callable<?> execution, long submitTime) {
+            this.execution = execution;
+            this.submitTime = submitTime;
+        }
+    }
+
+    /**
+     * The queue of a single rule. At most one task per queue is scheduled on the pool at a time; it runs the first
+     * pending execution and reschedules itself, if there are more, so that other rules get their turn in between.
+     * All fields are guarded by {@link RuleExecutor#queues}.
+     */
+    private class RuleQueue implements Runnable {
+
+        private final Rule rule;
+
+        private final ArrayDeque<PendingExecution> pending = new ArrayDeque<>();
+
+        private boolean scheduled = false;
+
+        private RuleQueue(Rule rule) {
+            this.rule = rule;
+        }
+
+        /**
+         * @return true if the queue has to be scheduled on the pool
+         */
+        private boolean add(PendingExecution pendingExecution, boolean coalesce) {
+            PendingExecution last = pending.peekLast();
+            if (coalesce && last != null) {
+                // keep the submit time of the older execution, as that is how long the trigger has been waiting
+                last.execution = pendingExecution.execution;
+                getMetrics(rule.getName()).recordCoalesced();
+            } else {
+                pending.add(pendingExecution);
+            }
+            if (scheduled) {
+                return false;
+            }
+            scheduled = true;
+            return true;
+        }
+
+        @Override
+        public void run() {
+            PendingExecution pendingExecution;
+            synchronized (queues) {
+                pendingExecution = pending.poll();
+            }
+
+            String ruleName = rule.getName();
+            long startTime = System.nanoTime();
+            try {
+                pendingExecution.execution.call();
+            } catch (Exception e) {
+                String msg = e.getMessage();
+                if (msg == null) {
+                    logger.error("Rule '{}'", ruleName, e.getCause());
+                } else {
+                    logger.error("Rule '{}': {}", ruleName, msg);
+                }
+            } finally {
+                long endTime = System.nanoTime();
+                long queueTime = startTime - pendingExecution.submitTime;
+                long runTime = endTime - startTime;
+                getMetrics(ruleName).recordExecution(queueTime, runTime);
+                logger.trace("Executed rule '{}' in {}ms after waiting {}ms", ruleName,
+                        TimeUnit.NANOSECONDS.toMillis(runTime), TimeUnit.NANOSECONDS.toMillis(queueTime));
+
+                boolean reschedule;
+                synchronized (queues) {
+                    reschedule = !pending.isEmpty();
+                    if (!reschedule) {
+                        scheduled = false;
+                        queues.remove(rule);
+                        queues.notifyAll();
+                    }
+                }
+                if (reschedule) {
+                    getPool().execute(this);
+                }
+            }
+        }
+    }
+
+}
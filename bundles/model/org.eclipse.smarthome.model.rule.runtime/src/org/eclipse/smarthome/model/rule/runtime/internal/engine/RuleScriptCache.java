@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.model.rule.runtime.internal.engine;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.smarthome.model.rule.rules.Rule;
+import org.eclipse.smarthome.model.script.engine.Script;
+import org.eclipse.smarthome.model.script.engine.ScriptEngine;
+import org.eclipse.xtext.xbase.interpreter.IEvaluationContext;
+
+import com.google.inject.Injector;
+
+/**
+ * The {@link RuleScriptCache} keeps the {@link Script} and the global evaluation context of each rule, so that they
+ * do not have to be created again whenever the rule is triggered. A script does not hold any state of an execution,
+ * so it can be reused by all executions of its rule.
+ * <p>
+ * The entries of a rule model have to be invalidated, when the model is modified or removed. Every invalidation starts
+ * a new generation of the cache. An execution, which has been submitted before an invalidation, must not cache the
+ * script of its rule anymore, as the rule might no longer be part of its model. Therefore the generation has to be
+ * obtained, when an execution is submitted, and passed to {@link #get(Rule, long, ScriptEngine, Injector)}.
+ *
+ * @author agent - Initial contribution and API
+ */
+@SuppressWarnings("restriction")
+class RuleScriptCache {
+
+    private final Map<Rule, PreparedRule> preparedRules = new ConcurrentHashMap<>();
+
+    /** guarded by this */
+    private long generation = 0;
+
+    /**
+     * Returns the current generation of the cache.
+     *
+     * @return the generation
+     */
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the prepared script of a rule, creating it if it is not cached yet. A created script is only cached, if
+     * the cache has not been invalidated since the given generation.
+     *
+     * @param rule the rule
+     * @param generation the generation of the cache, when the execution of the rule has been submitted
+     * @param scriptEngine the script engine to create the script
+     * @param injector the injector to create the global context
+     * @return the prepared rule
+     */
+    PreparedRule get(Rule rule, long generation, ScriptEngine scriptEngine, Injector injector) {
+        PreparedRule preparedRule = preparedRules.get(rule);
+        if (preparedRule == null) {
+            // creating the same entry twice in parallel does no harm, the global context is shared per model anyway
+            preparedRule = prepare(rule, scriptEngine, injector);
+            synchronized (this) {
+                if (generation == this.generation) {
+                    preparedRules.put(rule, preparedRule);
+                }
+            }
+        }
+        return preparedRule;
+    }
+
+    /**
+     * Creates the script and the global context of a rule.
+     *
+     * @param rule the rule
+     * @param scriptEngine the script engine to create the script
+     * @param injector the injector to create the global context
+     * @return the prepared rule
+     */
+    PreparedRule prepare(Rule rule, ScriptEngine scriptEngine, Injector injector) {
+        return new PreparedRule(scriptEngine.newScriptFromXExpression(rule.getScript()),
+                RuleContextHelper.getContext(rule, injector));
+    }
+
+    /**
+     * Removes the entries of all rules of the given model and of all rules, which are no longer part of a model.
+     *
+     * @param modelName the name of the rule model
+     */
+    synchronized void invalidate(String modelName) {
+        generation++;
+        for (Iterator<Rule> iterator = preparedRules.keySet().iterator(); iterator.hasNext();) {
+            Resource resource = iterator.next().eResource();
+            if (resource == null || modelName.equals(resource.getURI().lastSegment())) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    synchronized void clear() {
+        generation++;
+        preparedRules.clear();
+    }
+
+    /**
+     * The script of a rule together with the global context of its rule model.
+     */
+    static class PreparedRule {
+
+        private final Script script;
+
+        private final IEvaluationContext globalContext;
+
+        PreparedRule(Script script, IEvaluationContext globalContext) {
+            this.script = script;
+            this.globalContext = globalContext;
+        }
+
+        Script getScript() {
+            return script;
+        }
+
+        IEvaluationContext getGlobalContext() {
+            return globalContext;
+        }
+    }
+
+}
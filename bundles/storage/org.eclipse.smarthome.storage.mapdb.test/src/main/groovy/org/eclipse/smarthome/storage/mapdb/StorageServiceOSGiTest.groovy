@@ -105,6 +105,91 @@ class StorageServiceOSGiTest extends OSGiTest {
         assertThat bigDecimal instanceof BigDecimal, is(true)
     }
     
+    @Test
+    void 'assert writes are committed together in group commit mode'() {
+        storageService.modified([commitMode: 'group', commitInterval: 60000L, commitSize: 3])
+
+        storage.put 'Key1', new PersistedItem('String', ['LIGHT'])
+        storage.put 'Key2', new PersistedItem('Number', ['TEMPERATURE'])
+        assertThat storageService.pendingWrites, is(2)
+        assertThat storage.get('Key2').itemType, is('Number')
+
+        storage.remove 'Key1'
+        assertThat storageService.pendingWrites, is(0)
+
+        storage.put 'Key3', new PersistedItem('Switch', ['LIGHT'])
+        assertThat storageService.pendingWrites, is(1)
+        storage.flush()
+        assertThat storageService.pendingWrites, is(0)
+        assertThat storage.getKeys().size(), is(2)
+
+        storageService.modified([commitMode: 'immediate'])
+        storage.remove 'Key2'
+        storage.remove 'Key3'
+        assertThat storageService.pendingWrites, is(0)
+    }
+
+    @Test
+    void 'assert pending writes are committed after the commit interval'() {
+        storageService.modified([commitMode: 'group', commitInterval: 100L, commitSize: 1000])
+
+        storage.put 'Key1', new PersistedItem('String', ['LIGHT'])
+        assertThat storageService.pendingWrites, is(1)
+        waitForAssert {
+            assertThat storageService.pendingWrites, is(0)
+        }
+
+        storageService.modified([commitMode: 'immediate'])
+        storage.remove 'Key1'
+    }
+
+    @Test
+    void 'assert values are readable after the codec has been changed'() {
+        storageService.modified([codec: 'json'])
+        storage.put 'Key1', new PersistedItem('String', ['LIGHT'])
+
+        storageService.modified([codec: 'binary'])
+        storage.put 'Key2', new PersistedItem('Number', ['TEMPERATURE'])
+
+        storageService.modified([codec: 'json', cacheSize: 0])
+        assertThat storage.get('Key1').itemType, is('String')
+        assertThat storage.get('Key2').itemType, is('Number')
+        assertThat storage.get('Key2').groupNames, is(['TEMPERATURE'])
+        assertThat storage.getValues().size(), is(2)
+
+        storageService.modified([:])
+        storage.remove 'Key1'
+        storage.remove 'Key2'
+    }
+
+    @Test
+    void 'assert decoded values are not shared by default'() {
+        storage.put 'Key1', new PersistedItem('String', ['LIGHT'])
+
+        PersistedItem pItem = storage.get 'Key1'
+        assertThat storage.get('Key1'), is(not(sameInstance(pItem)))
+        assertThat storage.get('Key1').itemType, is('String')
+
+        storage.remove 'Key1'
+    }
+
+    @Test
+    void 'assert decoded values are cached until they are overwritten'() {
+        storageService.modified([cacheSize: 100])
+        storage.put 'Key1', new PersistedItem('String', ['LIGHT'])
+
+        PersistedItem pItem = storage.get 'Key1'
+        assertThat storage.get('Key1'), is(sameInstance(pItem))
+        assertThat storage.getValues().iterator().next(), is(sameInstance(pItem))
+
+        storage.put 'Key1', new PersistedItem('Number', ['TEMPERATURE'])
+        assertThat storage.get('Key1').itemType, is('Number')
+
+        storage.remove 'Key1'
+        assertThat storage.get('Key1'), is(nullValue())
+        storageService.modified([:])
+    }
+
     private class MockConfiguration {
         private Map<String, Object> configuration = new HashMap<String, Object>();
         
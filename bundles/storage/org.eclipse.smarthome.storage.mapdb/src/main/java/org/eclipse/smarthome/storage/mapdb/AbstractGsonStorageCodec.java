@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.storage.mapdb;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Base class for {@link StorageCodec}s which map the values by {@code Gson}. The JSON mapping helps maintaining version
+ * compatibility of the stored data.
+ *
+ * @author agent - Initial contribution and API
+ */
+abstract class AbstractGsonStorageCodec implements StorageCodec {
+
+    protected final Gson mapper = new GsonBuilder().registerTypeAdapterFactory(new PropertiesTypeAdapterFactory())
+            .create();
+
+    /**
+     * Loads the class with the given name. A special classloader (other than the one of the MapDB bundle) is used in
+     * order to load the classes in the context of the calling bundle.
+     *
+     * @param className the qualified class name
+     * @param classLoader the class loader or null to use {@link Class#forName(String)}
+     * @return the loaded class
+     * @throws ClassNotFoundException if the class cannot be found
+     */
+    protected Class<?> loadClass(String className, ClassLoader classLoader) throws ClassNotFoundException {
+        if (classLoader == null) {
+            return Class.forName(className);
+        } else {
+            return classLoader.loadClass(className);
+        }
+    }
+
+}
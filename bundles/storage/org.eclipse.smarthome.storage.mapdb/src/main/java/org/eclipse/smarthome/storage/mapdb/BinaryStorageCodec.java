@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.storage.mapdb;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.Map.Entry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.internal.LazilyParsedNumber;
+
+/**
+ * The {@link BinaryStorageCodec} stores the values in a compact binary format. A value is mapped to a JSON tree by
+ * {@code Gson} as with the {@link JsonStorageCodec}, but the tree is written as tagged binary data instead of text,
+ * and the class of the value is referenced by an id of the {@link ClassIdTable} instead of its qualified name.
+ *
+ * The format of a value is: the version byte, the class id and the JSON tree, whereas numbers are written as variable
+ * length integers and strings as their length followed by their UTF-8 bytes. Numbers within the tree keep their
+ * textual representation, so that they are read with the same precision as from JSON text.
+ *
+ * @author agent - Initial contribution and API
+ */
+public class BinaryStorageCodec extends AbstractGsonStorageCodec {
+
+    private static final byte VERSION = 1;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_TRUE = 1;
+    private static final byte TAG_FALSE = 2;
+    private static final byte TAG_NUMBER = 3;
+    private static final byte TAG_STRING = 4;
+    private static final byte TAG_ARRAY = 5;
+    private static final byte TAG_OBJECT = 6;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Logger logger = LoggerFactory.getLogger(BinaryStorageCodec.class);
+
+    private final ClassIdTable classIdTable;
+
+    BinaryStorageCodec(ClassIdTable classIdTable) {
+        this.classIdTable = classIdTable;
+    }
+
+    @Override
+    public Object encode(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Cannot serialize NULL");
+        }
+
+        Output out = new Output();
+        out.write(VERSION);
+        out.writeVarInt(classIdTable.getId(value.getClass().getName()));
+        writeElement(out, mapper.toJsonTree(value));
+        return out.toByteArray();
+    }
+
+    @Override
+    public boolean canDecode(Object encoded) {
+        return encoded instanceof byte[] && ((byte[]) encoded).length > 0 && ((byte[]) encoded)[0] == VERSION;
+    }
+
+    @Override
+    public Object decode(Object encoded, ClassLoader classLoader) {
+        String className = null;
+        try {
+            Input in = new Input((byte[]) encoded);
+            in.readByte();
+            int classId = in.readVarInt();
+            className = classIdTable.getClassName(classId);
+            if (className == null) {
+                logger.warn("Couldn't deserialize value with unknown class id {}.", classId);
+                return null;
+            }
+
+            Object value = mapper.fromJson(readElement(in), loadClass(className, classLoader));
+            logger.trace("deserialized value '{}' from MapDB", value);
+            return value;
+        } catch (Exception e) {
+            logger.warn("Couldn't deserialize value of type '{}'. Root cause is: {}", className, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeElement(Output out, JsonElement element) {
+        if (element == null || element.isJsonNull()) {
+            out.write(TAG_NULL);
+        } else if (element.isJsonPrimitive()) {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                out.write(primitive.getAsBoolean() ? TAG_TRUE : TAG_FALSE);
+            } else if (primitive.isNumber()) {
+                out.write(TAG_NUMBER);
+                out.writeString(primitive.getAsString());
+            } else {
+                out.write(TAG_STRING);
+                out.writeString(primitive.getAsString());
+            }
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            out.write(TAG_ARRAY);
+            out.writeVarInt(array.size());
+            for (JsonElement child : array) {
+                writeElement(out, child);
+            }
+        } else {
+            JsonObject object = element.getAsJsonObject();
+            out.write(TAG_OBJECT);
+            out.writeVarInt(object.entrySet().size());
+            for (Entry<String, JsonElement> entry : object.entrySet()) {
+                out.writeString(entry.getKey());
+                writeElement(out, entry.getValue());
+            }
+        }
+    }
+
+    private JsonElement readElement(Input in) {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return JsonNull.INSTANCE;
+            case TAG_TRUE:
+                return new JsonPrimitive(Boolean.TRUE);
+            case TAG_FALSE:
+                return new JsonPrimitive(Boolean.FALSE);
+            case TAG_NUMBER:
+                return new JsonPrimitive(new LazilyParsedNumber(in.readString()));
+            case TAG_STRING:
+                return new JsonPrimitive(in.readString());
+            case TAG_ARRAY:
+                int length = in.readVarInt();
+                JsonArray array = new JsonArray();
+                for (int i = 0; i < length; i++) {
+                    array.add(readElement(in));
+                }
+                return array;
+            case TAG_OBJECT:
+                int size = in.readVarInt();
+                JsonObject object = new JsonObject();
+                for (int i = 0; i < size; i++) {
+                    String name = in.readString();
+                    object.add(name, readElement(in));
+                }
+                return object;
+            default:
+                throw new IllegalStateException("Unknown tag " + tag + " in stored value.");
+        }
+    }
+
+    private static class Output extends ByteArrayOutputStream {
+
+        private Output() {
+            super(64);
+        }
+
+        private void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        private void writeString(String value) {
+            byte[] bytes = value.getBytes(UTF_8);
+            writeVarInt(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    private static class Input {
+
+        private final byte[] bytes;
+        private int position = 0;
+
+        private Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private byte readByte() {
+            if (position >= bytes.length) {
+                throw new IllegalStateException("Unexpected end of stored value.");
+            }
+            return bytes[position++];
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = readByte();
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        private String readString() {
+            int length = readVarInt();
+            if (length < 0 || position + length > bytes.length) {
+                throw new IllegalStateException("Unexpected end of stored value.");
+            }
+            String value = new String(bytes, position, length, UTF_8);
+            position += length;
+            return value;
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.storage.mapdb;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.mapdb.DB;
+
+/**
+ * The {@link ClassIdTable} assigns a small numeric id to every class name, so that the stored values only need to
+ * contain the id instead of the qualified class name.
+ *
+ * The table is stored in the same database as the values. Thus a new id is committed together with the first value
+ * which uses it.
+ *
+ * @author agent - Initial contribution and API
+ */
+class ClassIdTable {
+
+    private static final String TABLE_NAME = "org.eclipse.smarthome.storage.mapdb.classIds";
+
+    private final Map<String, Integer> storedIds;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private final Map<Integer, String> classNames = new ConcurrentHashMap<>();
+
+    ClassIdTable(DB db) {
+        storedIds = db.createTreeMap(TABLE_NAME).makeOrGet();
+        for (Entry<String, Integer> entry : storedIds.entrySet()) {
+            ids.put(entry.getKey(), entry.getValue());
+            classNames.put(entry.getValue(), entry.getKey());
+        }
+    }
+
+    /**
+     * Returns the id of the given class name. A new id is assigned if the class name is not known yet.
+     *
+     * @param className the qualified class name
+     * @return the id of the class name
+     */
+    int getId(String className) {
+        Integer id = ids.get(className);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(className);
+            if (id == null) {
+                id = classNames.size() + 1;
+                storedIds.put(className, id);
+                classNames.put(id, className);
+                ids.put(className, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Returns the class name with the given id.
+     *
+     * @param id the id
+     * @return the qualified class name or null, if the id is unknown
+     */
+    String getClassName(int id) {
+        return classNames.get(id);
+    }
+
+}
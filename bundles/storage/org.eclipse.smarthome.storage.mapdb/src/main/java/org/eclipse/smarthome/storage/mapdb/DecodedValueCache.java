@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.storage.mapdb;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@link DecodedValueCache} is a bounded LRU cache for decoded storage values, keyed by the storage name and the
+ * key of the value. It spares the {@link StorageCodec} and the class loading on repeated reads.
+ *
+ * Every write invalidates the entry of the written key. To avoid that a value which has been read before a concurrent
+ * write is cached afterwards, a value can only be added with the modification stamp which has been obtained before the
+ * value was read.
+ *
+ * @author agent - Initial contribution and API
+ */
+class DecodedValueCache {
+
+    private static class CacheKey {
+        private final String storageName;
+        private final String key;
+
+        private CacheKey(String storageName, String key) {
+            this.storageName = storageName;
+            this.key = key;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * storageName.hashCode() + key.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return storageName.equals(other.storageName) && key.equals(other.key);
+        }
+    }
+
+    private final Map<CacheKey, Object> values = new LinkedHashMap<CacheKey, Object>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, Object> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    private int maxSize;
+
+    private long modificationStamp = 0;
+
+    DecodedValueCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Changes the maximum number of cached values.
+     *
+     * @param maxSize the maximum number of cached values, 0 disables the cache
+     */
+    synchronized void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        values.clear();
+    }
+
+    /**
+     * Returns the cached value.
+     *
+     * @param storageName the name of the storage
+     * @param key the key of the value
+     * @return the cached value or null, if the value is not cached
+     */
+    synchronized Object get(String storageName, String key) {
+        return values.get(new CacheKey(storageName, key));
+    }
+
+    /**
+     * Returns the current modification stamp, which must be obtained before a value is read from the storage.
+     *
+     * @return the modification stamp
+     */
+    synchronized long getModificationStamp() {
+        return modificationStamp;
+    }
+
+    /**
+     * Adds a decoded value, unless a write has happened since the given modification stamp has been obtained.
+     *
+     * @param storageName the name of the storage
+     * @param key the key of the value
+     * @param value the decoded value
+     * @param stamp the modification stamp obtained before the value was read
+     */
+    synchronized void put(String storageName, String key, Object value, long stamp) {
+        if (maxSize > 0 && value != null && stamp == modificationStamp) {
+            values.put(new CacheKey(storageName, key), value);
+        }
+    }
+
+    /**
+     * Removes the value of the given key. Must be called after the value has been written.
+     *
+     * @param storageName the name of the storage
+     * @param key the key of the value
+     */
+    synchronized void invalidate(String storageName, String key) {
+        modificationStamp++;
+        values.remove(new CacheKey(storageName, key));
+    }
+
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.storage.mapdb;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link JsonStorageCodec} stores the values as JSON strings (generated by {@code Gson}). Since we do not know the
+ * type of a value while deserializing it afterwards, its qualified type name is prepended to the JSON string.
+ *
+ * This has been the only format before the {@link BinaryStorageCodec} was introduced.
+ *
+ * @author Thomas.Eichstaedt-Engelen - Initial Contribution and API
+ * @author Alex Tugarev - Loading with Class.forName() if classLoader is null
+ * @author agent - Moved into a separate codec
+ */
+public class JsonStorageCodec extends AbstractGsonStorageCodec {
+
+    private static final String TYPE_SEPARATOR = "@@@";
+
+    private final Logger logger = LoggerFactory.getLogger(JsonStorageCodec.class);
+
+    @Override
+    public Object encode(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Cannot serialize NULL");
+        }
+
+        String valueTypeName = value.getClass().getName();
+        String valueAsString = mapper.toJson(value);
+        String concatValue = valueTypeName + TYPE_SEPARATOR + valueAsString;
+
+        logger.trace("serialized value '{}' to MapDB", concatValue);
+        return concatValue;
+    }
+
+    @Override
+    public boolean canDecode(Object encoded) {
+        return encoded instanceof String;
+    }
+
+    @Override
+    public Object decode(Object encoded, ClassLoader classLoader) {
+        String json = (String) encoded;
+        String[] concatValue = json.split(TYPE_SEPARATOR);
+        String valueTypeName = concatValue[0];
+        String valueAsString = concatValue[1];
+
+        Object value = null;
+        try {
+            value = mapper.fromJson(valueAsString, loadClass(valueTypeName, classLoader));
+            logger.trace("deserialized value '{}' from MapDB", value);
+        } catch (Exception e) {
+            logger.warn("Couldn't deserialize value '{}'. Root cause is: {}", json, e.getMessage());
+        }
+
+        return value;
+    }
+
+}
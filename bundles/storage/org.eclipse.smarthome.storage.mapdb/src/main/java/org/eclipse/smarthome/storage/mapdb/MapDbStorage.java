@@ -10,42 +10,35 @@ package org.eclipse.smarthome.storage.mapdb;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import org.eclipse.smarthome.core.storage.Storage;
 import org.mapdb.DB;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 
 /**
  * The MapDbStorage is concrete implementation of the {@link Storage} interface.
  * It stores the key-value pairs in files. This Storage serializes and deserializes
- * the given values using their JSON representation (generated by {@code Gson}.
- * This transformation should help maintaining version compatibility of the stored
- * data.
+ * the given values by the {@link StorageCodec}s of the {@link MapDbStorageService}.
+ *
+ * If the cache of the service is enabled, decoded values are kept until they are overwritten or removed. The values
+ * returned by {@link #get(String)} and {@link #getValues()} are then shared between callers and must not be modified
+ * without storing them again.
  *
  * @author Thomas.Eichstaedt-Engelen - Initial Contribution and API
  * @author Alex Tugarev - Loading with Class.forName() if classLoader is null
  */
 public class MapDbStorage<T> implements Storage<T> {
 
-    private static final String TYPE_SEPARATOR = "@@@";
-
-    private final Logger logger = LoggerFactory.getLogger(MapDbStorage.class);
-
-    private DB db;
+    private MapDbStorageService storageService;
+    private String name;
     private ClassLoader classLoader;
-    private Map<String, String> map;
+    private Map<String, Object> map;
 
-    private transient Gson mapper;
-
-    public MapDbStorage(DB db, String name, ClassLoader classLoader) {
-        this.db = db;
+    public MapDbStorage(MapDbStorageService storageService, DB db, String name, ClassLoader classLoader) {
+        this.storageService = storageService;
+        this.name = name;
         this.classLoader = classLoader;
         this.map = db.createTreeMap(name).makeOrGet();
-        this.mapper = new GsonBuilder().registerTypeAdapterFactory(new PropertiesTypeAdapterFactory()).create();
     }
 
     /**
@@ -53,9 +46,10 @@ public class MapDbStorage<T> implements Storage<T> {
      */
     @Override
     public T put(String key, T value) {
-        String previousValue = map.put(key, serialize(value));
-        db.commit();
-        return deserialize(previousValue);
+        Object previousValue = map.put(key, storageService.getCodec().encode(value));
+        storageService.getCache().invalidate(name, key);
+        storageService.commit();
+        return decode(previousValue);
     }
 
     /**
@@ -63,17 +57,26 @@ public class MapDbStorage<T> implements Storage<T> {
      */
     @Override
     public T remove(String key) {
-        String removedElement = map.remove(key);
-        db.commit();
-        return deserialize(removedElement);
+        Object removedElement = map.remove(key);
+        storageService.getCache().invalidate(name, key);
+        storageService.commit();
+        return decode(removedElement);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
+    @SuppressWarnings("unchecked")
     public T get(String key) {
-        return deserialize(map.get(key));
+        DecodedValueCache cache = storageService.getCache();
+        T value = (T) cache.get(name, key);
+        if (value == null) {
+            long stamp = cache.getModificationStamp();
+            value = decode(map.get(key));
+            cache.put(name, key, value, stamp);
+        }
+        return value;
     }
 
     /**
@@ -88,75 +91,54 @@ public class MapDbStorage<T> implements Storage<T> {
      * {@inheritDoc}
      */
     @Override
+    @SuppressWarnings("unchecked")
     public Collection<T> getValues() {
+        DecodedValueCache cache = storageService.getCache();
+        long stamp = cache.getModificationStamp();
         Collection<T> values = new ArrayList<T>();
-        for (String key : getKeys()) {
-            values.add(get(key));
+        for (Entry<String, Object> entry : map.entrySet()) {
+            T value = (T) cache.get(name, entry.getKey());
+            if (value == null) {
+                value = decode(entry.getValue());
+                cache.put(name, entry.getKey(), value, stamp);
+            }
+            values.add(value);
         }
         return values;
     }
 
     /**
-     * Transforms the given {@code value} into its JSON representation using {@code Gson}. Since we do not know the type
-     * of {@code value} while
-     * deserializing it afterwards we prepend its qualified type name to the
-     * JSON String.
-     * 
-     * @param value the {@code value} to store
-     * @return the JSON document prepended with the qualified type name of {@code value}
+     * Commits all pending changes to disk. As all storages share the same database, this includes the pending
+     * changes of other storages as well.
+     *
+     * @see MapDbStorageService#flush()
      */
-    private String serialize(T value) {
-
-        if (value == null) {
-            throw new IllegalArgumentException("Cannot serialize NULL");
-        }
-
-        String valueTypeName = value.getClass().getName();
-        String valueAsString = mapper.toJson(value);
-        String concatValue = valueTypeName + TYPE_SEPARATOR + valueAsString;
-
-        logger.trace("serialized value '{}' to MapDB", concatValue);
-        return concatValue;
+    public void flush() {
+        storageService.flush();
     }
 
     /**
      * Deserializes and instantiates an object of type {@code T} out of the
-     * given JSON String. A special classloader (other than the one of the
-     * MapDB bundle) is used in order to load the classes in the context of
-     * the calling bundle.
-     * 
-     * @param json
-     * @return
+     * given JSON String.
+     *
+     * @param json the stored JSON string, prepended with the qualified type name
+     * @return the deserialized value or null
      */
-    @SuppressWarnings("unchecked")
     public T deserialize(String json) {
+        return decode(json);
+    }
 
-        if (json == null) {
+    /**
+     * Decodes the given stored representation by the codec which is able to decode it. A special classloader (other
+     * than the one of the MapDB bundle) is used in order to load the classes in the context of the calling bundle.
+     */
+    @SuppressWarnings("unchecked")
+    private T decode(Object encoded) {
+        if (encoded == null) {
             // nothing to deserialize
             return null;
         }
-
-        String[] concatValue = json.split(TYPE_SEPARATOR);
-        String valueTypeName = concatValue[0];
-        String valueAsString = concatValue[1];
-
-        T value = null;
-        try {
-            // load required class within the given bundle context
-            Class<T> loadedValueType = null;
-            if (classLoader == null) {
-                loadedValueType = (Class<T>) Class.forName(valueTypeName);
-            } else {
-                loadedValueType = (Class<T>) classLoader.loadClass(valueTypeName);
-            }
-
-            value = mapper.fromJson(valueAsString, loadedValueType);
-            logger.trace("deserialized value '{}' from MapDB", value);
-        } catch (Exception e) {
-            logger.warn("Couldn't deserialize value '{}'. Root cause is: {}", json, e.getMessage());
-        }
-
-        return value;
+        return (T) storageService.getCodecFor(encoded).decode(encoded, classLoader);
     }
 
 }
@@ -8,8 +8,12 @@
 package org.eclipse.smarthome.storage.mapdb;
 
 import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.storage.Storage;
 import org.eclipse.smarthome.core.storage.StorageService;
 import org.mapdb.DB;
@@ -20,12 +24,55 @@ import org.slf4j.LoggerFactory;
 /**
  * This implementation of {@link StorageService} provides abilities to store
  * data in the lightweight key-value-store <a href="http://www.mapdb.org">MapDB</a>.
+ * <p>
+ * All storages share a single transactional database. The configuration property {@code commitMode} defines when
+ * changes are committed to disk:
+ * <ul>
+ * <li>{@code immediate} (default): every {@code put} and {@code remove} is committed before the call returns. A
+ * completed write survives a crash or power loss.</li>
+ * <li>{@code group}: writes are collected and committed together, as soon as {@code commitSize} writes are pending or
+ * {@code commitInterval} milliseconds have passed since the first pending write. A crash or power loss discards the
+ * pending writes, i.e. at most the writes of the last {@code commitInterval} milliseconds are lost. The database
+ * itself stays consistent, as it is rolled back to the last commit. Pending writes are committed on
+ * {@link #flush()} and when the service is deactivated.</li>
+ * </ul>
+ * <p>
+ * The configuration property {@code codec} defines how new values are encoded: {@code json} (default) uses the
+ * {@link JsonStorageCodec}, {@code binary} the more compact {@link BinaryStorageCodec}. Existing values are always read
+ * with the codec which has written them.
+ * <p>
+ * Decoded values can be kept in a cache of {@code cacheSize} entries. The cache is disabled by default (0), as it returns
+ * the same instance on every read, which must then not be modified by the caller without storing it again.
  *
  * @author Thomas.Eichstaedt-Engelen - Initial Contribution and API
  * @author Alex Tugarev - Added getStorage for name only
  */
 public class MapDbStorageService implements StorageService {
 
+    /** every write is committed immediately */
+    public static final String COMMIT_MODE_IMMEDIATE = "immediate";
+
+    /** writes are committed together after an interval or a number of writes */
+    public static final String COMMIT_MODE_GROUP = "group";
+
+    /** new values are encoded by the {@link BinaryStorageCodec} */
+    public static final String CODEC_BINARY = "binary";
+
+    /** new values are encoded by the {@link JsonStorageCodec} */
+    public static final String CODEC_JSON = "json";
+
+    private static final String CONFIG_COMMIT_MODE = "commitMode";
+    private static final String CONFIG_COMMIT_INTERVAL = "commitInterval";
+    private static final String CONFIG_COMMIT_SIZE = "commitSize";
+    private static final String CONFIG_CODEC = "codec";
+    private static final String CONFIG_CACHE_SIZE = "cacheSize";
+
+    private static final long DEFAULT_COMMIT_INTERVAL = 1000;
+    private static final int DEFAULT_COMMIT_SIZE = 500;
+    private static final int DEFAULT_CACHE_SIZE = 0;
+
+    private static final String THREAD_POOL_NAME = "mapdb";
+
     private final Logger logger = LoggerFactory.getLogger(MapDbStorageService.class);
 
     /** the name of the mapdb database ({@code storage.mapdb}) */
@@ -37,7 +84,34 @@ public class MapDbStorageService implements StorageService {
     /** the folder name to store mapdb databases ({@code mapdb} by default) */
     private String dbFolderName = "mapdb";
 
-    public void activate() {
+    private final Object commitLock = new Object();
+
+    private final Runnable commitTask = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    private boolean groupCommit = false;
+
+    private long commitInterval = DEFAULT_COMMIT_INTERVAL;
+
+    private int commitSize = DEFAULT_COMMIT_SIZE;
+
+    private int pendingWrites = 0;
+
+    private ScheduledFuture<?> scheduledCommit;
+
+    private JsonStorageCodec jsonCodec;
+
+    private BinaryStorageCodec binaryCodec;
+
+    private volatile StorageCodec codec;
+
+    private final DecodedValueCache cache = new DecodedValueCache(DEFAULT_CACHE_SIZE);
+
+    public void activate(Map<String, Object> config) {
         dbFolderName = ConfigConstants.getUserDataFolder() + File.separator + dbFolderName;
         File folder = new File(dbFolderName);
         if (!folder.exists()) {
@@ -48,16 +122,62 @@ public class MapDbStorageService implements StorageService {
         db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
 
         logger.debug("Opened MapDB file at '{}'.", dbFile.getAbsolutePath());
+
+        jsonCodec = new JsonStorageCodec();
+        binaryCodec = new BinaryStorageCodec(new ClassIdTable(db));
+        codec = jsonCodec;
+
+        modified(config);
+    }
+
+    public void modified(Map<String, Object> config) {
+        if (config == null) {
+            return;
+        }
+
+        Object mode = config.get(CONFIG_COMMIT_MODE);
+        Object interval = config.get(CONFIG_COMMIT_INTERVAL);
+        Object size = config.get(CONFIG_COMMIT_SIZE);
+        synchronized (commitLock) {
+            groupCommit = mode != null && COMMIT_MODE_GROUP.equalsIgnoreCase(mode.toString().trim());
+            try {
+                commitInterval = interval != null ? Long.parseLong(interval.toString().trim())
+                        : DEFAULT_COMMIT_INTERVAL;
+                commitSize = size != null ? Integer.parseInt(size.toString().trim()) : DEFAULT_COMMIT_SIZE;
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid commit interval '{}' or size '{}', using the defaults.", interval, size);
+                commitInterval = DEFAULT_COMMIT_INTERVAL;
+                commitSize = DEFAULT_COMMIT_SIZE;
+            }
+            if (!groupCommit) {
+                commitPendingWrites();
+            }
+        }
+        logger.debug("MapDB commit mode is '{}' (interval {}ms, size {}).",
+                groupCommit ? COMMIT_MODE_GROUP : COMMIT_MODE_IMMEDIATE, commitInterval, commitSize);
+
+        Object codecName = config.get(CONFIG_CODEC);
+        codec = codecName != null && CODEC_BINARY.equalsIgnoreCase(codecName.toString().trim()) ? binaryCodec
+                : jsonCodec;
+
+        Object cacheSize = config.get(CONFIG_CACHE_SIZE);
+        try {
+            cache.setMaxSize(cacheSize != null ? Integer.parseInt(cacheSize.toString().trim()) : DEFAULT_CACHE_SIZE);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid cache size '{}', using the default.", cacheSize);
+            cache.setMaxSize(DEFAULT_CACHE_SIZE);
+        }
     }
 
     public void deactivate() {
+        flush();
         db.close();
         logger.debug("Deactivated MapDB Storage Service.");
     }
 
     @Override
     public <T> Storage<T> getStorage(String name, ClassLoader classLoader) {
-        return new MapDbStorage<T>(db, name, classLoader);
+        return new MapDbStorage<T>(this, db, name, classLoader);
     }
 
     @Override
@@ -65,4 +185,83 @@ public class MapDbStorageService implements StorageService {
         return getStorage(name, null);
     }
 
+    /**
+     * Commits all pending writes of all storages to disk. In {@code immediate} mode there are never pending writes,
+     * so calling this method has no effect.
+     */
+    public void flush() {
+        synchronized (commitLock) {
+            commitPendingWrites();
+        }
+    }
+
+    /**
+     * Returns the codec which encodes new values.
+     *
+     * @return the configured codec
+     */
+    StorageCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * Returns the codec which is able to decode the given stored representation.
+     *
+     * @param encoded the stored representation
+     * @return the codec
+     * @throws IllegalArgumentException if no codec is able to decode the representation
+     */
+    StorageCodec getCodecFor(Object encoded) {
+        if (binaryCodec.canDecode(encoded)) {
+            return binaryCodec;
+        } else if (jsonCodec.canDecode(encoded)) {
+            return jsonCodec;
+        }
+        throw new IllegalArgumentException("No codec available for stored value of type " + encoded.getClass());
+    }
+
+    /**
+     * Returns the cache for decoded values, which is shared by all storages.
+     *
+     * @return the cache
+     */
+    DecodedValueCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Called by the storages after each write. Depending on the commit mode the write is committed immediately or
+     * together with other writes.
+     */
+    void commit() {
+        synchronized (commitLock) {
+            if (!groupCommit) {
+                db.commit();
+                return;
+            }
+            pendingWrites++;
+            if (pendingWrites >= commitSize || commitInterval <= 0) {
+                commitPendingWrites();
+            } else if (scheduledCommit == null) {
+                scheduledCommit = ThreadPoolManager.getScheduledPool(THREAD_POOL_NAME).schedule(commitTask,
+                        commitInterval, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Must be called while holding the commit lock.
+     */
+    private void commitPendingWrites() {
+        if (scheduledCommit != null) {
+            scheduledCommit.cancel(false);
+            scheduledCommit = null;
+        }
+        if (pendingWrites > 0 && !db.isClosed()) {
+            logger.trace("Committing {} pending writes to MapDB.", pendingWrites);
+            db.commit();
+        }
+        pendingWrites = 0;
+    }
+
 }
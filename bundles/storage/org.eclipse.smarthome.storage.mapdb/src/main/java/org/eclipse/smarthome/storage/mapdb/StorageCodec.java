@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.storage.mapdb;
+
+/**
+ * A {@link StorageCodec} converts the values of a {@link MapDbStorage} into the representation which is stored in
+ * MapDB and back.
+ *
+ * Values are always written with the configured codec, but are read with the codec which is able to decode the stored
+ * representation. Thus the codec can be changed without migrating existing data.
+ *
+ * @author agent - Initial contribution and API
+ */
+public interface StorageCodec {
+
+    /**
+     * Encodes the given value.
+     *
+     * @param value the value to encode, must not be null
+     * @return the encoded value, which must be serializable by MapDB
+     */
+    Object encode(Object value);
+
+    /**
+     * Checks whether the given stored representation has been created by this codec.
+     *
+     * @param encoded the stored representation, must not be null
+     * @return true if this codec is able to decode the representation
+     */
+    boolean canDecode(Object encoded);
+
+    /**
+     * Decodes the given stored representation.
+     *
+     * @param encoded the stored representation, must not be null
+     * @param classLoader the class loader to load the class of the value, if null {@link Class#forName(String)} is used
+     * @return the decoded value or null, if it could not be decoded
+     */
+    Object decode(Object encoded, ClassLoader classLoader);
+
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.storage.timeseries.internal
+
+import static org.hamcrest.CoreMatchers.*
+import static org.junit.Assert.*
+
+import org.eclipse.smarthome.core.library.types.DecimalType
+import org.eclipse.smarthome.core.library.types.OnOffType
+import org.eclipse.smarthome.core.library.types.StringType
+import org.eclipse.smarthome.core.persistence.FilterCriteria
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Operator
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+/**
+ * @author agent - Initial contribution
+ */
+class ItemSeriesTest {
+
+    static final long START = 1450000000000L
+
+    static final long MINUTE = 60000L
+
+    File directory
+
+    ItemSeries series
+
+    @Before
+    void setUp() {
+        directory = new File('./runtime/timeseries/TestItem')
+        directory.deleteDir()
+        series = new ItemSeries('TestItem', directory, 4096)
+    }
+
+    @After
+    void tearDown() {
+        series.close()
+        new File('./runtime').deleteDir()
+    }
+
+    @Test
+    void 'assert stored states are queried in order across several segments'() {
+        for (int i = 0; i < 5000; i++) {
+            series.store(START + i * MINUTE, new DecimalType(20 + (i % 100) / 10))
+        }
+        assertTrue directory.listFiles().length > 1
+
+        def records = series.query(new FilterCriteria().setOrdering(Ordering.ASCENDING))
+        assertThat records.size(), is(5000)
+        assertThat records[0].timestamp.time, is(START)
+        assertThat records[4999].timestamp.time, is(START + 4999 * MINUTE)
+        assertThat records[1234].state, is(new DecimalType(20 + 34 / 10))
+
+        def page = series.query(new FilterCriteria().setBeginDate(new Date(START + 100 * MINUTE))
+                .setEndDate(new Date(START + 199 * MINUTE)).setPageSize(10).setPageNumber(1))
+        assertThat page.size(), is(10)
+        assertThat page[0].timestamp.time, is(START + 189 * MINUTE)
+        assertThat page[9].timestamp.time, is(START + 180 * MINUTE)
+
+        def filtered = series.query(new FilterCriteria().setOperator(Operator.GTE).setState(new DecimalType(29.9)))
+        assertThat filtered.size(), is(50)
+    }
+
+    @Test
+    void 'assert out of order and duplicate timestamps are merged'() {
+        series.store(START, new StringType('first'))
+        series.store(START + 2 * MINUTE, OnOffType.ON)
+        series.store(START + MINUTE, new DecimalType(1))
+        series.store(START + 2 * MINUTE, OnOffType.OFF)
+        series.store(START - MINUTE, new DecimalType(-1))
+
+        def records = series.query(new FilterCriteria().setOrdering(Ordering.ASCENDING))
+        assertThat records.collect { it.state }, is([new DecimalType(-1), new StringType('first'),
+            new DecimalType(1), OnOffType.OFF])
+        assertThat series.getItemInfo().count, is(4)
+        assertThat series.getItemInfo().earliest.time, is(START - MINUTE)
+    }
+
+    @Test
+    void 'assert records survive reopening and can be removed'() {
+        for (int i = 0; i < 100; i++) {
+            series.store(START + i * MINUTE, new DecimalType(i))
+        }
+        series.close()
+
+        series = new ItemSeries('TestItem', directory, 4096)
+        series.store(START + 100 * MINUTE, new DecimalType(100))
+        assertThat series.query(new FilterCriteria()).size(), is(101)
+
+        assertThat series.remove(new FilterCriteria().setEndDate(new Date(START + 49 * MINUTE))), is(false)
+        def records = series.query(new FilterCriteria().setOrdering(Ordering.ASCENDING))
+        assertThat records.size(), is(51)
+        assertThat records[0].state, is(new DecimalType(50))
+
+        assertThat series.remove(new FilterCriteria()), is(true)
+        assertThat series.query(new FilterCriteria()).size(), is(0)
+        assertThat directory.exists(), is(false)
+        assertThat series.store(START, new DecimalType(1)), is(false)
+    }
+
+    @Test
+    void 'assert decimals are stored exactly'() {
+        def values = [
+            new BigDecimal('21.30'),
+            new BigDecimal('0.1'),
+            new BigDecimal('-7'),
+            new BigDecimal('1234567890.123456789'),
+            new BigDecimal('1E+30'),
+            new BigDecimal('123456789012345678901234567890.5')
+        ]
+        values.eachWithIndex { value, i ->
+            series.store(START + i * MINUTE, new DecimalType(value))
+        }
+        series.close()
+
+        series = new ItemSeries('TestItem', directory, 4096)
+        def records = series.query(new FilterCriteria().setOrdering(Ordering.ASCENDING))
+        assertThat records.collect { it.state.toBigDecimal() }, is(values)
+        assertThat records.collect { it.state.toBigDecimal().scale() }, is(values.collect { it.scale() })
+    }
+}
@@ -0,0 +1,372 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.storage.timeseries.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Operator;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
+import org.eclipse.smarthome.core.types.State;
+
+/**
+ * The {@link ItemSeries} holds the time series of a single item in a directory of {@link Segment}s. The segments are
+ * indexed by their start time, so that a query only reads the segments, which overlap with the requested time range.
+ *
+ * New records are appended to the last segment, which is activated on the first write. If it is full, it is sealed
+ * and a new segment is started. A record with a timestamp before the last record is inserted by rewriting the affected
+ * segment.
+ *
+ * All methods are synchronized on the instance. If all records are removed, the series is deleted and does not accept
+ * new records anymore.
+ *
+ * @author agent - Initial contribution and API
+ */
+class ItemSeries {
+
+    private static final Comparator<TimeSeriesHistoricItem> BY_TIME = new Comparator<TimeSeriesHistoricItem>() {
+        @Override
+        public int compare(TimeSeriesHistoricItem record, TimeSeriesHistoricItem otherRecord) {
+            return Long.compare(record.getTime(), otherRecord.getTime());
+        }
+    };
+
+    private final String name;
+
+    private final File directory;
+
+    private final int segmentSize;
+
+    /** the time range index: segments by their start time, a segment ends where the next one starts */
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+    /** the last segment, which is not necessarily active yet */
+    private Segment activeSegment;
+
+    private boolean deleted = false;
+
+    /**
+     * Creates the series of an item and opens its existing segments. The segments are not mapped into memory before
+     * they are written.
+     *
+     * @param name the name of the item
+     * @param directory the directory of the segments
+     * @param segmentSize the capacity of new segments in bytes
+     */
+    ItemSeries(String name, File directory, int segmentSize) {
+        this.name = name;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Segment segment = Segment.open(file);
+                if (segment != null) {
+                    segments.put(segment.getStartTime(), segment);
+                }
+            }
+        }
+        if (!segments.isEmpty()) {
+            activeSegment = segments.lastEntry().getValue();
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Stores a state. If there is already a record with the same timestamp, its state is replaced.
+     *
+     * @param timestamp the timestamp in milliseconds
+     * @param state the state
+     * @return true if the state has been stored, false if the series has been deleted
+     * @throws IOException if the segments cannot be written
+     */
+    synchronized boolean store(long timestamp, State state) throws IOException {
+        if (deleted) {
+            return false;
+        }
+        if (activeSegment == null) {
+            directory.mkdirs();
+            activeSegment = Segment.create(directory, timestamp, segmentSize);
+            segments.put(timestamp, activeSegment);
+        } else {
+            if (!activeSegment.isActive()) {
+                activeSegment.activate(segmentSize);
+            }
+            if (timestamp < activeSegment.getLastTimestamp()) {
+                insert(timestamp, state);
+                return true;
+            }
+        }
+
+        if (!activeSegment.append(timestamp, state)) {
+            if (timestamp == activeSegment.getLastTimestamp()) {
+                // the record must replace the last record of the full segment
+                insert(timestamp, state);
+                return true;
+            }
+            activeSegment.seal();
+            activeSegment = Segment.create(directory, timestamp,
+                    Math.max(segmentSize, Segment.HEADER_SIZE + 32 + state.toString().length() * 4));
+            segments.put(timestamp, activeSegment);
+            activeSegment.append(timestamp, state);
+        }
+        return true;
+    }
+
+    /**
+     * Inserts a record into the segment, which covers its timestamp, by rewriting that segment.
+     */
+    private void insert(long timestamp, State state) throws IOException {
+        Entry<Long, Segment> entry = segments.floorEntry(timestamp);
+        if (entry == null) {
+            entry = segments.firstEntry();
+        }
+        Segment segment = entry.getValue();
+        List<TimeSeriesHistoricItem> records = read(segment, Long.MIN_VALUE, Long.MAX_VALUE);
+
+        TimeSeriesHistoricItem record = new TimeSeriesHistoricItem(name, timestamp, state);
+        int index = Collections.binarySearch(records, record, BY_TIME);
+        if (index >= 0) {
+            records.set(index, record);
+        } else {
+            records.add(-index - 1, record);
+        }
+
+        replace(segment, Math.min(segment.getStartTime(), timestamp), records);
+    }
+
+    /**
+     * Replaces a segment by a new one with the given records.
+     */
+    private void replace(Segment segment, long startTime, List<TimeSeriesHistoricItem> records) throws IOException {
+        boolean wasActive = segment == activeSegment;
+        segment.seal();
+        Segment newSegment = Segment.write(directory, startTime, records);
+        if (startTime != segment.getStartTime()) {
+            segment.delete();
+            segments.remove(segment.getStartTime());
+        }
+        segments.put(startTime, newSegment);
+        if (wasActive) {
+            activeSegment = newSegment;
+        }
+    }
+
+    /**
+     * Queries the records matching the given filter. The item name of the filter is ignored.
+     *
+     * @param filter the filter
+     * @return the matching records
+     * @throws IOException if the segments cannot be read
+     */
+    synchronized List<TimeSeriesHistoricItem> query(FilterCriteria filter) throws IOException {
+        long begin = filter.getBeginDate() != null ? filter.getBeginDate().getTime() : Long.MIN_VALUE;
+        long end = filter.getEndDate() != null ? filter.getEndDate().getTime() : Long.MAX_VALUE;
+        boolean descending = filter.getOrdering() != Ordering.ASCENDING;
+        long skip = (long) filter.getPageNumber() * filter.getPageSize();
+        long limit = skip + filter.getPageSize();
+
+        List<TimeSeriesHistoricItem> result = new ArrayList<>();
+        NavigableMap<Long, Segment> range = getSegments(begin, end);
+        Iterator<Segment> iterator = descending ? range.descendingMap().values().iterator()
+                : range.values().iterator();
+        while (iterator.hasNext() && result.size() < limit) {
+            List<TimeSeriesHistoricItem> records = read(iterator.next(), begin, end);
+            if (descending) {
+                Collections.reverse(records);
+            }
+            for (TimeSeriesHistoricItem record : records) {
+                if (matches(record.getState(), filter)) {
+                    result.add(record);
+                    if (result.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (skip >= result.size()) {
+            return Collections.emptyList();
+        }
+        return result.subList((int) skip, result.size());
+    }
+
+    /**
+     * Removes the records matching the given filter. The item name of the filter is ignored. If there are no records
+     * left, the directory of the series is deleted and the series does not accept new records anymore.
+     *
+     * @param filter the filter
+     * @return true if there are no records left
+     * @throws IOException if the segments cannot be written
+     */
+    synchronized boolean remove(FilterCriteria filter) throws IOException {
+        long begin = filter.getBeginDate() != null ? filter.getBeginDate().getTime() : Long.MIN_VALUE;
+        long end = filter.getEndDate() != null ? filter.getEndDate().getTime() : Long.MAX_VALUE;
+
+        for (Segment segment : new ArrayList<>(getSegments(begin, end).values())) {
+            List<TimeSeriesHistoricItem> records = read(segment, Long.MIN_VALUE, Long.MAX_VALUE);
+            boolean removed = false;
+            for (Iterator<TimeSeriesHistoricItem> iterator = records.iterator(); iterator.hasNext();) {
+                TimeSeriesHistoricItem record = iterator.next();
+                if (record.getTime() >= begin && record.getTime() <= end && matches(record.getState(), filter)) {
+                    iterator.remove();
+                    removed = true;
+                }
+            }
+            if (!removed) {
+                continue;
+            }
+            if (records.isEmpty()) {
+                segment.delete();
+                segments.remove(segment.getStartTime());
+                if (segment == activeSegment) {
+                    activeSegment = null;
+                }
+            } else {
+                replace(segment, segment.getStartTime(), records);
+            }
+        }
+
+        if (segments.isEmpty()) {
+            deleted = true;
+            directory.delete();
+            return true;
+        }
+        if (activeSegment == null) {
+            activeSegment = segments.lastEntry().getValue();
+        }
+        return false;
+    }
+
+    /**
+     * Returns the information about the stored records of this item.
+     *
+     * @return the item info
+     * @throws IOException if the segments cannot be read
+     */
+    synchronized TimeSeriesItemInfo getItemInfo() throws IOException {
+        int count = 0;
+        for (Segment segment : segments.values()) {
+            count += segment.getCount();
+        }
+        Date earliest = null;
+        Date latest = null;
+        if (!segments.isEmpty()) {
+            SegmentDecoder decoder = segments.firstEntry().getValue().decoder();
+            if (decoder.next()) {
+                earliest = new Date(decoder.getTimestamp());
+            }
+            latest = new Date(activeSegment.getLastTimestamp());
+        }
+        return new TimeSeriesItemInfo(name, count, earliest, latest);
+    }
+
+    /**
+     * Synchronizes the active segment with the storage device, if it has been written.
+     */
+    synchronized void force() {
+        if (activeSegment != null) {
+            activeSegment.force();
+        }
+    }
+
+    /**
+     * Seals the active segment.
+     */
+    synchronized void close() {
+        if (activeSegment != null) {
+            activeSegment.seal();
+            activeSegment = null;
+        }
+    }
+
+    private NavigableMap<Long, Segment> getSegments(long begin, long end) {
+        Long first = segments.floorKey(begin);
+        if (first == null) {
+            return segments.headMap(end, true);
+        }
+        return segments.subMap(first, true, end, true);
+    }
+
+    /**
+     * Reads the records of a segment within the given time range. If there are several records with the same
+     * timestamp, the last one is returned.
+     */
+    private List<TimeSeriesHistoricItem> read(Segment segment, long begin, long end) throws IOException {
+        List<TimeSeriesHistoricItem> records = new ArrayList<>();
+        SegmentDecoder decoder = segment.decoder();
+        while (decoder.next()) {
+            long timestamp = decoder.getTimestamp();
+            if (timestamp > end) {
+                break;
+            }
+            if (timestamp >= begin) {
+                TimeSeriesHistoricItem record = new TimeSeriesHistoricItem(name, timestamp, decoder.getState());
+                int last = records.size() - 1;
+                if (last >= 0 && records.get(last).getTime() == timestamp) {
+                    records.set(last, record);
+                } else {
+                    records.add(record);
+                }
+            }
+        }
+        return records;
+    }
+
+    private boolean matches(State state, FilterCriteria filter) {
+        State filterState = filter.getState();
+        if (filterState == null) {
+            return true;
+        }
+        Operator operator = filter.getOperator();
+        if (operator == Operator.EQ) {
+            return compare(state, filterState) == 0;
+        } else if (operator == Operator.NEQ) {
+            return compare(state, filterState) != 0;
+        }
+        if (!(state instanceof DecimalType) || !(filterState instanceof DecimalType)) {
+            return false;
+        }
+        int comparison = compare(state, filterState);
+        switch (operator) {
+            case GT:
+                return comparison > 0;
+            case GTE:
+                return comparison >= 0;
+            case LT:
+                return comparison < 0;
+            case LTE:
+                return comparison <= 0;
+            default:
+                return false;
+        }
+    }
+
+    private int compare(State state, State filterState) {
+        if (state instanceof DecimalType && filterState instanceof DecimalType) {
+            return ((DecimalType) state).compareTo((DecimalType) filterState);
+        }
+        return state.equals(filterState) ? 0 : 1;
+    }
+
+}
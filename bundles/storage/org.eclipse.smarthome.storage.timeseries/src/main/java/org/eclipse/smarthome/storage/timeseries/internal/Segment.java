@@ -0,0 +1,311 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.storage.timeseries.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import org.eclipse.smarthome.core.types.State;
+
+/**
+ * A {@link Segment} is a file, which holds the records of an item from its start time on. Records are only appended
+ * to a segment; only the last segment of an item accepts new records. It is activated on the first write, i.e. mapped
+ * into memory with a fixed capacity, so that appending a record is a plain memory write.
+ *
+ * A segment file starts with a header of {@link #HEADER_SIZE} bytes (magic number, version, start time), followed by
+ * the records encoded by the {@link SegmentEncoder}. The file name is the start time in milliseconds.
+ *
+ * @author agent - Initial contribution and API
+ */
+class Segment {
+
+    static final String FILE_EXTENSION = ".seg";
+
+    static final int HEADER_SIZE = 16;
+
+    private static final int MAGIC = 0x45534854;
+
+    private static final byte VERSION = 1;
+
+    private final File file;
+
+    private final long startTime;
+
+    private MappedByteBuffer mappedBuffer;
+
+    private SegmentEncoder encoder;
+
+    private int writePosition;
+
+    private int count = -1;
+
+    private Segment(File file, long startTime) {
+        this.file = file;
+        this.startTime = startTime;
+    }
+
+    /**
+     * Opens an existing segment file. The segment is not active.
+     *
+     * @param file the segment file
+     * @return the segment or null, if the file name is not a valid segment name
+     */
+    static Segment open(File file) {
+        String name = file.getName();
+        if (!name.endsWith(FILE_EXTENSION)) {
+            return null;
+        }
+        try {
+            return new Segment(file, Long.parseLong(name.substring(0, name.length() - FILE_EXTENSION.length())));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a new active segment.
+     *
+     * @param directory the directory of the segment file
+     * @param startTime the start time of the segment
+     * @param capacity the capacity of the segment in bytes
+     * @return the active segment
+     * @throws IOException if the file cannot be created
+     */
+    static Segment create(File directory, long startTime, int capacity) throws IOException {
+        Segment segment = new Segment(getFile(directory, startTime), startTime);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(segment.file, "rw")) {
+            randomAccessFile.setLength(0);
+            segment.map(randomAccessFile.getChannel(), capacity);
+        }
+        segment.mappedBuffer.putInt(0, MAGIC);
+        segment.mappedBuffer.put(4, VERSION);
+        segment.mappedBuffer.putLong(8, startTime);
+        segment.writePosition = HEADER_SIZE;
+        segment.encoder = new SegmentEncoder(startTime);
+        segment.count = 0;
+        return segment;
+    }
+
+    /**
+     * Writes a new segment with the given records, replacing an existing segment with the same start time. The
+     * segment is not active.
+     *
+     * @param directory the directory of the segment file
+     * @param startTime the start time of the segment, must not be after the first record
+     * @param records the records in ascending order
+     * @return the segment
+     * @throws IOException if the file cannot be written
+     */
+    static Segment write(File directory, long startTime, List<TimeSeriesHistoricItem> records) throws IOException {
+        SegmentEncoder encoder = new SegmentEncoder(startTime);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + records.size() * 4 + 64);
+        buffer.putInt(MAGIC).put(VERSION).put(new byte[3]).putLong(startTime);
+        for (TimeSeriesHistoricItem record : records) {
+            encoder.encode(record.getTime(), record.getState());
+            if (buffer.remaining() < encoder.getLength()) {
+                ByteBuffer largerBuffer = ByteBuffer.allocate(buffer.capacity() * 2 + encoder.getLength());
+                buffer.flip();
+                largerBuffer.put(buffer);
+                buffer = largerBuffer;
+            }
+            buffer.put(encoder.getBuffer(), 0, encoder.getLength());
+        }
+        buffer.flip();
+
+        File file = getFile(directory, startTime);
+        File tempFile = new File(directory, file.getName() + ".tmp");
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(tempFile, "rw")) {
+            randomAccessFile.setLength(0);
+            randomAccessFile.getChannel().write(buffer);
+            randomAccessFile.getChannel().force(true);
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        Segment segment = new Segment(file, startTime);
+        segment.count = records.size();
+        return segment;
+    }
+
+    private static File getFile(File directory, long startTime) {
+        return new File(directory, startTime + FILE_EXTENSION);
+    }
+
+    /**
+     * Activates this segment, i.e. maps the file into memory and positions the writer after the last record.
+     *
+     * @param capacity the minimum capacity of the segment in bytes
+     * @throws IOException if the file cannot be mapped or is not a valid segment
+     */
+    void activate(int capacity) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            map(randomAccessFile.getChannel(), (int) Math.max(capacity, randomAccessFile.length() + 1));
+        }
+        checkHeader(mappedBuffer);
+        SegmentDecoder decoder = decoder(mappedBuffer.duplicate());
+        int records = 0;
+        while (decoder.next()) {
+            records++;
+        }
+        // the decoder stops after the last complete record, a partially written record is discarded
+        writePosition = decoder.getPosition();
+        if (mappedBuffer.get(writePosition) != 0) {
+            for (int i = writePosition; i < mappedBuffer.capacity(); i++) {
+                mappedBuffer.put(i, (byte) 0);
+            }
+        }
+        encoder = new SegmentEncoder(decoder);
+        count = records;
+    }
+
+    private void map(FileChannel channel, int capacity) throws IOException {
+        mappedBuffer = channel.map(MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * Deactivates this segment. The file is synchronized with the storage device.
+     */
+    void seal() {
+        if (mappedBuffer != null) {
+            mappedBuffer.force();
+            mappedBuffer = null;
+            encoder = null;
+        }
+    }
+
+    /**
+     * Synchronizes the file of an active segment with the storage device.
+     */
+    void force() {
+        if (mappedBuffer != null) {
+            mappedBuffer.force();
+        }
+    }
+
+    boolean isActive() {
+        return mappedBuffer != null;
+    }
+
+    /**
+     * Appends a record to this active segment. The record header is written last, so that an interrupted write
+     * leaves no partial record behind.
+     *
+     * @param timestamp the timestamp, must not be before the last record
+     * @param state the state
+     * @return true if the record has been appended, false if the segment is full
+     */
+    boolean append(long timestamp, State state) {
+        encoder.encode(timestamp, state);
+        int length = encoder.getLength();
+        // one byte must remain for the terminating zero header
+        if (writePosition + length >= mappedBuffer.capacity()) {
+            encoder.rollback();
+            return false;
+        }
+        byte[] bytes = encoder.getBuffer();
+        for (int i = 1; i < length; i++) {
+            mappedBuffer.put(writePosition + i, bytes[i]);
+        }
+        mappedBuffer.put(writePosition, bytes[0]);
+        writePosition += length;
+        count++;
+        return true;
+    }
+
+    /**
+     * Returns a decoder for the records of this segment.
+     *
+     * @return the decoder positioned before the first record
+     * @throws IOException if the file cannot be read or is not a valid segment
+     */
+    SegmentDecoder decoder() throws IOException {
+        ByteBuffer buffer;
+        if (mappedBuffer != null) {
+            buffer = mappedBuffer.duplicate();
+            buffer.limit(writePosition);
+        } else {
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+                FileChannel channel = randomAccessFile.getChannel();
+                buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+            }
+            checkHeader(buffer);
+        }
+        return decoder(buffer);
+    }
+
+    private SegmentDecoder decoder(ByteBuffer buffer) {
+        buffer.position(HEADER_SIZE);
+        return new SegmentDecoder(buffer, startTime);
+    }
+
+    private void checkHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.get(4) != VERSION
+                || buffer.getLong(8) != startTime) {
+            throw new IOException("Invalid segment file " + file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Returns the timestamp of the last record of this segment, reading the segment if it is not active.
+     *
+     * @return the timestamp or the start time, if the segment is empty
+     * @throws IOException if the file cannot be read
+     */
+    long getLastTimestamp() throws IOException {
+        if (encoder != null) {
+            return encoder.getLastTimestamp();
+        }
+        long timestamp = startTime;
+        SegmentDecoder decoder = decoder();
+        while (decoder.next()) {
+            timestamp = decoder.getTimestamp();
+        }
+        return timestamp;
+    }
+
+    /**
+     * Returns the number of records of this segment, reading the segment if necessary.
+     *
+     * @return the number of records
+     * @throws IOException if the file cannot be read
+     */
+    int getCount() throws IOException {
+        if (count < 0) {
+            int records = 0;
+            SegmentDecoder decoder = decoder();
+            while (decoder.next()) {
+                records++;
+            }
+            count = records;
+        }
+        return count;
+    }
+
+    long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Deletes the file of this segment.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    void delete() throws IOException {
+        seal();
+        Files.deleteIfExists(file.toPath());
+    }
+
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.storage.timeseries.internal;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Calendar;
+
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.PointType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.State;
+
+/**
+ * The {@link SegmentDecoder} reads the records written by a {@link SegmentEncoder} one after another. The state of a
+ * record is only created on request, so that skipping records is cheap.
+ *
+ * @author agent - Initial contribution and API
+ */
+class SegmentDecoder {
+
+    private final ByteBuffer buffer;
+
+    private long timestamp;
+    private long delta = 0;
+    private long bits = 0;
+
+    private int header;
+    private int scale;
+    private long dateTime;
+    private int stringOffset;
+    private int stringLength;
+
+    /**
+     * Creates a decoder for the records of a segment.
+     *
+     * @param buffer the buffer, whose position is at the first record
+     * @param baseTimestamp the start time of the segment
+     */
+    SegmentDecoder(ByteBuffer buffer, long baseTimestamp) {
+        this.buffer = buffer;
+        this.timestamp = baseTimestamp;
+    }
+
+    /**
+     * Reads the next record. A record, which is incomplete or corrupt, is treated as the end of the records.
+     *
+     * @return true if a record has been read, false if the end of the records has been reached
+     */
+    boolean next() {
+        if (!buffer.hasRemaining()) {
+            return false;
+        }
+        int position = buffer.position();
+        int nextHeader = buffer.get(position) & 0xFF;
+        if (nextHeader == 0) {
+            return false;
+        }
+
+        long previousTimestamp = timestamp;
+        long previousDelta = delta;
+        long previousBits = bits;
+        try {
+            buffer.position(position + 1);
+            header = nextHeader;
+            delta += unZigZag(readVarLong());
+            timestamp += delta;
+            readValue();
+            return true;
+        } catch (RuntimeException e) {
+            buffer.position(position);
+            timestamp = previousTimestamp;
+            delta = previousDelta;
+            bits = previousBits;
+            return false;
+        }
+    }
+
+    private void readValue() {
+        switch (header & SegmentEncoder.TAG_MASK) {
+            case SegmentEncoder.TAG_DECIMAL:
+            case SegmentEncoder.TAG_PERCENT:
+                if ((header & SegmentEncoder.FLAG_STRING) != 0) {
+                    readString();
+                } else {
+                    scale = (int) unZigZag(readVarLong());
+                    readNumber();
+                }
+                break;
+            case SegmentEncoder.TAG_DATETIME:
+                dateTime = unZigZag(readVarLong());
+                break;
+            case SegmentEncoder.TAG_HSB:
+            case SegmentEncoder.TAG_POINT:
+            case SegmentEncoder.TAG_STRING:
+                readString();
+                break;
+            case SegmentEncoder.TAG_ONOFF:
+            case SegmentEncoder.TAG_OPENCLOSED:
+            case SegmentEncoder.TAG_UPDOWN:
+                break;
+            default:
+                throw new IllegalStateException("Unknown record type " + header);
+        }
+    }
+
+    /**
+     * Returns the position after the last record which has been read.
+     *
+     * @return the position within the buffer
+     */
+    int getPosition() {
+        return buffer.position();
+    }
+
+    /**
+     * Returns the timestamp of the current record.
+     *
+     * @return the timestamp in milliseconds
+     */
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    long getDelta() {
+        return delta;
+    }
+
+    long getBits() {
+        return bits;
+    }
+
+    /**
+     * Creates the state of the current record.
+     *
+     * @return the state
+     */
+    State getState() {
+        switch (header & SegmentEncoder.TAG_MASK) {
+            case SegmentEncoder.TAG_DECIMAL:
+                return new DecimalType(getDecimal());
+            case SegmentEncoder.TAG_PERCENT:
+                return new PercentType(getDecimal());
+            case SegmentEncoder.TAG_HSB:
+                return HSBType.valueOf(getString());
+            case SegmentEncoder.TAG_ONOFF:
+                return isTrue() ? OnOffType.ON : OnOffType.OFF;
+            case SegmentEncoder.TAG_OPENCLOSED:
+                return isTrue() ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+            case SegmentEncoder.TAG_UPDOWN:
+                return isTrue() ? UpDownType.UP : UpDownType.DOWN;
+            case SegmentEncoder.TAG_DATETIME:
+                Calendar calendar = Calendar.getInstance();
+                calendar.setTimeInMillis(dateTime);
+                return new DateTimeType(calendar);
+            case SegmentEncoder.TAG_POINT:
+                return PointType.valueOf(getString());
+            default:
+                return StringType.valueOf(getString());
+        }
+    }
+
+    private boolean isTrue() {
+        return (header & SegmentEncoder.FLAG_TRUE) != 0;
+    }
+
+    private String getString() {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + stringOffset, stringLength, SegmentEncoder.UTF_8);
+        }
+        byte[] bytes = new byte[stringLength];
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(stringOffset);
+        duplicate.get(bytes);
+        return new String(bytes, SegmentEncoder.UTF_8);
+    }
+
+    private BigDecimal getDecimal() {
+        if ((header & SegmentEncoder.FLAG_STRING) != 0) {
+            return new BigDecimal(getString());
+        }
+        return BigDecimal.valueOf(bits, scale);
+    }
+
+    private void readString() {
+        stringLength = (int) readVarLong();
+        stringOffset = buffer.position();
+        if (stringLength < 0 || stringLength > buffer.remaining()) {
+            throw new IllegalStateException("Invalid string length " + stringLength);
+        }
+        buffer.position(stringOffset + stringLength);
+    }
+
+    private void readNumber() {
+        int control = buffer.get() & 0xFF;
+        if (control == SegmentEncoder.XOR_ZERO) {
+            return;
+        }
+        int leadingZeroBytes = control >>> 4;
+        int trailingZeroBytes = control & 0x0F;
+        long xor = 0;
+        for (int i = 7 - leadingZeroBytes; i >= trailingZeroBytes; i--) {
+            xor |= (buffer.get() & 0xFFL) << (i * 8);
+        }
+        bits ^= xor;
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) {
+                throw new IllegalStateException("Invalid variable length number");
+            }
+            b = buffer.get();
+            value |= (b & 0x7FL) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
@@ -0,0 +1,231 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.storage.timeseries.internal;
+
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.PointType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.State;
+
+/**
+ * The {@link SegmentEncoder} encodes the records of a segment. It keeps the state of the previous record, as the
+ * timestamps are stored as delta of deltas and numeric values as XOR with the previous numeric value.
+ *
+ * A record consists of a header byte, which holds the type tag of the state (and the value of binary states), the
+ * zig-zag encoded delta of deltas of the timestamp as variable length integer and the encoded value:
+ * <ul>
+ * <li>numbers: the zig-zag encoded scale as variable length integer and a control byte with the number of leading and
+ * trailing zero bytes of the XOR of the unscaled value with the previous unscaled value, followed by the remaining
+ * bytes. Numbers, whose unscaled value does not fit into a long, are stored by their string representation and marked
+ * by {@link #FLAG_STRING}.</li>
+ * <li>date and time: the milliseconds as zig-zag encoded variable length integer</li>
+ * <li>other states: the length and the UTF-8 bytes of their string representation</li>
+ * </ul>
+ *
+ * As a header byte is never 0, a 0 byte marks the end of the records.
+ *
+ * @author agent - Initial contribution and API
+ */
+class SegmentEncoder {
+
+    static final int TAG_DECIMAL = 1;
+    static final int TAG_PERCENT = 2;
+    static final int TAG_HSB = 3;
+    static final int TAG_ONOFF = 4;
+    static final int TAG_OPENCLOSED = 5;
+    static final int TAG_UPDOWN = 6;
+    static final int TAG_STRING = 7;
+    static final int TAG_DATETIME = 8;
+    static final int TAG_POINT = 9;
+
+    static final int TAG_MASK = 0x0F;
+    /** the value of binary states */
+    static final int FLAG_TRUE = 0x10;
+    /** marks a number, which is stored by its string representation (binary states use the same bit) */
+    static final int FLAG_STRING = 0x10;
+
+    /** the control byte of an unscaled value which is equal to the previous one */
+    static final int XOR_ZERO = 0x80;
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private long previousTimestamp;
+    private long previousDelta = 0;
+    private long previousBits = 0;
+
+    private long savedTimestamp;
+    private long savedDelta;
+    private long savedBits;
+
+    private byte[] buffer = new byte[64];
+    private int length;
+
+    /**
+     * Creates an encoder for a new segment.
+     *
+     * @param baseTimestamp the start time of the segment
+     */
+    SegmentEncoder(long baseTimestamp) {
+        this.previousTimestamp = baseTimestamp;
+    }
+
+    /**
+     * Creates an encoder which continues after the last record of an existing segment.
+     *
+     * @param decoder a decoder which has read all records of the segment
+     */
+    SegmentEncoder(SegmentDecoder decoder) {
+        this.previousTimestamp = decoder.getTimestamp();
+        this.previousDelta = decoder.getDelta();
+        this.previousBits = decoder.getBits();
+    }
+
+    /**
+     * Returns the timestamp of the last encoded record or the start time of the segment.
+     *
+     * @return the timestamp in milliseconds
+     */
+    long getLastTimestamp() {
+        return previousTimestamp;
+    }
+
+    /**
+     * Encodes a record. The timestamp must not be before the timestamp of the previous record. The encoded record is
+     * available by {@link #getBuffer()} and {@link #getLength()} until the next record is encoded.
+     *
+     * @param timestamp the timestamp in milliseconds
+     * @param state the state
+     */
+    void encode(long timestamp, State state) {
+        savedTimestamp = previousTimestamp;
+        savedDelta = previousDelta;
+        savedBits = previousBits;
+
+        length = 1;
+        long delta = timestamp - previousTimestamp;
+        writeVarLong(zigZag(delta - previousDelta));
+        previousTimestamp = timestamp;
+        previousDelta = delta;
+
+        int header;
+        if (state instanceof HSBType) {
+            header = TAG_HSB;
+            writeString(state.toString());
+        } else if (state instanceof DecimalType) {
+            header = state instanceof PercentType ? TAG_PERCENT : TAG_DECIMAL;
+            BigDecimal value = ((DecimalType) state).toBigDecimal();
+            if (value.unscaledValue().bitLength() < 64) {
+                writeVarLong(zigZag(value.scale()));
+                writeNumber(value.unscaledValue().longValue());
+            } else {
+                header |= FLAG_STRING;
+                writeString(value.toString());
+            }
+        } else if (state instanceof OnOffType) {
+            header = TAG_ONOFF | (state == OnOffType.ON ? FLAG_TRUE : 0);
+        } else if (state instanceof OpenClosedType) {
+            header = TAG_OPENCLOSED | (state == OpenClosedType.OPEN ? FLAG_TRUE : 0);
+        } else if (state instanceof UpDownType) {
+            header = TAG_UPDOWN | (state == UpDownType.UP ? FLAG_TRUE : 0);
+        } else if (state instanceof DateTimeType) {
+            header = TAG_DATETIME;
+            writeVarLong(zigZag(((DateTimeType) state).getCalendar().getTimeInMillis()));
+        } else if (state instanceof PointType) {
+            header = TAG_POINT;
+            writeString(state.toString());
+        } else {
+            header = TAG_STRING;
+            writeString(state.toString());
+        }
+        buffer[0] = (byte) header;
+    }
+
+    /**
+     * Reverts the last call of {@link #encode(long, State)}, if the encoded record has not been written.
+     */
+    void rollback() {
+        previousTimestamp = savedTimestamp;
+        previousDelta = savedDelta;
+        previousBits = savedBits;
+        length = 0;
+    }
+
+    /**
+     * Returns the buffer, which holds the last encoded record from index 0 to {@link #getLength()}.
+     *
+     * @return the buffer
+     */
+    byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns the length of the last encoded record.
+     *
+     * @return the length in bytes
+     */
+    int getLength() {
+        return length;
+    }
+
+    private void writeNumber(long bits) {
+        long xor = bits ^ previousBits;
+        previousBits = bits;
+        if (xor == 0) {
+            write(XOR_ZERO);
+            return;
+        }
+        int leadingZeroBytes = Long.numberOfLeadingZeros(xor) / 8;
+        int trailingZeroBytes = Long.numberOfTrailingZeros(xor) / 8;
+        write((leadingZeroBytes << 4) | trailingZeroBytes);
+        for (int i = 7 - leadingZeroBytes; i >= trailingZeroBytes; i--) {
+            write((int) (xor >>> (i * 8)));
+        }
+    }
+
+    private void writeString(String value) {
+        byte[] bytes = value.getBytes(UTF_8);
+        writeVarLong(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        write((int) value);
+    }
+
+    private void write(int b) {
+        ensureCapacity(1);
+        buffer[length++] = (byte) b;
+    }
+
+    private void ensureCapacity(int additionalLength) {
+        if (length + additionalLength > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + additionalLength));
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.storage.timeseries.internal;
+
+import java.text.DateFormat;
+import java.util.Date;
+
+import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.eclipse.smarthome.core.types.State;
+
+/**
+ * A {@link HistoricItem} read from the time series of an item.
+ *
+ * @author agent - Initial contribution and API
+ */
+class TimeSeriesHistoricItem implements HistoricItem {
+
+    private final String name;
+    private final long timestamp;
+    private final State state;
+
+    TimeSeriesHistoricItem(String name, long timestamp, State state) {
+        this.name = name;
+        this.timestamp = timestamp;
+        this.state = state;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public State getState() {
+        return state;
+    }
+
+    @Override
+    public Date getTimestamp() {
+        return new Date(timestamp);
+    }
+
+    long getTime() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return DateFormat.getDateTimeInstance().format(getTimestamp()) + ": " + name + " -> " + state.toString();
+    }
+
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.storage.timeseries.internal;
+
+import java.util.Date;
+
+import org.eclipse.smarthome.core.persistence.PersistenceItemInfo;
+
+/**
+ * The {@link PersistenceItemInfo} of a time series.
+ *
+ * @author agent - Initial contribution and API
+ */
+class TimeSeriesItemInfo implements PersistenceItemInfo {
+
+    private final String name;
+    private final Integer count;
+    private final Date earliest;
+    private final Date latest;
+
+    TimeSeriesItemInfo(String name, Integer count, Date earliest, Date latest) {
+        this.name = name;
+        this.count = count;
+        this.earliest = earliest;
+        this.latest = latest;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Integer getCount() {
+        return count;
+    }
+
+    @Override
+    public Date getEarliest() {
+        return earliest;
+    }
+
+    @Override
+    public Date getLatest() {
+        return latest;
+    }
+
+}
@@ -0,0 +1,307 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.storage.timeseries.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
+import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.eclipse.smarthome.core.persistence.ModifiablePersistenceService;
+import org.eclipse.smarthome.core.persistence.PersistenceItemInfo;
+import org.eclipse.smarthome.core.persistence.PersistenceService;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.UnDefType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This is an embedded time series {@link PersistenceService}. The states of each item are stored in a directory of
+ * append-only segment files below {@code <userdata>/persistence/timeseries}. Timestamps are stored as delta of deltas
+ * and numeric values as XOR with the previous value, so that regular samples of slowly changing values only need a
+ * few bytes. A query only reads the segments which overlap with the requested time range.
+ * <p>
+ * New records are written into the memory-mapped active segment of an item, which is mapped on the first write. They
+ * survive a crash of the runtime as soon as {@link #store(Item)} returns, and are written to the storage device every
+ * {@code syncInterval} seconds, when an active segment is full and when the service is deactivated.
+ * <p>
+ * The configuration property {@code segmentSize} defines the size of new segment files in bytes (default 65536), the
+ * property {@code syncInterval} the interval, in which the active segments are synchronized with the storage device
+ * (default 10 seconds, 0 disables the periodic synchronization).
+ *
+ * @author agent - Initial contribution and API
+ */
+public class TimeSeriesPersistenceService implements ModifiablePersistenceService {
+
+    private static final String SERVICE_ID = "timeseries";
+
+    private static final String SERVICE_LABEL = "Embedded Time Series";
+
+    private static final String CONFIG_SEGMENT_SIZE = "segmentSize";
+
+    private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024;
+
+    private static final int MIN_SEGMENT_SIZE = 4 * 1024;
+
+    private static final String CONFIG_SYNC_INTERVAL = "syncInterval";
+
+    private static final long DEFAULT_SYNC_INTERVAL = 10;
+
+    private static final String THREAD_POOL_NAME = "timeseries";
+
+    private final Logger logger = LoggerFactory.getLogger(TimeSeriesPersistenceService.class);
+
+    private final ConcurrentMap<String, ItemSeries> series = new ConcurrentHashMap<>();
+
+    private final Runnable syncTask = new Runnable() {
+        @Override
+        public void run() {
+            for (ItemSeries itemSeries : series.values()) {
+                itemSeries.force();
+            }
+        }
+    };
+
+    private File directory;
+
+    private int segmentSize = DEFAULT_SEGMENT_SIZE;
+
+    private long syncInterval = DEFAULT_SYNC_INTERVAL;
+
+    private ScheduledFuture<?> syncJob;
+
+    protected void activate(Map<String, Object> config) {
+        modified(config);
+        directory = new File(ConfigConstants.getUserDataFolder() + File.separator + "persistence" + File.separator
+                + SERVICE_ID);
+        directory.mkdirs();
+
+        File[] itemDirectories = directory.listFiles();
+        if (itemDirectories != null) {
+            for (File itemDirectory : itemDirectories) {
+                if (itemDirectory.isDirectory()) {
+                    String name = decodeName(itemDirectory.getName());
+                    series.put(name, new ItemSeries(name, itemDirectory, segmentSize));
+                }
+            }
+        }
+        logger.debug("Opened {} time series in '{}'.", series.size(), directory.getAbsolutePath());
+    }
+
+    protected void modified(Map<String, Object> config) {
+        if (config == null) {
+            return;
+        }
+        Object value = config.get(CONFIG_SEGMENT_SIZE);
+        if (value != null) {
+            try {
+                segmentSize = Math.max(MIN_SEGMENT_SIZE, Integer.parseInt(value.toString().trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid segment size '{}', using {} bytes.", value, segmentSize);
+            }
+        }
+        Object interval = config.get(CONFIG_SYNC_INTERVAL);
+        try {
+            syncInterval = interval != null ? Long.parseLong(interval.toString().trim()) : DEFAULT_SYNC_INTERVAL;
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid sync interval '{}', using {} seconds.", interval, DEFAULT_SYNC_INTERVAL);
+            syncInterval = DEFAULT_SYNC_INTERVAL;
+        }
+        scheduleSync();
+    }
+
+    private synchronized void scheduleSync() {
+        if (syncJob != null) {
+            syncJob.cancel(false);
+            syncJob = null;
+        }
+        if (syncInterval > 0) {
+            syncJob = ThreadPoolManager.getScheduledPool(THREAD_POOL_NAME).scheduleWithFixedDelay(syncTask,
+                    syncInterval, syncInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    protected void deactivate() {
+        synchronized (this) {
+            if (syncJob != null) {
+                syncJob.cancel(false);
+                syncJob = null;
+            }
+        }
+        for (ItemSeries itemSeries : series.values()) {
+            itemSeries.close();
+        }
+        series.clear();
+    }
+
+    @Override
+    public String getId() {
+        return SERVICE_ID;
+    }
+
+    @Override
+    public String getLabel(Locale locale) {
+        return SERVICE_LABEL;
+    }
+
+    @Override
+    public void store(Item item) {
+        store(item, null);
+    }
+
+    @Override
+    public void store(Item item, String alias) {
+        store(alias != null ? alias : item.getName(), new Date(), item.getState());
+    }
+
+    @Override
+    public void store(Item item, Date date, State state) {
+        store(item.getName(), date, state);
+    }
+
+    private void store(String name, Date date, State state) {
+        if (state == null || state instanceof UnDefType) {
+            return;
+        }
+        try {
+            ItemSeries itemSeries = getOrCreateSeries(name);
+            while (!itemSeries.store(date.getTime(), state)) {
+                // all records of the item have been removed concurrently, so the state starts a new series
+                series.remove(name, itemSeries);
+                itemSeries = getOrCreateSeries(name);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to store state '{}' of item '{}': {}", state, name, e.getMessage());
+        }
+    }
+
+    @Override
+    public Iterable<HistoricItem> query(FilterCriteria filter) {
+        List<HistoricItem> result = new ArrayList<>();
+        try {
+            if (filter.getItemName() != null) {
+                ItemSeries itemSeries = series.get(filter.getItemName());
+                if (itemSeries != null) {
+                    result.addAll(itemSeries.query(filter));
+                }
+                return result;
+            }
+
+            // without an item name, the first pages of all items have to be merged
+            long skip = (long) filter.getPageNumber() * filter.getPageSize();
+            long limit = skip + filter.getPageSize();
+            FilterCriteria itemFilter = new FilterCriteria().setBeginDate(filter.getBeginDate())
+                    .setEndDate(filter.getEndDate()).setOperator(filter.getOperator())
+                    .setOrdering(filter.getOrdering()).setState(filter.getState())
+                    .setPageSize((int) Math.min(Integer.MAX_VALUE, limit));
+            List<TimeSeriesHistoricItem> records = new ArrayList<>();
+            for (ItemSeries itemSeries : series.values()) {
+                records.addAll(itemSeries.query(itemFilter));
+            }
+            sort(records, filter.getOrdering());
+            result.addAll(records.subList((int) Math.min(records.size(), skip), (int) Math.min(records.size(), limit)));
+        } catch (IOException e) {
+            logger.error("Failed to query the time series: {}", e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public Set<PersistenceItemInfo> getItemInfo() {
+        Set<PersistenceItemInfo> itemInfo = new HashSet<>();
+        for (ItemSeries itemSeries : series.values()) {
+            try {
+                itemInfo.add(itemSeries.getItemInfo());
+            } catch (IOException e) {
+                logger.error("Failed to read the time series of item '{}': {}", itemSeries.getName(), e.getMessage());
+            }
+        }
+        return itemInfo;
+    }
+
+    @Override
+    public boolean remove(FilterCriteria filter) throws IllegalArgumentException {
+        if (filter == null || filter.getItemName() == null) {
+            throw new IllegalArgumentException("Item name must not be null");
+        }
+        ItemSeries itemSeries = series.get(filter.getItemName());
+        if (itemSeries == null) {
+            return true;
+        }
+        try {
+            if (itemSeries.remove(filter)) {
+                series.remove(itemSeries.getName(), itemSeries);
+            }
+            return true;
+        } catch (IOException e) {
+            logger.error("Failed to remove data of item '{}': {}", itemSeries.getName(), e.getMessage());
+            return false;
+        }
+    }
+
+    private ItemSeries getOrCreateSeries(String name) {
+        ItemSeries itemSeries = series.get(name);
+        if (itemSeries == null) {
+            synchronized (series) {
+                itemSeries = series.get(name);
+                if (itemSeries == null) {
+                    itemSeries = new ItemSeries(name, new File(directory, encodeName(name)), segmentSize);
+                    series.put(name, itemSeries);
+                }
+            }
+        }
+        return itemSeries;
+    }
+
+    private void sort(List<TimeSeriesHistoricItem> records, final Ordering ordering) {
+        Collections.sort(records, new Comparator<TimeSeriesHistoricItem>() {
+            @Override
+            public int compare(TimeSeriesHistoricItem record, TimeSeriesHistoricItem otherRecord) {
+                int comparison = Long.compare(record.getTime(), otherRecord.getTime());
+                return ordering == Ordering.ASCENDING ? comparison : -comparison;
+            }
+        });
+    }
+
+    private static String encodeName(String name) {
+        try {
+            return URLEncoder.encode(name, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String decodeName(String fileName) {
+        try {
+            return URLDecoder.decode(fileName, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
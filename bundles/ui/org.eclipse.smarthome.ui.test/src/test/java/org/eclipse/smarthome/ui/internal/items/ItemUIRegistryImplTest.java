@@ -22,6 +22,7 @@ import org.eclipse.smarthome.core.library.types.DateTimeType;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.types.StateDescription;
 import org.eclipse.smarthome.core.types.UnDefType;
 import org.eclipse.smarthome.model.sitemap.Sitemap;
 import org.eclipse.smarthome.model.sitemap.SitemapFactory;
@@ -130,6 +131,18 @@ public class ItemUIRegistryImplTest {
         assertEquals("Label [3" + sep + ".333]", label);
     }
 
+    @Test
+    public void getLabel_labelWithWrongFormat() throws ItemNotFoundException {
+        String testLabel = "Label [%x]";
+        Widget w = mock(Widget.class);
+        Item item = mock(Item.class);
+        when(w.getLabel()).thenReturn(testLabel);
+        when(w.getItem()).thenReturn("Item");
+        when(registry.getItem("Item")).thenReturn(item);
+        when(item.getState()).thenReturn(new StringType("value"));
+        assertEquals("Label [Err]", uiRegistry.getLabel(w));
+    }
+
     @Test
     public void getLabel_labelWithPercent() throws ItemNotFoundException {
         String testLabel = "Label [%.1f %%]";
@@ -294,6 +307,37 @@ public class ItemUIRegistryImplTest {
         assertEquals("Label [5]", label);
     }
 
+    @Test
+    public void getLabel_labelWithChangingState() throws ItemNotFoundException {
+        String testLabel = "Label [%s]";
+        Widget w = mock(Widget.class);
+        Item item = mock(Item.class);
+        when(w.getLabel()).thenReturn(testLabel);
+        when(w.getItem()).thenReturn("Item");
+        when(registry.getItem("Item")).thenReturn(item);
+        when(item.getState()).thenReturn(new StringType("State"));
+        assertEquals("Label [State]", uiRegistry.getLabel(w));
+        when(item.getState()).thenReturn(new StringType("Changed"));
+        assertEquals("Label [Changed]", uiRegistry.getLabel(w));
+        when(item.getState()).thenReturn(UnDefType.NULL);
+        assertEquals("Label [-]", uiRegistry.getLabel(w));
+    }
+
+    @Test
+    public void getLabel_labelWithChangingStateDescription() throws ItemNotFoundException {
+        String testLabel = "Label";
+        Widget w = mock(Widget.class);
+        Item item = mock(Item.class);
+        when(w.getLabel()).thenReturn(testLabel);
+        when(w.getItem()).thenReturn("Item");
+        when(registry.getItem("Item")).thenReturn(item);
+        when(item.getState()).thenReturn(new DecimalType(20));
+        when(item.getStateDescription()).thenReturn(new StateDescription(null, null, null, "%d", true, null));
+        assertEquals("Label [20]", uiRegistry.getLabel(w));
+        when(item.getStateDescription()).thenReturn(new StateDescription(null, null, null, "%d °C", true, null));
+        assertEquals("Label [20 °C]", uiRegistry.getLabel(w));
+    }
+
     @Test
     public void getWidget_UnknownPageId() throws ItemNotFoundException {
         Sitemap sitemap = SitemapFactory.eINSTANCE.createSitemap();
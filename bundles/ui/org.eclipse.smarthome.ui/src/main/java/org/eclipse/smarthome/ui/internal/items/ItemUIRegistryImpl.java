@@ -11,7 +11,9 @@ import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -83,13 +85,34 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
     /* RegEx to extract and parse a function String <code>'\[(.*?)\((.*)\):(.*)\]'</code> */
     protected static final Pattern EXTRACT_TRANSFORMFUNCTION_PATTERN = Pattern.compile("\\[(.*?)\\((.*)\\):(.*)\\]");
 
+    /* RegEx to extract and parse the function of a format pattern <code>'(.*?)\((.*)\):(.*)'</code> */
+    private static final Pattern PATTERN_TRANSFORMFUNCTION_PATTERN = Pattern.compile("(.*?)\\((.*)\\):(.*)");
+
     /* RegEx to identify format patterns. See java.util.Formatter#formatSpecifier (without the '%' at the very end). */
     protected static final String IDENTIFY_FORMAT_PATTERN_PATTERN = "%(\\d+\\$)?([-#+ 0,(\\<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z])";
 
+    private static final Pattern FORMAT_SPECIFIER_PATTERN = Pattern.compile(IDENTIFY_FORMAT_PATTERN_PATTERN);
+
+    /* the value of a label, whose state cannot be formatted */
+    private static final String FORMAT_ERROR = "Err";
+
+    /* the maximum number of parsed labels, which are cached */
+    private static final int MAX_LABEL_FORMATS = 1000;
+
     protected Set<ItemUIProvider> itemUIProviders = new HashSet<ItemUIProvider>();
 
     protected ItemRegistry itemRegistry;
 
+    private final Map<String, LabelFormat> labelFormats = Collections
+            .synchronizedMap(new LinkedHashMap<String, LabelFormat>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, LabelFormat> eldest) {
+                    return size() > MAX_LABEL_FORMATS;
+                }
+            });
+
     public ItemUIRegistryImpl() {
     }
 
@@ -269,37 +292,35 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
     @Override
     public String getLabel(Widget w) {
         String label = getLabelFromWidget(w);
+        LabelFormat labelFormat = getLabelFormat(label);
 
         // now insert the value, if the state is a string or decimal value and there is some formatting pattern defined
         // in the label
         // (i.e. it contains at least a %)
         String itemName = w.getItem();
+        String value = null;
+        boolean formatError = false;
         if (itemName != null) {
-            State state = null;
-            String formatPattern = null;
-
             try {
                 final Item item = getItem(itemName);
-                if (getFormatPattern(label) == null) {
+                if (labelFormat.formatPattern == null) {
                     final StateDescription stateDescription = item.getStateDescription();
                     if (stateDescription != null) {
                         final String pattern = stateDescription.getPattern();
                         if (pattern != null) {
-                            label = label + " [" + pattern + "]";
+                            labelFormat = getLabelFormat(label + " [" + pattern + "]");
                         }
                     }
                 }
 
-                String updatedPattern = getFormatPattern(label);
-                if (updatedPattern != null) {
-                    formatPattern = updatedPattern;
-
+                if (labelFormat.formatPattern != null) {
+                    State state;
                     // TODO: TEE: we should find a more generic solution here! When
                     // using indexes in formatString this 'contains' will fail again
                     // and will cause an 'java.util.IllegalFormatConversionException:
                     // d != java.lang.String' later on when trying to format a String
                     // as %d (number).
-                    if (label.contains("%d")) {
+                    if (labelFormat.decimal) {
                         // a number is requested
                         state = item.getState();
                         if (!(state instanceof DecimalType)) {
@@ -308,35 +329,68 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
                     } else {
                         state = item.getState();
                     }
-                }
-            } catch (ItemNotFoundException e) {
-                logger.error("Cannot retrieve item for widget {}", w.eClass().getInstanceTypeName());
-            }
-
-            if (formatPattern != null) {
-                if (state == null || state instanceof UnDefType) {
-                    formatPattern = formatUndefined(formatPattern);
-                } else if (state instanceof Type) {
                     // The following exception handling has been added to work around a Java bug with formatting
                     // numbers. See http://bugs.sun.com/view_bug.do?bug_id=6476425
                     // Without this catch, the whole sitemap, or page can not be displayed!
                     // This also handles IllegalFormatConversionException, which is a subclass of IllegalArgument.
                     try {
-                        formatPattern = ((Type) state).format(formatPattern);
+                        value = formatValue(labelFormat, state);
                     } catch (IllegalArgumentException e) {
                         logger.warn("Exception while formatting value '{}' of item {} with format '{}': {}", state,
-                                itemName, formatPattern, e);
-                        formatPattern = new String("Err");
+                                itemName, labelFormat.valuePattern, e);
+                        formatError = true;
                     }
                 }
+            } catch (ItemNotFoundException e) {
+                logger.error("Cannot retrieve item for widget {}", w.eClass().getInstanceTypeName());
+            }
+        }
 
-                label = label.trim().substring(0, label.indexOf("[") + 1) + formatPattern + "]";
+        if (labelFormat.formatPattern == null) {
+            return label;
+        }
+        if (formatError) {
+            return labelFormat.prefix + FORMAT_ERROR + "]";
+        }
+        if (value == null) {
+            if (labelFormat.transformationType == null) {
+                return label;
             }
+            // a static value, which may be transformed nevertheless
+            value = labelFormat.valuePattern;
         }
+        return labelFormat.prefix + transform(labelFormat, value) + "]";
+    }
 
-        label = transform(label);
+    /**
+     * Returns the parsed form of a label. The labels are cached by their text, so a label, which has been changed in
+     * the sitemap or item model or by a state description, is parsed again.
+     *
+     * @param label the label
+     * @return the parsed label
+     */
+    private LabelFormat getLabelFormat(String label) {
+        LabelFormat labelFormat = labelFormats.get(label);
+        if (labelFormat == null) {
+            labelFormat = new LabelFormat(label);
+            labelFormats.put(label, labelFormat);
+        }
+        return labelFormat;
+    }
 
-        return label;
+    /**
+     * Formats the state for the value part of a label.
+     *
+     * @return the formatted value
+     * @throws IllegalArgumentException if the state cannot be formatted with the pattern
+     */
+    private String formatValue(LabelFormat labelFormat, State state) {
+        if (state == null || state instanceof UnDefType) {
+            return labelFormat.undefinedValue;
+        } else if (state instanceof Type) {
+            return ((Type) state).format(labelFormat.valuePattern);
+        }
+        return labelFormat.valuePattern;
     }
 
     private String getFormatPattern(String label) {
@@ -380,7 +434,7 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
      * @return a formatted String with dashes ("-") as value replacement
      */
     protected String formatUndefined(String formatPattern) {
-        String undefinedFormatPattern = formatPattern.replaceAll(IDENTIFY_FORMAT_PATTERN_PATTERN, "%1\\$s");
+        String undefinedFormatPattern = FORMAT_SPECIFIER_PATTERN.matcher(formatPattern).replaceAll("%1\\$s");
         try {
             return String.format(undefinedFormatPattern, "-");
         } catch (Exception e) {
@@ -391,38 +445,29 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
     }
 
     /*
-     * check if there is a status value being displayed on the right side of the
-     * label (the right side is signified by being enclosed in square brackets [].
-     * If so, check if the value starts with the call to a transformation service
+     * check if the status value being displayed on the right side of the
+     * label starts with the call to a transformation service
      * (e.g. "[MAP(en.map):%s]") and execute the transformation in this case.
      */
-    private String transform(String label) {
-        if (getFormatPattern(label) != null) {
-            Matcher matcher = EXTRACT_TRANSFORMFUNCTION_PATTERN.matcher(label);
-            if (matcher.find()) {
-                String type = matcher.group(1);
-                String pattern = matcher.group(2);
-                String value = matcher.group(3);
-                TransformationService transformation = TransformationHelper
-                        .getTransformationService(UIActivator.getContext(), type);
-                if (transformation != null) {
-                    try {
-                        label = label.substring(0, label.indexOf("[") + 1) + transformation.transform(pattern, value)
-                                + "]";
-                    } catch (TransformationException e) {
-                        logger.error("transformation throws exception [transformation=" + transformation + ", value="
-                                + value + "]", e);
-                        label = label.substring(0, label.indexOf("[") + 1) + value + "]";
-                    }
-                } else {
-                    logger.warn(
-                            "couldn't transform value in label because transformationService of type '{}' is unavailable",
-                            type);
-                    label = label.substring(0, label.indexOf("[") + 1) + value + "]";
-                }
+    private String transform(LabelFormat labelFormat, String value) {
+        if (labelFormat.transformationType == null) {
+            return value;
+        }
+        String type = labelFormat.transformationType;
+        TransformationService transformation = TransformationHelper
+                .getTransformationService(UIActivator.getContext(), type);
+        if (transformation != null) {
+            try {
+                return transformation.transform(labelFormat.transformationFunction, value);
+            } catch (TransformationException e) {
+                logger.error("transformation throws exception [transformation=" + transformation + ", value=" + value
+                        + "]", e);
             }
+        } else {
+            logger.warn("couldn't transform value in label because transformationService of type '{}' is unavailable",
+                    type);
         }
-        return label;
+        return value;
     }
 
     /**
@@ -685,6 +730,22 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
         return itemRegistry.getAll();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterable<Item> getAllView() {
+        return itemRegistry.getAllView();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getVersion() {
+        return itemRegistry.getVersion();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1091,4 +1152,57 @@ public class ItemUIRegistryImpl implements ItemUIRegistry {
 
     }
 
+    /**
+     * The parsed form of a label like <code>Temperature [MAP(temp.map):%.1f °C]</code>, which is shared by all renders
+     * of the label, so that only the state has to be formatted.
+     */
+    private class LabelFormat {
+
+        /* the trimmed label up to and including the opening bracket, e.g. "Temperature [" */
+        private final String prefix;
+
+        /* the pattern between the brackets, e.g. "MAP(temp.map):%.1f °C", or null if there is none */
+        private final String formatPattern;
+
+        /* the pattern for the state without the transformation, e.g. "%.1f °C" */
+        private final String valuePattern;
+
+        /* the transformation type and function, e.g. "MAP" and "temp.map", or null if there is none */
+        private final String transformationType;
+        private final String transformationFunction;
+
+        /* true, if a number is requested */
+        private final boolean decimal;
+
+        /* the value to be displayed for an undefined state */
+        private final String undefinedValue;
+
+        private LabelFormat(String label) {
+            formatPattern = getFormatPattern(label);
+            if (formatPattern != null) {
+                String trimmedLabel = label.trim();
+                prefix = trimmedLabel.substring(0, trimmedLabel.indexOf("[") + 1);
+                Matcher matcher = PATTERN_TRANSFORMFUNCTION_PATTERN.matcher(formatPattern);
+                if (matcher.matches()) {
+                    transformationType = matcher.group(1);
+                    transformationFunction = matcher.group(2);
+                    valuePattern = matcher.group(3);
+                } else {
+                    transformationType = null;
+                    transformationFunction = null;
+                    valuePattern = formatPattern;
+                }
+                decimal = formatPattern.contains("%d");
+                undefinedValue = formatUndefined(valuePattern);
+            } else {
+                prefix = null;
+                valuePattern = null;
+                transformationType = null;
+                transformationFunction = null;
+                decimal = false;
+                undefinedValue = null;
+            }
+        }
+    }
+
 }
@@ -0,0 +1,4 @@
+// the global variable must not have a value of another script or of an earlier transformation
+var leaked = typeof shared !== 'undefined';
+var shared = 'first';
+(leaked ? 'leaked' : shared) + ':' + input;
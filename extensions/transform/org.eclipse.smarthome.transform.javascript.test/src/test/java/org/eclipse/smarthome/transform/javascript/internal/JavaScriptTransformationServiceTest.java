@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.transform.javascript.internal;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class JavaScriptTransformationServiceTest {
+
+    private static final String FIRST_FILENAME = "js/first.js";
+    private static final String SECOND_FILENAME = "js/second.js";
+    private static final String BASE_FOLDER = "target";
+    private static final String SRC_FOLDER = "conf";
+    private static final String CONFIG_FOLDER = BASE_FOLDER + File.separator + SRC_FOLDER;
+
+    private JavaScriptTransformationService processor;
+
+    @Before
+    public void init() throws IOException {
+        processor = new JavaScriptTransformationService() {
+            @Override
+            protected String getSourcePath() {
+                return BASE_FOLDER + File.separator + super.getSourcePath();
+            }
+
+            @Override
+            protected Locale getLocale() {
+                return Locale.US;
+            }
+        };
+        FileUtils.deleteDirectory(new File(CONFIG_FOLDER));
+        FileUtils.copyDirectory(new File(SRC_FOLDER), new File(CONFIG_FOLDER));
+    }
+
+    @Test
+    public void testTransformByJavaScript() throws Exception {
+        assertThat(processor.transform(FIRST_FILENAME, "x"), is("first:x"));
+        assertThat(processor.transform(FIRST_FILENAME, "y"), is("first:y"));
+    }
+
+    @Test
+    public void testGlobalVariablesDoNotLeakBetweenScripts() throws Exception {
+        // both scripts declare the same global variable and are evaluated by the same pooled engine
+        assertThat(processor.transform(FIRST_FILENAME, "x"), is("first:x"));
+        assertThat(processor.transform(SECOND_FILENAME, "x"), is("second:x"));
+        assertThat(processor.transform(FIRST_FILENAME, "x"), is("first:x"));
+    }
+
+}
@@ -7,83 +7,163 @@
  */
 package org.eclipse.smarthome.transform.javascript.internal;
 
-import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.InputStreamReader;
-import java.io.Reader;
-
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 
 import org.apache.commons.io.IOUtils;
-import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.core.transform.AbstractFileTransformationService;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
+import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * The implementation of {@link TransformationService} which transforms the
  * input by Java Script.
- * 
+ * <p>
+ * The scripts are read once and cached until their file is modified. Script engines are not thread-safe, so each
+ * transformation borrows an engine from a pool of idle engines, which is only created if none is idle. Every engine
+ * keeps the scripts it has compiled, so a script is compiled once per engine instead of once per transformation.
+ * Each transformation is evaluated with its own bindings, so that the global variables of a script neither leak into
+ * other scripts nor into later transformations that use the same engine.
+ *
  * @author Pauli Anttila
  */
-public class JavaScriptTransformationService implements TransformationService {
+public class JavaScriptTransformationService extends AbstractFileTransformationService<JavaScriptTransformationService.Script> {
+
+    /** the maximum number of engines kept for reuse, transformations beyond that create temporary engines */
+    private static final int MAX_IDLE_ENGINES = Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+
+    private final Logger logger = LoggerFactory.getLogger(JavaScriptTransformationService.class);
+
+    private final BlockingQueue<JavaScriptEngine> idleEngines = new ArrayBlockingQueue<>(MAX_IDLE_ENGINES);
+
+    private ScriptEngineManager manager;
+
+    @Override
+    protected void activate(BundleContext context) {
+        super.activate(context);
+        manager = new ScriptEngineManager();
+    }
+
+    @Override
+    protected void deactivate() {
+        idleEngines.clear();
+        manager = null;
+        super.deactivate();
+    }
 
     /**
      * Transforms the input <code>source</code> by Java Script. It expects the
      * transformation rule to be read from a file which is stored under the
      * 'configurations/transform' folder. To organize the various
      * transformations one should use subfolders.
-     * 
-     * @param filename
-     *            the name of the file which contains the Java script
-     *            transformation rule. Transformation service inject input
+     *
+     * @param script
+     *            the Java script transformation rule. Transformation service inject input
      *            (source) to 'input' variable.
      * @param source
      *            the input to transform
      */
     @Override
-    public String transform(String filename, String source) throws TransformationException {
-        Logger logger = LoggerFactory.getLogger(JavaScriptTransformationService.class);
-        if (filename == null || source == null) {
-            throw new TransformationException("the given parameters 'filename' and 'source' must not be null");
-        }
+    protected String internalTransform(Script script, String source) throws TransformationException {
+        logger.debug("about to transform '{}' by Java Script", source);
 
-        logger.debug("about to transform '{}' by the Java Script '{}'", source, filename);
+        JavaScriptEngine engine = idleEngines.poll();
+        if (engine == null) {
+            engine = createEngine();
+        }
 
-        Reader reader;
+        long startTime = System.currentTimeMillis();
+        try {
+            Object result = engine.eval(script, source);
+            logger.trace("JavaScript execution elapsed {} ms", System.currentTimeMillis() - startTime);
+            return String.valueOf(result);
+        } catch (ScriptException e) {
+            throw new TransformationException("An error occured while executing script.", e);
+        } finally {
+            // the engine is dropped, if there are enough idle ones already
+            idleEngines.offer(engine);
+        }
+    }
 
+    @Override
+    protected Script internalLoadTransform(String filename) throws TransformationException {
+        InputStream input = null;
         try {
-            String path = ConfigConstants.getConfigFolder() + File.separator
-                    + TransformationService.TRANSFORM_FOLDER_NAME + File.separator + filename;
-            reader = new InputStreamReader(new FileInputStream(path));
-        } catch (FileNotFoundException e) {
+            input = new FileInputStream(filename);
+            return new Script(IOUtils.toString(input));
+        } catch (IOException e) {
             throw new TransformationException("An error occured while loading script.", e);
+        } finally {
+            IOUtils.closeQuietly(input);
         }
+    }
 
-        ScriptEngineManager manager = new ScriptEngineManager();
-
+    private JavaScriptEngine createEngine() throws TransformationException {
+        ScriptEngineManager manager = this.manager;
+        if (manager == null) {
+            manager = new ScriptEngineManager();
+        }
         ScriptEngine engine = manager.getEngineByName("javascript");
-        engine.put("input", source);
+        if (engine == null) {
+            throw new TransformationException("No Java Script engine is available.");
+        }
+        return new JavaScriptEngine(engine);
+    }
 
-        Object result = null;
+    /**
+     * The source of a transformation script. The cached instance identifies the script until its file is modified.
+     */
+    static class Script {
 
-        long startTime = System.currentTimeMillis();
+        private final String source;
 
-        try {
-            result = engine.eval(reader);
-        } catch (ScriptException e) {
-            throw new TransformationException("An error occured while executing script.", e);
-        } finally {
-            IOUtils.closeQuietly(reader);
+        private Script(String source) {
+            this.source = source;
         }
+    }
+
+    /**
+     * A script engine together with the scripts it has compiled. It must only be used by one thread at a time.
+     */
+    private static class JavaScriptEngine {
+
+        private final ScriptEngine engine;
 
-        logger.trace("JavaScript execution elapsed {} ms", System.currentTimeMillis() - startTime);
+        /** the compiled scripts, the entries are dropped when the script is no longer cached */
+        private final Map<Script, CompiledScript> compiledScripts = new WeakHashMap<>();
 
-        return String.valueOf(result);
+        private JavaScriptEngine(ScriptEngine engine) {
+            this.engine = engine;
+        }
+
+        private Object eval(Script script, String input) throws ScriptException {
+            Bindings bindings = engine.createBindings();
+            bindings.put("input", input);
+            if (!(engine instanceof Compilable)) {
+                return engine.eval(script.source, bindings);
+            }
+            CompiledScript compiledScript = compiledScripts.get(script);
+            if (compiledScript == null) {
+                compiledScript = ((Compilable) engine).compile(script.source);
+                compiledScripts.put(script, compiledScript);
+            }
+            return compiledScript.eval(bindings);
+        }
     }
 
 }
@@ -7,11 +7,15 @@
  */
 package org.eclipse.smarthome.transform.jsonpath.internal;
 
+import org.eclipse.smarthome.core.transform.DocumentTransformationService;
+import org.eclipse.smarthome.core.transform.TransformationCache;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
@@ -20,15 +24,32 @@ import com.jayway.jsonpath.PathNotFoundException;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by JSonPath Expressions.
  * </p>
+ * <p>
+ * The compiled paths are thread-safe and kept in a {@link TransformationCache}. The service is a
+ * {@link DocumentTransformationService}, so several paths can be read from a JSON document, which is parsed once.
+ * </p>
  *
  * @author Gaël L'hopital
  * @author Sebastian Janzen
  *
  */
-public class JSonPathTransformationService implements TransformationService {
+public class JSonPathTransformationService implements DocumentTransformationService {
 
     private final Logger logger = LoggerFactory.getLogger(JSonPathTransformationService.class);
 
+    private final TransformationCache<String, JsonPath> cache = new TransformationCache<>();
+
+    private final TransformationCache.Loader<String, JsonPath> loader = new TransformationCache.Loader<String, JsonPath>() {
+        @Override
+        public JsonPath load(String jsonPathExpression) throws TransformationException {
+            try {
+                return JsonPath.compile(jsonPathExpression);
+            } catch (InvalidPathException e) {
+                throw new TransformationException("An error occured while transforming JSON expression.", e);
+            }
+        }
+    };
+
     /**
      * Transforms the input <code>source</code> by JSonPath expression.
      *
@@ -46,16 +67,58 @@ public class JSonPathTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, jsonPathExpression);
 
+        JsonPath jsonPath = cache.get(jsonPathExpression, loader);
+
+        try {
+            return toResult(jsonPath.read(source));
+        } catch (PathNotFoundException e) {
+            return null;
+        } catch (InvalidPathException e) {
+            throw new TransformationException("An error occured while transforming JSON expression.", e);
+        }
+    }
+
+    @Override
+    public Object parse(String source) throws TransformationException {
+        if (source == null) {
+            throw new TransformationException("the given parameter 'source' must not be null");
+        }
+        try {
+            return Configuration.defaultConfiguration().jsonProvider().parse(source);
+        } catch (InvalidJsonException e) {
+            throw new TransformationException("An error occured while parsing JSON.", e);
+        }
+    }
+
+    @Override
+    public String transform(String jsonPathExpression, Object document) throws TransformationException {
+        if (jsonPathExpression == null || document == null) {
+            throw new TransformationException("the given parameters 'JSonPath' and 'document' must not be null");
+        }
+
+        logger.debug("about to transform a parsed document by the function '{}'", jsonPathExpression);
+
+        JsonPath jsonPath = cache.get(jsonPathExpression, loader);
+
         try {
-            Object transformationResult = JsonPath.read(source, jsonPathExpression);
-            logger.debug("transformation resulted in '{}'", transformationResult);
-            return (transformationResult != null) ? transformationResult.toString() : null;
+            return toResult(jsonPath.read(document));
         } catch (PathNotFoundException e) {
             return null;
         } catch (InvalidPathException e) {
             throw new TransformationException("An error occured while transforming JSON expression.", e);
         }
+    }
 
+    private String toResult(Object transformationResult) {
+        logger.debug("transformation resulted in '{}'", transformationResult);
+        return (transformationResult != null) ? transformationResult.toString() : null;
+    }
+
+    /**
+     * @return the cache of the compiled paths
+     */
+    TransformationCache<String, JsonPath> getCache() {
+        return cache;
     }
 
 }
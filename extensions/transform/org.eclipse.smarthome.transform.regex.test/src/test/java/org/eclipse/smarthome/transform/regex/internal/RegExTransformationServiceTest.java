@@ -9,6 +9,7 @@ package org.eclipse.smarthome.transform.regex.internal;
 
 import static org.junit.Assert.assertEquals;
 
+import org.eclipse.smarthome.core.transform.TransformationCache;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.junit.Before;
 import org.junit.Test;
@@ -73,4 +74,31 @@ public class RegExTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("varX=12 varY=54 ", transformedResponse);
     }
+
+    @Test
+    public void testTransformByRegex_cachedPattern() throws TransformationException {
+        // method under test
+        processor.transform("s/([A-Z]+)([0-9]+),*/var$1=$2 /g", "X12,Y54");
+        String transformedResponse = processor.transform("s/([A-Z]+)([0-9]+),*/var$1=$2 /g", "A1");
+
+        // Asserts
+        assertEquals("varA=1 ", transformedResponse);
+        assertEquals(1, processor.getCache().getMissCount());
+        assertEquals(1, processor.getCache().getHitCount());
+    }
+
+    @Test
+    public void testTransformByRegex_leastRecentlyUsedPatternIsEvicted() throws TransformationException {
+        processor.transform("(.*)", "first");
+        for (int i = 1; i <= TransformationCache.DEFAULT_MAX_SIZE; i++) {
+            processor.transform("(.*)" + i, "value" + i);
+        }
+
+        // Asserts
+        assertEquals(TransformationCache.DEFAULT_MAX_SIZE, processor.getCache().size());
+        processor.transform("(.*)" + TransformationCache.DEFAULT_MAX_SIZE, "value");
+        assertEquals(1, processor.getCache().getHitCount());
+        processor.transform("(.*)", "first");
+        assertEquals(1, processor.getCache().getHitCount());
+    }
 }
@@ -10,6 +10,7 @@ package org.eclipse.smarthome.transform.regex.internal;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.eclipse.smarthome.core.transform.TransformationCache;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
 import org.slf4j.Logger;
@@ -21,6 +22,8 @@ import org.slf4j.LoggerFactory;
  * </p>
  * <p>
  * <b>Note:</b> the given Regular Expression must contain exactly one group!
+ * <p>
+ * The compiled patterns are kept in a {@link TransformationCache}.
  *
  * @author Thomas.Eichstaedt-Engelen
  */
@@ -30,6 +33,22 @@ public class RegExTransformationService implements TransformationService {
 
     private static final Pattern substPattern = Pattern.compile("^s/(.*?[^\\\\])/(.*?[^\\\\])/(.*)$");
 
+    private final TransformationCache<String, RegEx> cache = new TransformationCache<>();
+
+    private final TransformationCache.Loader<String, RegEx> loader = new TransformationCache.Loader<String, RegEx>() {
+        @Override
+        public RegEx load(String regExpression) {
+            Matcher substMatcher = substPattern.matcher(regExpression);
+            if (substMatcher.matches()) {
+                String regex = substMatcher.group(1);
+                String substitution = substMatcher.group(2);
+                String options = substMatcher.group(3);
+                return new RegEx(Pattern.compile(regex), substitution, options.equals("g"));
+            }
+            return new RegEx(Pattern.compile("^" + regExpression + "$", Pattern.DOTALL), null, false);
+        }
+    };
+
     /**
      * @{inheritDoc
      */
@@ -44,23 +63,18 @@ public class RegExTransformationService implements TransformationService {
 
         String result = "";
 
-        Matcher substMatcher = substPattern.matcher(regExpression);
-        if (substMatcher.matches()) {
+        RegEx regEx = cache.get(regExpression, loader);
+        if (regEx.substitution != null) {
             logger.debug("Using substitution form of regex transformation");
-            String regex = substMatcher.group(1);
-            String substitution = substMatcher.group(2);
-            String options = substMatcher.group(3);
-            if (options.equals("g")) {
-                result = source.trim().replaceAll(regex, substitution);
+            Matcher substMatcher = regEx.pattern.matcher(source.trim());
+            if (regEx.global) {
+                return substMatcher.replaceAll(regEx.substitution);
             } else {
-                result = source.trim().replaceFirst(regex, substitution);
-            }
-            if (result != null) {
-                return result;
+                return substMatcher.replaceFirst(regEx.substitution);
             }
         }
 
-        Matcher matcher = Pattern.compile("^" + regExpression + "$", Pattern.DOTALL).matcher(source.trim());
+        Matcher matcher = regEx.pattern.matcher(source.trim());
         if (!matcher.matches()) {
             logger.debug(
                     "the given regex '^{}$' doesn't match the given content '{}' -> couldn't compute transformation",
@@ -90,4 +104,29 @@ public class RegExTransformationService implements TransformationService {
         return result;
     }
 
+    /**
+     * @return the cache of the compiled patterns
+     */
+    TransformationCache<String, RegEx> getCache() {
+        return cache;
+    }
+
+    /**
+     * A compiled regular expression, either for the extraction of a group or for a substitution.
+     */
+    static class RegEx {
+
+        private final Pattern pattern;
+
+        private final String substitution;
+
+        private final boolean global;
+
+        private RegEx(Pattern pattern, String substitution, boolean global) {
+            this.pattern = pattern;
+            this.substitution = substitution;
+            this.global = global;
+        }
+    }
+
 }
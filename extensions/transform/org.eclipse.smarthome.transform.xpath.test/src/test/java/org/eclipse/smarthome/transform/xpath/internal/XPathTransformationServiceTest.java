@@ -35,4 +35,15 @@ public class XPathTransformationServiceTest extends AbstractTransformationServic
         assertEquals("8", transformedResponse);
     }
 
+    @Test
+    public void testTransformParsedDocument() throws TransformationException {
+
+        Object document = processor.parse(source);
+
+        // method under test
+        assertEquals("8", processor.transform("//current_conditions/temp_c/@data", document));
+        assertEquals("46", processor.transform("//current_conditions/temp_f/@data", document));
+        assertEquals("Krefeld Germany", processor.transform("//postal_code/@data", document));
+    }
+
 }
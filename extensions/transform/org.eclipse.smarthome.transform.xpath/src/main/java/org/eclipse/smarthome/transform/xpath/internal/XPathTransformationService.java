@@ -11,11 +11,14 @@ import java.io.StringReader;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
+import org.eclipse.smarthome.core.transform.DocumentTransformationService;
+import org.eclipse.smarthome.core.transform.TransformationCache;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
 import org.slf4j.Logger;
@@ -27,13 +30,52 @@ import org.xml.sax.InputSource;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XPath Expressions.
  * </p>
+ * <p>
+ * The compiled expressions are kept in a {@link TransformationCache}. An {@link XPathExpression} is not thread-safe,
+ * so the evaluations of the same expression are synchronized, while different expressions are evaluated in parallel.
+ * Each thread parses the documents with its own {@link DocumentBuilder}. The service is a
+ * {@link DocumentTransformationService}, so several expressions can be evaluated against a document, which is parsed
+ * once.
+ * </p>
  *
  * @author Thomas.Eichstaedt-Engelen
  */
-public class XPathTransformationService implements TransformationService {
+public class XPathTransformationService implements DocumentTransformationService {
 
     private final Logger logger = LoggerFactory.getLogger(XPathTransformationService.class);
 
+    private final XPathFactory xpathFactory = XPathFactory.newInstance();
+
+    private final TransformationCache<String, XPathExpression> cache = new TransformationCache<>();
+
+    private final TransformationCache.Loader<String, XPathExpression> loader = new TransformationCache.Loader<String, XPathExpression>() {
+        @Override
+        public XPathExpression load(String xpathExpression) throws TransformationException {
+            // neither the factory nor the created XPath are thread-safe
+            synchronized (xpathFactory) {
+                try {
+                    return xpathFactory.newXPath().compile(xpathExpression);
+                } catch (XPathExpressionException e) {
+                    throw new TransformationException("transformation throws exceptions", e);
+                }
+            }
+        }
+    };
+
+    private final ThreadLocal<DocumentBuilder> documentBuilders = new ThreadLocal<DocumentBuilder>() {
+        @Override
+        protected DocumentBuilder initialValue() {
+            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+            domFactory.setNamespaceAware(true);
+            domFactory.setValidating(false);
+            try {
+                return domFactory.newDocumentBuilder();
+            } catch (ParserConfigurationException e) {
+                throw new IllegalStateException("cannot create document builder", e);
+            }
+        }
+    };
+
     /**
      * @{inheritDoc
      */
@@ -46,36 +88,65 @@ public class XPathTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, xpathExpression);
 
-        StringReader stringReader = null;
+        return evaluate(xpathExpression, (Document) parse(source));
+    }
 
+    @Override
+    public Object parse(String source) throws TransformationException {
+        if (source == null) {
+            throw new TransformationException("the given parameter 'source' must not be null");
+        }
+
+        StringReader stringReader = new StringReader(source);
         try {
-            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-            domFactory.setNamespaceAware(true);
-            domFactory.setValidating(false);
-            DocumentBuilder builder = domFactory.newDocumentBuilder();
+            DocumentBuilder builder = documentBuilders.get();
+            builder.reset();
 
-            stringReader = new StringReader(source);
             InputSource inputSource = new InputSource(stringReader);
             inputSource.setEncoding("UTF-8");
 
-            Document doc = builder.parse(inputSource);
+            return builder.parse(inputSource);
+        } catch (Exception e) {
+            throw new TransformationException("transformation throws exceptions", e);
+        } finally {
+            stringReader.close();
+        }
+    }
+
+    @Override
+    public String transform(String xpathExpression, Object document) throws TransformationException {
+        if (xpathExpression == null || !(document instanceof Document)) {
+            throw new TransformationException(
+                    "the given parameter 'xpath' must not be null and 'document' must be an XML document");
+        }
 
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            XPathExpression expr = xpath.compile(xpathExpression);
+        logger.debug("about to transform a parsed document by the function '{}'", xpathExpression);
 
-            String transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
+        return evaluate(xpathExpression, (Document) document);
+    }
+
+    private String evaluate(String xpathExpression, Document doc) throws TransformationException {
+        XPathExpression expr = cache.get(xpathExpression, loader);
+
+        try {
+            String transformationResult;
+            synchronized (expr) {
+                transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
+            }
 
             logger.debug("transformation resulted in '{}'", transformationResult);
 
             return transformationResult;
         } catch (Exception e) {
             throw new TransformationException("transformation throws exceptions", e);
-        } finally {
-            if (stringReader != null) {
-                stringReader.close();
-            }
         }
+    }
 
+    /**
+     * @return the cache of the compiled expressions
+     */
+    TransformationCache<String, XPathExpression> getCache() {
+        return cache;
     }
 
 }
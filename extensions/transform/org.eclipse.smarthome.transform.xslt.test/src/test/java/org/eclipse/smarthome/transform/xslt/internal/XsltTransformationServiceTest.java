@@ -9,7 +9,11 @@ package org.eclipse.smarthome.transform.xslt.internal;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.File;
+
+import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.core.transform.TransformationException;
+import org.eclipse.smarthome.core.transform.TransformationService;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -35,4 +39,24 @@ public class XsltTransformationServiceTest extends AbstractTransformationService
         assertEquals("8", transformedResponse);
     }
 
+    @Test
+    public void testTransformByXSLT_modifiedFileReplacesItsEntry() throws TransformationException {
+        File file = new File(ConfigConstants.getConfigFolder() + File.separator
+                + TransformationService.TRANSFORM_FOLDER_NAME + File.separator + "http/google_weather.xsl");
+        long lastModified = file.lastModified();
+
+        processor.transform("http/google_weather.xsl", source);
+        try {
+            file.setLastModified(lastModified + 2000);
+            String transformedResponse = processor.transform("http/google_weather.xsl", source);
+
+            // Asserts
+            assertEquals("8", transformedResponse);
+            assertEquals(2, processor.getCache().getMissCount());
+            assertEquals(1, processor.getCache().size());
+        } finally {
+            file.setLastModified(lastModified);
+        }
+    }
+
 }
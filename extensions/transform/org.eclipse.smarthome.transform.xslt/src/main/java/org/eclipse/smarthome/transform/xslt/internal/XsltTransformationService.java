@@ -11,13 +11,15 @@ import java.io.File;
 import java.io.StringReader;
 import java.io.StringWriter;
 
-import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
 import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.core.transform.TransformationCache;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
 import org.slf4j.Logger;
@@ -27,6 +29,11 @@ import org.slf4j.LoggerFactory;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XSLT.
  * </p>
+ * <p>
+ * The compiled stylesheets are kept as thread-safe {@link Templates} in a {@link TransformationCache}, keyed by the
+ * file. The modification time of the file is kept with them, so that a modified file replaces its entry and is
+ * compiled again.
+ * </p>
  *
  * @author Thomas.Eichstaedt-Engelen
  */
@@ -34,6 +41,27 @@ public class XsltTransformationService implements TransformationService {
 
     private final Logger logger = LoggerFactory.getLogger(XsltTransformationService.class);
 
+    private final TransformerFactory transformerFactory = TransformerFactory.newInstance();
+
+    private final TransformationCache<String, Stylesheet> cache = new TransformationCache<>();
+
+    private final TransformationCache.Loader<String, Stylesheet> loader = new TransformationCache.Loader<String, Stylesheet>() {
+        @Override
+        public Stylesheet load(String path) throws TransformationException {
+            File file = new File(path);
+            long lastModified = file.lastModified();
+            try {
+                // the factory is not thread-safe
+                synchronized (transformerFactory) {
+                    return new Stylesheet(lastModified, transformerFactory.newTemplates(new StreamSource(file)));
+                }
+            } catch (TransformerConfigurationException e) {
+                logger.error("transformation throws exception", e);
+                throw new TransformationException("transformation throws exception", e);
+            }
+        }
+    };
+
     /**
      * <p>
      * Transforms the input <code>source</code> by XSLT. It expects the transformation rule to be read from a file which
@@ -57,28 +85,18 @@ public class XsltTransformationService implements TransformationService {
             throw new TransformationException("the given parameters 'filename' and 'source' must not be null");
         }
 
-        Source xsl = null;
-
-        try {
-            String path = ConfigConstants.getConfigFolder() + File.separator
-                    + TransformationService.TRANSFORM_FOLDER_NAME + File.separator + filename;
-            xsl = new StreamSource(new File(path));
-        } catch (Exception e) {
-            String message = "opening file '" + filename + "' throws exception";
-
-            logger.error(message, e);
-            throw new TransformationException(message, e);
-        }
+        String path = ConfigConstants.getConfigFolder() + File.separator + TransformationService.TRANSFORM_FOLDER_NAME
+                + File.separator + filename;
+        Templates xsl = getTemplates(path);
 
-        logger.debug("about to transform '{}' by the function '{}'", source, xsl);
+        logger.debug("about to transform '{}' by the function '{}'", source, filename);
 
         StringReader xml = new StringReader(source);
         StringWriter out = new StringWriter();
 
-        Transformer transformer;
-
         try {
-            transformer = TransformerFactory.newInstance().newTransformer(xsl);
+            // a transformer is cheap to create from the templates, but it is not thread-safe
+            Transformer transformer = xsl.newTransformer();
             transformer.transform(new StreamSource(xml), new StreamResult(out));
         } catch (Exception e) {
             logger.error("transformation throws exception", e);
@@ -90,4 +108,43 @@ public class XsltTransformationService implements TransformationService {
         return out.toString();
     }
 
+    /**
+     * Returns the compiled stylesheet of the given file. If the file has been modified since it has been compiled,
+     * its entry is replaced.
+     *
+     * @param path the path of the file
+     * @return the compiled stylesheet
+     * @throws TransformationException if the stylesheet cannot be compiled
+     */
+    private Templates getTemplates(String path) throws TransformationException {
+        Stylesheet stylesheet = cache.get(path, loader);
+        if (stylesheet.lastModified != new File(path).lastModified()) {
+            cache.invalidate(path);
+            stylesheet = cache.get(path, loader);
+        }
+        return stylesheet.templates;
+    }
+
+    /**
+     * @return the cache of the compiled stylesheets
+     */
+    TransformationCache<String, Stylesheet> getCache() {
+        return cache;
+    }
+
+    /**
+     * A compiled stylesheet together with the modification time of its file.
+     */
+    static class Stylesheet {
+
+        private final long lastModified;
+
+        private final Templates templates;
+
+        Stylesheet(long lastModified, Templates templates) {
+            this.lastModified = lastModified;
+            this.templates = templates;
+        }
+    }
+
 }